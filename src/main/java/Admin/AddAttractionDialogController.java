@@ -30,15 +30,6 @@ public class AddAttractionDialogController {
     }
 
     private void saveAttraction() {
-        if (nameField.getText().trim().isEmpty() ||
-                locationField.getText().trim().isEmpty() ||
-                difficultyComboBox.getValue() == null ||
-                typeField.getText().trim().isEmpty()) {
-
-            showAlert();
-            return;
-        }
-
         Attraction attraction = new Attraction(
                 nameField.getText().trim(),
                 locationField.getText().trim(),
@@ -47,6 +38,12 @@ public class AddAttractionDialogController {
                 remarksArea.getText().trim()
         );
 
+        String error = Validation.attraction(attraction);
+        if (error != null) {
+            showAlert(error);
+            return;
+        }
+
         parentController.addAttraction(attraction);
         closeDialog();
     }
@@ -56,11 +53,11 @@ public class AddAttractionDialogController {
         stage.close();
     }
 
-    private void showAlert() {
+    private void showAlert(String message) {
         Alert alert = new Alert(Alert.AlertType.WARNING);
         alert.setTitle("Validation Error");
         alert.setHeaderText(null);
-        alert.setContentText("Please fill in all required fields.");
+        alert.setContentText(message);
         alert.showAndWait();
     }
 }
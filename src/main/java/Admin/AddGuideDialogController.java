@@ -2,6 +2,7 @@
 package Admin;
 
 import Models.Guide; // Import Guide instead of User
+import Models.Validation;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
@@ -31,19 +32,6 @@ public class AddGuideDialogController {
     }
 
     private void saveGuide() { // Fix: Renamed from saveTourist
-        if (firstNameField.getText().trim().isEmpty() ||
-                lastNameField.getText().trim().isEmpty() ||
-                emailField.getText().trim().isEmpty() ||
-                phoneField.getText().trim().isEmpty() ||
-                passwordField.getText().trim().isEmpty() ||
-                nationalityField.getText().trim().isEmpty() ||
-                languageField.getText().trim().isEmpty() ||
-                experienceField.getText().trim().isEmpty()) {
-
-            showAlert();
-            return;
-        }
-
         // Fix: Create Guide object with all required fields
         Guide guide = new Guide(
                 firstNameField.getText().trim(),
@@ -56,6 +44,12 @@ public class AddGuideDialogController {
                 experienceField.getText().trim()
         );
 
+        String error = Validation.guide(guide);
+        if (error != null) {
+            showAlert(error);
+            return;
+        }
+
         parentController.addGuide(guide); // Fix: Use correct variable name
         closeDialog();
     }
@@ -65,11 +59,11 @@ public class AddGuideDialogController {
         stage.close();
     }
 
-    private void showAlert() {
+    private void showAlert(String message) {
         Alert alert = new Alert(Alert.AlertType.WARNING);
         alert.setTitle("Validation Error");
         alert.setHeaderText(null);
-        alert.setContentText("Please fill in all required fields.");
+        alert.setContentText(message);
         alert.showAndWait();
     }
 }
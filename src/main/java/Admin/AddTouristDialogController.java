@@ -2,6 +2,7 @@ package Admin;
 
 import Models.Attraction;
 import Models.User;
+import Models.Validation;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
@@ -27,17 +28,6 @@ public class AddTouristDialogController {
     }
 
     private void saveTourist() { // Renamed from saveAttraction
-        if (firstNameField.getText().trim().isEmpty() ||
-                lastNameField.getText().trim().isEmpty() ||
-                emailField.getText().trim().isEmpty() ||
-                phoneField.getText().trim().isEmpty() ||
-                passwordField.getText().trim().isEmpty() ||
-                nationalityField.getText().trim().isEmpty()) {
-                ;
-            showAlert();
-            return;
-        }
-
         // Fix parameter order: (firstName, lastName, email, phone, password, nationality)
         User tourist = new User(
                 firstNameField.getText().trim(),
@@ -47,6 +37,12 @@ public class AddTouristDialogController {
                 passwordField.getText().trim(),  // password comes last
                 nationalityField.getText().trim()
         );
+
+        String error = Validation.user(tourist);
+        if (error != null) {
+            showAlert(error);
+            return;
+        }
         parentController.addTourist(tourist);
         closeDialog();
     }
@@ -56,11 +52,11 @@ public class AddTouristDialogController {
         stage.close();
     }
 
-    private void showAlert() {
+    private void showAlert(String message) {
         Alert alert = new Alert(Alert.AlertType.WARNING);
         alert.setTitle("Validation Error");
         alert.setHeaderText(null);
-        alert.setContentText("Please fill in all required fields.");
+        alert.setContentText(message);
         alert.showAndWait();
     }
     public void setParentController(TouristContentController parentController) {
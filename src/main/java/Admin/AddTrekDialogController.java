@@ -1,15 +1,17 @@
 package Admin;
 
-import Models.Attraction;
-import Models.Guide;
+import Models.Money;
 import Models.Trek;
-import Storage.AdminJSONHandler;
+import Models.Validation;
+import Storage.AttractionRepository;
+import Storage.GuideRepository;
+import Storage.Repositories;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Map;
 
 public class AddTrekDialogController {
 
@@ -28,11 +30,13 @@ public class AddTrekDialogController {
     @FXML private Button cancelButton;
 
     private TreksContentController parentController;
-    private AdminJSONHandler jsonHandler;
+    private AttractionRepository attractionRepository;
+    private GuideRepository guideRepository;
 
     @FXML
     private void initialize() {
-        jsonHandler = new AdminJSONHandler();
+        attractionRepository = Repositories.attractions();
+        guideRepository = Repositories.guides();
 
         // Setup difficulty options
         difficultyComboBox.getItems().addAll("Easy", "Moderate", "Hard", "Extreme");
@@ -122,18 +126,19 @@ public class AddTrekDialogController {
     }
 
     private void loadAttractions() {
-        List<Attraction> attractions = jsonHandler.loadAttractions();
+        // Only ids and names are needed, so the full records aren't loaded
+        Map<Integer, String> attractions = attractionRepository.loadAttractionNames();
         attractionComboBox.getItems().clear();
-        for (Attraction attraction : attractions) {
-            attractionComboBox.getItems().add(attraction.getName() + " (ID: " + attraction.getId() + ")");
+        for (Map.Entry<Integer, String> attraction : attractions.entrySet()) {
+            attractionComboBox.getItems().add(attraction.getValue() + " (ID: " + attraction.getKey() + ")");
         }
     }
 
     private void loadGuides() {
-        List<Guide> guides = jsonHandler.loadGuides();
+        Map<String, String> guides = guideRepository.loadGuideNames();
         guideComboBox.getItems().clear();
-        for (Guide guide : guides) {
-            guideComboBox.getItems().add(guide.getFirstName() + " " + guide.getLastName() + " (" + guide.getEmail() + ")");
+        for (Map.Entry<String, String> guide : guides.entrySet()) {
+            guideComboBox.getItems().add(guide.getValue() + " (" + guide.getKey() + ")");
         }
     }
 
@@ -162,8 +167,9 @@ public class AddTrekDialogController {
             int maxAltitude;
             try {
                 maxAltitude = Integer.parseInt(maxAltitudeField.getText().trim());
-                if (maxAltitude < 0) {
-                    showAlert("Validation Error", "Altitude cannot be negative.");
+                String altitudeError = Validation.altitude(maxAltitude);
+                if (altitudeError != null) {
+                    showAlert("Validation Error", altitudeError);
                     return;
                 }
             } catch (NumberFormatException e) {
@@ -187,14 +193,17 @@ public class AddTrekDialogController {
                 }
 
                 discountPercent = Double.parseDouble(discountText);
-                if (discountPercent < 0 || discountPercent > 100) {
-                    showAlert("Validation Error", "Discount percentage must be between 0 and 100.");
+                String discountError = Validation.discountPercent(discountPercent);
+                if (discountError != null) {
+                    showAlert("Validation Error", discountError);
                     return;
                 }
 
-                // Calculate final cost after discount
-                double discountAmount = originalCost * (discountPercent / 100.0);
-                finalCost = originalCost - discountAmount;
+                // Calculate final cost after discount, exactly in minor units
+                long originalMinor = Money.toMinor(originalCost);
+                long discountMinor = Money.percentOf(originalMinor, Money.toBasisPoints(discountPercent));
+                double discountAmount = Money.toMajor(discountMinor);
+                finalCost = Money.toMajor(originalMinor - discountMinor);
 
                 System.out.println("Original Cost: $" + String.format("%.2f", originalCost));
                 System.out.println("Discount: " + discountPercent + "%");
@@ -5,8 +5,15 @@ import Models.Trek;
 import Models.Attraction;
 import Models.User;
 import Models.Guide;
-import Storage.AdminJSONHandler;
-import Storage.JSONHandler;
+import Storage.AttractionRepository;
+import Storage.BookingRepository;
+import Storage.ChangeBus;
+import Storage.ChangeEvent;
+import Storage.GuideRepository;
+import Storage.Repositories;
+import Storage.TrekRepository;
+import Storage.UserRepository;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -16,6 +23,7 @@ import javafx.scene.control.*;
 
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -60,19 +68,27 @@ public class AdminBookingsController implements Initializable {
 
     private ObservableList<BookingDisplayData> allBookings;
     private ObservableList<BookingDisplayData> filteredBookings;
-    private AdminJSONHandler jsonHandler;
-    private JSONHandler userJsonHandler;
+    private TrekRepository trekRepository;
+    private AttractionRepository attractionRepository;
+    private BookingRepository bookingRepository;
+    private GuideRepository guideRepository;
+    private UserRepository userRepository;
     private BookingDisplayData selectedBooking;
+    private final List<ChangeBus.Subscription> subscriptions = new ArrayList<>();
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        jsonHandler = new AdminJSONHandler();
-        userJsonHandler = new JSONHandler();
+        trekRepository = Repositories.treks();
+        attractionRepository = Repositories.attractions();
+        bookingRepository = Repositories.bookings();
+        guideRepository = Repositories.guides();
+        userRepository = Repositories.users();
 
         setupTable();
         setupEventHandlers();
         setupTableSelection();
         loadAllBookingsInitial(); // Initial load without notification
+        subscribeToChanges();
 
         System.out.println("AdminBookingsController initialized - loading all bookings");
     }
@@ -170,12 +186,11 @@ public class AdminBookingsController implements Initializable {
             int bookingId = Integer.parseInt(selectedBooking.getBookingId());
 
             // Proceed with deletion
-            boolean success = jsonHandler.deleteBooking(bookingId);
+            boolean success = bookingRepository.deleteBooking(bookingId);
 
             if (success) {
                 showAlert("Success", "Booking '" + selectedBooking.getBookingId() + "' has been deleted successfully.");
-                loadAllBookingsInitial(); // Refresh the table
-                clearSelection(); // Clear the selection
+                clearSelection(); // The BookingDeleted event removes the row
             } else {
                 showAlert("Error", "Failed to delete the booking. Please try again.");
             }
@@ -209,7 +224,7 @@ public class AdminBookingsController implements Initializable {
             System.out.println("Loading all bookings from JSON file...");
 
             // Get ALL bookings from JSON file
-            List<Booking> allBookingsList = jsonHandler.loadBookings();
+            List<Booking> allBookingsList = bookingRepository.loadBookings();
             System.out.println("Found " + allBookingsList.size() + " total bookings");
 
             // Convert to display data
@@ -238,17 +253,55 @@ public class AdminBookingsController implements Initializable {
         }
     }
 
+    // Keep the table in step with bookings made or deleted anywhere in the app
+    private void subscribeToChanges() {
+        ChangeBus bus = ChangeBus.getInstance();
+        subscriptions.add(bus.subscribe(ChangeEvent.BookingAdded.class, Platform::runLater, this::onBookingAdded));
+        subscriptions.add(bus.subscribe(ChangeEvent.BookingDeleted.class, Platform::runLater, this::onBookingDeleted));
+        subscriptions.add(bus.subscribe(ChangeEvent.RecordsImported.class, Platform::runLater, event -> {
+            if (event.recordType() == Booking.class) {
+                loadAllBookingsInitial();
+            }
+        }));
+
+        // The dashboard swaps this screen out by replacing it, so stop listening once it's gone
+        bookingsTable.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                subscriptions.forEach(ChangeBus.Subscription::cancel);
+                subscriptions.clear();
+            }
+        });
+    }
+
+    private void onBookingAdded(ChangeEvent.BookingAdded event) {
+        if (allBookings == null) return;
+
+        BookingDisplayData displayData = createDisplayData(event.booking());
+        if (displayData != null) {
+            allBookings.add(displayData);
+            updateTotalBookingsLabel();
+        }
+    }
+
+    private void onBookingDeleted(ChangeEvent.BookingDeleted event) {
+        if (allBookings == null) return;
+
+        String bookingId = String.valueOf(event.bookingId());
+        allBookings.removeIf(booking -> booking.getBookingId().equals(bookingId));
+        updateTotalBookingsLabel();
+    }
+
     private BookingDisplayData createDisplayData(Booking booking) {
         try {
             // Get trek information
-            Trek trek = jsonHandler.getTrekById(booking.getTrekId());
+            Trek trek = trekRepository.getTrekById(booking.getTrekId());
             if (trek == null) {
                 System.err.println("Trek not found for booking: " + booking.getBookingId());
                 return null;
             }
 
             // Get attraction information
-            Attraction attraction = jsonHandler.getAttractionById(trek.getAttractionId());
+            Attraction attraction = attractionRepository.getAttractionById(trek.getAttractionId());
             String attractionName = (attraction != null) ? attraction.getName() : "Unknown Attraction";
 
             // Get tourist name from user email
@@ -261,7 +314,7 @@ public class AdminBookingsController implements Initializable {
             String formattedDate = formatDate(booking.getTrekStartDate());
 
             // Format amount
-            String amount = String.format("$%.0f", trek.getCost());
+            String amount = "$" + trek.getCostWholeString();
 
             return new BookingDisplayData(
                     booking,
@@ -288,7 +341,7 @@ public class AdminBookingsController implements Initializable {
             }
 
             // Load users from JSON file
-            List<User> users = userJsonHandler.loadUsers();
+            List<User> users = userRepository.loadUsers();
 
             // Find user by email
             User user = users.stream()
@@ -338,7 +391,7 @@ public class AdminBookingsController implements Initializable {
 
         try {
             // Try to get guide from JSON first
-            Guide guide = jsonHandler.getGuideByEmail(email);
+            Guide guide = guideRepository.getGuideByEmail(email);
             if (guide != null) {
                 return guide.getFullName();
             }
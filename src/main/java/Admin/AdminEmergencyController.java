@@ -1,7 +1,13 @@
 package Admin;
 
 import Models.Emergency;
-import Storage.AdminJSONHandler;
+import Models.EmergencyStatus;
+import Models.Severity;
+import Storage.ChangeBus;
+import Storage.ChangeEvent;
+import Storage.EmergencyRepository;
+import Storage.Repositories;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -11,6 +17,7 @@ import javafx.scene.control.*;
 
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 
@@ -69,16 +76,18 @@ public class AdminEmergencyController implements Initializable {
 
     private ObservableList<EmergencyDisplayData> allEmergencies;
     private ObservableList<EmergencyDisplayData> filteredEmergencies;
-    private AdminJSONHandler jsonHandler;
+    private EmergencyRepository emergencyRepository;
+    private final List<ChangeBus.Subscription> subscriptions = new ArrayList<>();
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        jsonHandler = new AdminJSONHandler();
+        emergencyRepository = Repositories.emergencies();
 
         setupTable();
         setupFilters();
         setupEventHandlers();
         loadAllEmergencies();
+        subscribeToChanges();
 
         System.out.println("AdminEmergencyController initialized");
     }
@@ -190,8 +199,11 @@ public class AdminEmergencyController implements Initializable {
     }
 
     private void setupEventHandlers() {
-        refreshButton.setOnAction(e -> loadAllEmergencies());
-        refreshButton.setOnAction(e->showSuccess());
+        // New reports and status changes arrive as events; refresh re-reads everything
+        refreshButton.setOnAction(e -> {
+            loadAllEmergencies();
+            showSuccess();
+        });
         viewDetailsButton.setOnAction(e -> viewSelectedEmergencyDetails());
         resolveEmergencyButton.setOnAction(e -> resolveSelectedEmergency());
 
@@ -201,7 +213,7 @@ public class AdminEmergencyController implements Initializable {
             viewDetailsButton.setDisable(!hasSelection);
 
             // Only enable resolve if emergency is not already resolved
-            boolean canResolve = hasSelection && !"resolved".equalsIgnoreCase(newSelection.status());
+            boolean canResolve = hasSelection && newSelection.originalEmergency().getEmergencyStatus() != EmergencyStatus.RESOLVED;
             resolveEmergencyButton.setDisable(!canResolve);
         });
     }
@@ -211,7 +223,7 @@ public class AdminEmergencyController implements Initializable {
             System.out.println("Loading all emergencies...");
 
             // Get ALL emergencies from JSON file
-            List<Emergency> allEmergenciesList = jsonHandler.loadEmergencies();
+            List<Emergency> allEmergenciesList = emergencyRepository.loadEmergencies();
             System.out.println("Found " + allEmergenciesList.size() + " total emergencies");
 
             // Convert to display data
@@ -236,6 +248,44 @@ public class AdminEmergencyController implements Initializable {
         }
     }
 
+    // Emergencies reported by guides or resolved here show up without reloading
+    private void subscribeToChanges() {
+        ChangeBus bus = ChangeBus.getInstance();
+        subscriptions.add(bus.subscribe(ChangeEvent.EmergencyAdded.class, Platform::runLater,
+                event -> onEmergencyChanged(event.emergency())));
+        subscriptions.add(bus.subscribe(ChangeEvent.EmergencyUpdated.class, Platform::runLater,
+                event -> onEmergencyChanged(event.emergency())));
+
+        // The dashboard replaces this screen when navigating away, so stop listening then
+        emergencyTable.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                subscriptions.forEach(ChangeBus.Subscription::cancel);
+                subscriptions.clear();
+            }
+        });
+    }
+
+    // Replaces the row for this emergency, or adds one if it's new
+    private void onEmergencyChanged(Emergency emergency) {
+        if (allEmergencies == null) return;
+
+        EmergencyDisplayData displayData = createDisplayData(emergency);
+        if (displayData == null) return;
+
+        boolean replaced = false;
+        for (int i = 0; i < allEmergencies.size(); i++) {
+            if (allEmergencies.get(i).id() == emergency.getId()) {
+                allEmergencies.set(i, displayData);
+                replaced = true;
+            }
+        }
+        if (!replaced) {
+            allEmergencies.add(displayData);
+        }
+        updateTotalEmergenciesLabel();
+        updateStatistics();
+    }
+
     private EmergencyDisplayData createDisplayData(Emergency emergency) {
         try {
             // Format date
@@ -269,18 +319,21 @@ public class AdminEmergencyController implements Initializable {
     private void applyFilters() {
         if (allEmergencies == null) return;
 
-        String selectedStatus = statusFilter.getValue();
-        String selectedSeverity = severityFilter.getValue();
+        // "All" leaves that filter off (null)
+        EmergencyStatus selectedStatus = "All".equals(statusFilter.getValue())
+                ? null : EmergencyStatus.parse(statusFilter.getValue());
+        Severity selectedSeverity = "All".equals(severityFilter.getValue())
+                ? null : Severity.parse(severityFilter.getValue());
         String searchText = searchField.getText().toLowerCase().trim();
 
         filteredEmergencies = allEmergencies.filtered(emergency -> {
             // Status filter
-            boolean statusMatch = "All".equals(selectedStatus) ||
-                    emergency.status().equalsIgnoreCase(selectedStatus);
+            boolean statusMatch = selectedStatus == null ||
+                    emergency.originalEmergency().getEmergencyStatus() == selectedStatus;
 
             // Severity filter
-            boolean severityMatch = "All".equals(selectedSeverity) ||
-                    emergency.severity().equalsIgnoreCase(selectedSeverity);
+            boolean severityMatch = selectedSeverity == null ||
+                    emergency.originalEmergency().getSeverityLevel() == selectedSeverity;
 
             // Search filter
             boolean searchMatch = searchText.isEmpty() ||
@@ -313,7 +366,7 @@ public class AdminEmergencyController implements Initializable {
 
         int total = allEmergencies.size();
         int pending = (int) allEmergencies.stream()
-                .filter(e -> !"resolved".equalsIgnoreCase(e.status()))
+                .filter(e -> e.originalEmergency().getEmergencyStatus() != EmergencyStatus.RESOLVED)
                 .count();
         int resolved = total - pending;
 
@@ -407,12 +460,12 @@ public class AdminEmergencyController implements Initializable {
         confirmAlert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
                 try {
-                    emergency.setStatus("Resolved");
+                    emergency.setEmergencyStatus(EmergencyStatus.RESOLVED);
                     emergency.setResolvedAt(java.time.LocalDateTime.now());
 
-                    if (jsonHandler.updateEmergency(emergency)) {
+                    if (emergencyRepository.updateEmergency(emergency)) {
+                        // The EmergencyUpdated event updates the row and the counts
                         showAlert("Success", "Emergency marked as resolved successfully!", Alert.AlertType.INFORMATION);
-                        loadAllEmergencies(); // Refresh the data
                     } else {
                         showAlert("Error", "Failed to update emergency status.", Alert.AlertType.ERROR);
                     }
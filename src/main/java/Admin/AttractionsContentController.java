@@ -1,7 +1,8 @@
 package Admin;
 
 import Models.Attraction;
-import Storage.AdminJSONHandler;
+import Storage.AttractionRepository;
+import Storage.Repositories;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -33,14 +34,14 @@ public class AttractionsContentController implements Initializable {
     @FXML private Label selectedAttractionLabel;
     @FXML private Button deleteButton;
 
-    private AdminJSONHandler jsonHandler;
+    private AttractionRepository attractionRepository;
     private ObservableList<Attraction> attractionsList;
     private ObservableList<Attraction> filteredList;
     private Attraction selectedAttraction;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        jsonHandler = new AdminJSONHandler();
+        attractionRepository = Repositories.attractions();
         attractionsList = FXCollections.observableArrayList();
         filteredList = FXCollections.observableArrayList();
 
@@ -128,7 +129,7 @@ public class AttractionsContentController implements Initializable {
 
         if (result.isPresent() && result.get() == deleteButtonType) {
             // Proceed with deletion
-            boolean success = jsonHandler.deleteAttraction(selectedAttraction.getId());
+            boolean success = attractionRepository.deleteAttraction(selectedAttraction.getId());
 
             if (success) {
                 showAlert("Success", "Attraction '" + selectedAttraction.getName() + "' has been deleted successfully.");
@@ -163,7 +164,7 @@ public class AttractionsContentController implements Initializable {
     }
 
     public void loadAttractions() {
-        List<Attraction> attractions = jsonHandler.loadAttractions();
+        List<Attraction> attractions = attractionRepository.loadAttractions();
         attractionsList.setAll(attractions);
         filteredList.setAll(attractions);
         updateTotalLabel();
@@ -204,7 +205,7 @@ public class AttractionsContentController implements Initializable {
     }
 
     public void addAttraction(Attraction attraction) {
-        if (jsonHandler.addAttraction(attraction)) {
+        if (attractionRepository.addAttraction(attraction)) {
             loadAttractions();
             showAlert("Success", "Attraction added successfully!");
         } else {
@@ -13,19 +13,26 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.Region;
 import javafx.scene.control.Separator;
 import Session.UserSession;
-import Storage.JSONHandler;
-import Storage.AdminJSONHandler;
+import Storage.AttractionRepository;
+import Storage.BookingRepository;
+import Storage.EmergencyRepository;
+import Storage.GuideRepository;
+import Storage.Repositories;
+import Storage.TrekRepository;
+import Storage.UserRepository;
 import Models.Emergency;
 import Models.Booking;
 import Models.Trek;
 import Models.Attraction;
 import Models.User;
+import Models.UserType;
 import Services.WeatherService;
 import javafx.scene.chart.PieChart;
 
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
@@ -53,13 +60,21 @@ public class DashboardContentController implements Initializable {
     @FXML private Label weatherHumidityLabel;
     @FXML private Label weatherWindLabel;
 
-    private JSONHandler fileManager;
-    private AdminJSONHandler adminJsonHandler;
+    private TrekRepository trekRepository;
+    private AttractionRepository attractionRepository;
+    private BookingRepository bookingRepository;
+    private GuideRepository guideRepository;
+    private EmergencyRepository emergencyRepository;
+    private UserRepository userRepository;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        fileManager = new JSONHandler();
-        adminJsonHandler = new AdminJSONHandler();
+        trekRepository = Repositories.treks();
+        attractionRepository = Repositories.attractions();
+        bookingRepository = Repositories.bookings();
+        guideRepository = Repositories.guides();
+        emergencyRepository = Repositories.emergencies();
+        userRepository = Repositories.users();
 
         updateCurrentDate();
         loadDashboardData();
@@ -133,7 +148,7 @@ public class DashboardContentController implements Initializable {
 
     private int getTotalTourists() {
         try {
-            return fileManager.loadUsers().size();
+            return userRepository.countUsers();
         } catch (Exception e) {
             System.err.println("Error loading tourists count: " + e.getMessage());
             return 0;
@@ -142,7 +157,7 @@ public class DashboardContentController implements Initializable {
 
     private int getTotalGuides() {
         try {
-            return adminJsonHandler.loadGuides().size();
+            return guideRepository.countGuides();
         } catch (Exception e) {
             System.err.println("Error loading guides count: " + e.getMessage());
             return 0;
@@ -151,7 +166,7 @@ public class DashboardContentController implements Initializable {
 
     private int getTotalAttractions() {
         try {
-            return adminJsonHandler.loadAttractions().size();
+            return attractionRepository.countAttractions();
         } catch (Exception e) {
             System.err.println("Error loading attractions count: " + e.getMessage());
             return 0;
@@ -160,7 +175,7 @@ public class DashboardContentController implements Initializable {
 
     private int getTotalEmergencies() {
         try {
-            return adminJsonHandler.loadEmergencies().size();
+            return emergencyRepository.countEmergencies();
         } catch (Exception e) {
             System.err.println("Error loading emergencies count: " + e.getMessage());
             return 0;
@@ -170,9 +185,9 @@ public class DashboardContentController implements Initializable {
     private void setupSimplifiedBookingTrendsChart() {
         try {
             // Load bookings and related data
-            List<Booking> allBookings = adminJsonHandler.loadBookings();
-            List<Trek> allTreks = adminJsonHandler.loadTreks();
-            List<Attraction> allAttractions = adminJsonHandler.loadAttractions();
+            List<Booking> allBookings = bookingRepository.loadBookings();
+            List<Trek> allTreks = trekRepository.loadTreks();
+            List<Attraction> allAttractions = attractionRepository.loadAttractions();
 
             // Create a map of trek ID to attraction name
             Map<Integer, String> trekToAttractionMap = allTreks.stream()
@@ -243,8 +258,8 @@ public class DashboardContentController implements Initializable {
             activityList.getChildren().clear();
 
             // Load recent emergencies
-            List<Emergency> recentEmergencies = adminJsonHandler.loadEmergencies().stream()
-                    .sorted((e1, e2) -> e2.getReportedAt().compareTo(e1.getReportedAt()))
+            List<Emergency> recentEmergencies = emergencyRepository.loadEmergencies().stream()
+                    .sorted(Comparator.comparingLong(Emergency::getReportedAtEpochSecond).reversed())
                     .limit(6)
                     .toList();
 
@@ -353,18 +368,18 @@ public class DashboardContentController implements Initializable {
     private void setupNationalityPieChart() {
         try {
             // Load all users (tourists)
-            List<User> allUsers = fileManager.loadUsers();
+            List<User> allUsers = userRepository.loadUsers();
 
             // Filter only tourists (exclude admins)
             List<User> tourists = allUsers.stream()
-                    .filter(user -> "user".equalsIgnoreCase(user.getUserType()))
+                    .filter(user -> user.getType() == UserType.USER)
                     .collect(Collectors.toList());
 
-            // Count nationalities
+            // Count nationalities (already trimmed and shared through SharedValues.NATIONALITIES)
             Map<String, Long> nationalityCounts = tourists.stream()
-                    .filter(user -> user.getNationality() != null && !user.getNationality().trim().isEmpty())
+                    .filter(user -> user.getNationality() != null && !user.getNationality().isEmpty())
                     .collect(Collectors.groupingBy(
-                            user -> user.getNationality().trim(),
+                            User::getNationality,
                             Collectors.counting()
                     ));
 
@@ -11,7 +11,8 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import Models.Guide;
-import Storage.JSONHandler;
+import Storage.GuideRepository;
+import Storage.Repositories;
 import javafx.stage.Stage;
 
 import java.io.IOException;
@@ -29,13 +30,13 @@ public class GuidesContentController implements Initializable {
     @FXML private Label selectedGuideLabel;
     @FXML private Button deleteButton;
 
-    private JSONHandler fileManager;
+    private GuideRepository guideRepository;
     private ObservableList<GuideTableData> guideData;
     private GuideTableData selectedGuide;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        fileManager = new JSONHandler();
+        guideRepository = Repositories.guides();
         guideData = FXCollections.observableArrayList();
 
         setupTable();
@@ -120,7 +121,7 @@ public class GuidesContentController implements Initializable {
 
         if (result.isPresent() && result.get() == deleteButtonType) {
             // Proceed with deletion
-            boolean success = JSONHandler.deleteGuide(selectedGuide.getEmail());
+            boolean success = guideRepository.deleteGuide(selectedGuide.getEmail());
 
             if (success) {
                 showAlert("Success", "Guide '" + selectedGuide.getFullName() + "' has been deleted successfully.");
@@ -134,7 +135,7 @@ public class GuidesContentController implements Initializable {
 
     private void loadGuideData() {
         guideData.clear();
-        List<Guide> guides = fileManager.getGuides();
+        List<Guide> guides = guideRepository.loadGuides();
 
         for (Guide guide : guides) {
             GuideTableData data = new GuideTableData();
@@ -207,7 +208,7 @@ public class GuidesContentController implements Initializable {
     }
 
     public void addGuide(Guide guide) {
-        if (JSONHandler.addGuide(guide)) {
+        if (guideRepository.addGuide(guide)) {
             loadGuideData();
             showAlert("Success", "Guide added successfully!");
         } else {
@@ -2,7 +2,8 @@ package Admin;
 
 import First.RegisterController;
 import Models.Attraction;
-import Storage.AdminJSONHandler;
+import Storage.Repositories;
+import Storage.UserRepository;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -14,7 +15,7 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import Models.User;
-import Storage.JSONHandler;
+import Models.UserType;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 
@@ -37,13 +38,13 @@ public class TouristContentController implements Initializable {
     @FXML private Button addTourist;
     @FXML private Button deleteButton;
 
-    private JSONHandler jsonHandler;
+    private UserRepository userRepository;
     private ObservableList<TouristTableData> touristData;
     private TouristTableData selectedTourist;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        jsonHandler = new JSONHandler();
+        userRepository = Repositories.users();
         touristData = FXCollections.observableArrayList();
 
         setupColumns();
@@ -109,7 +110,7 @@ public class TouristContentController implements Initializable {
 
         if (result.isPresent() && result.get() == deleteButtonType) {
             // Proceed with deletion
-            boolean success = JSONHandler.deleteUser(selectedTourist.getEmail());
+            boolean success = userRepository.deleteUser(selectedTourist.getEmail());
 
             if (success) {
                 showAlert("Success", "Tourist '" + selectedTourist.getFullName() + "' has been deleted successfully.");
@@ -122,7 +123,7 @@ public class TouristContentController implements Initializable {
     }
 
     public void addTourist(User tourist) {
-        if (JSONHandler.addUser(tourist)) {
+        if (userRepository.addUser(tourist)) {
             loadTouristData();
             showAlert("Success", "Tourist added successfully!");
         } else {
@@ -183,9 +184,9 @@ public class TouristContentController implements Initializable {
 
     private void loadTouristData() {
         touristData.clear();
-        List<User> allUsers = JSONHandler.loadUsers();
+        List<User> allUsers = userRepository.loadUsers();
         List<User> tourists = allUsers.stream()
-                .filter(u -> "user".equalsIgnoreCase(u.getUserType()))
+                .filter(u -> u.getType() == UserType.USER)
                 .toList();
 
         for (User tourist : tourists) {
@@ -1,8 +1,14 @@
 package Admin;
 
+import Models.Difficulty;
 import Models.Guide;
 import Models.Trek;
-import Storage.AdminJSONHandler;
+import Storage.ChangeBus;
+import Storage.ChangeEvent;
+import Storage.GuideRepository;
+import Storage.Repositories;
+import Storage.TrekRepository;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -17,6 +23,7 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -42,14 +49,17 @@ public class TreksContentController implements Initializable {
     @FXML private Label selectedTrekLabel;
     @FXML private Button deleteButton;
 
-    private AdminJSONHandler jsonHandler;
+    private TrekRepository trekRepository;
+    private GuideRepository guideRepository;
     private ObservableList<Trek> treksList;
     private ObservableList<Trek> filteredList;
     private Trek selectedTrek;
+    private final List<ChangeBus.Subscription> subscriptions = new ArrayList<>();
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        jsonHandler = new AdminJSONHandler();
+        trekRepository = Repositories.treks();
+        guideRepository = Repositories.guides();
         treksList = FXCollections.observableArrayList();
         filteredList = FXCollections.observableArrayList();
 
@@ -57,6 +67,41 @@ public class TreksContentController implements Initializable {
         setupFilters();
         setupTableSelection();
         loadTreks();
+        subscribeToChanges();
+    }
+
+    // Patch the list when treks change instead of reloading the file
+    private void subscribeToChanges() {
+        ChangeBus bus = ChangeBus.getInstance();
+        subscriptions.add(bus.subscribe(ChangeEvent.TrekAdded.class, Platform::runLater, event -> {
+            treksList.add(event.trek());
+            filterTreks();
+        }));
+        subscriptions.add(bus.subscribe(ChangeEvent.TrekUpdated.class, Platform::runLater, event -> {
+            for (int i = 0; i < treksList.size(); i++) {
+                if (treksList.get(i).getId() == event.trek().getId()) {
+                    treksList.set(i, event.trek());
+                }
+            }
+            filterTreks();
+        }));
+        subscriptions.add(bus.subscribe(ChangeEvent.TrekDeleted.class, Platform::runLater, event -> {
+            treksList.removeIf(trek -> trek.getId() == event.trekId());
+            filterTreks();
+        }));
+        subscriptions.add(bus.subscribe(ChangeEvent.RecordsImported.class, Platform::runLater, event -> {
+            if (event.recordType() == Trek.class) {
+                loadTreks();
+            }
+        }));
+
+        // The dashboard replaces this screen when navigating away, so stop listening then
+        treksTable.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                subscriptions.forEach(ChangeBus.Subscription::cancel);
+                subscriptions.clear();
+            }
+        });
     }
 
     private void setupTableColumns() {
@@ -72,7 +117,7 @@ public class TreksContentController implements Initializable {
         guideColumn.setCellValueFactory(cellData -> {
             String guideEmail = cellData.getValue().getGuideEmail();
             if (guideEmail != null) {
-                Guide guide = jsonHandler.getGuideByEmail(guideEmail);
+                Guide guide = guideRepository.getGuideByEmail(guideEmail);
                 if (guide != null) {
                     return new javafx.beans.property.SimpleStringProperty(
                             guide.getFirstName() + " " + guide.getLastName());
@@ -152,12 +197,11 @@ public class TreksContentController implements Initializable {
 
         if (result.isPresent() && result.get() == deleteButtonType) {
             // Proceed with deletion
-            boolean success = jsonHandler.deleteTrek(selectedTrek.getId());
+            boolean success = trekRepository.deleteTrek(selectedTrek.getId());
 
             if (success) {
                 showAlert("Success", "Trek '" + selectedTrek.getTrekName() + "' has been deleted successfully.");
-                loadTreks(); // Refresh the table
-                clearSelection(); // Clear the selection
+                clearSelection(); // The TrekDeleted event removes the row
             } else {
                 showAlert("Error", "Failed to delete the trek. Please try again.");
             }
@@ -185,6 +229,8 @@ public class TreksContentController implements Initializable {
     private void filterTreks() {
         String searchText = searchField.getText();
         String selectedDifficulty = difficultyFilter.getValue();
+        Difficulty selectedLevel = selectedDifficulty == null || selectedDifficulty.equals("Filter by Difficulty")
+                ? null : Difficulty.parse(selectedDifficulty);
 
         List<Trek> filtered = treksList.stream()
                 .filter(trek -> {
@@ -192,9 +238,7 @@ public class TreksContentController implements Initializable {
                             trek.getTrekName().toLowerCase().contains(searchText.toLowerCase()) ||
                             getGuideName(trek.getGuideEmail()).toLowerCase().contains(searchText.toLowerCase());
 
-                    boolean matchesDifficulty = selectedDifficulty == null ||
-                            selectedDifficulty.equals("Filter by Difficulty") ||
-                            trek.getDifficulty().equalsIgnoreCase(selectedDifficulty);
+                    boolean matchesDifficulty = selectedLevel == null || trek.getDifficultyLevel() == selectedLevel;
 
                     return matchesSearch && matchesDifficulty;
                 })
@@ -206,7 +250,7 @@ public class TreksContentController implements Initializable {
 
     private String getGuideName(String guideEmail) {
         if (guideEmail != null) {
-            Guide guide = jsonHandler.getGuideByEmail(guideEmail);
+            Guide guide = guideRepository.getGuideByEmail(guideEmail);
             if (guide != null) {
                 return guide.getFirstName() + " " + guide.getLastName();
             }
@@ -215,7 +259,7 @@ public class TreksContentController implements Initializable {
     }
 
     public void loadTreks() {
-        List<Trek> treks = jsonHandler.loadTreks();
+        List<Trek> treks = trekRepository.loadTreks();
         treksList.setAll(treks);
         filteredList.setAll(treks);
         updateLabels();
@@ -224,9 +268,9 @@ public class TreksContentController implements Initializable {
 
     private void updateLabels() {
         int total = filteredList.size();
-        int easy = (int) filteredList.stream().filter(t -> "Easy".equalsIgnoreCase(t.getDifficulty())).count();
-        int moderate = (int) filteredList.stream().filter(t -> "Moderate".equalsIgnoreCase(t.getDifficulty())).count();
-        int hard = (int) filteredList.stream().filter(t -> "Hard".equalsIgnoreCase(t.getDifficulty())).count();
+        int easy = (int) filteredList.stream().filter(t -> t.getDifficultyLevel() == Difficulty.EASY).count();
+        int moderate = (int) filteredList.stream().filter(t -> t.getDifficultyLevel() == Difficulty.MODERATE).count();
+        int hard = (int) filteredList.stream().filter(t -> t.getDifficultyLevel() == Difficulty.HARD).count();
 
         totalTreksLabel.setText("Total Treks: " + total);
         easyCountLabel.setText("Easy: " + easy);
@@ -264,8 +308,7 @@ public class TreksContentController implements Initializable {
     }
 
     public void addTrek(Trek trek) {
-        if (jsonHandler.addTrek(trek)) {
-            loadTreks();
+        if (trekRepository.addTrek(trek)) {
             showAlert("Success", "Trek added successfully!");
         } else {
             showAlert("Error", "Failed to add trek.");
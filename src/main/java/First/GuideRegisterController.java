@@ -2,12 +2,10 @@ package First;
 
 import Main.MainApplication;
 import Models.Guide;
-import Storage.JSONHandler;
+import Storage.Repositories;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
-import java.util.List;
-
 public class GuideRegisterController {
 
     @FXML
@@ -75,17 +73,14 @@ public class GuideRegisterController {
         }
 
         // Check if guide already exists
-        if (JSONHandler.guideExists(email)) {
+        if (Repositories.guides().guideExists(email)) {
             showError("Guide with this email already exists");
             return;
         }
 
         // Create new guide
         Guide newGuide = new Guide(firstName, lastName, email, phone, password, nationality, language, experience);
-        List<Guide> guides = JSONHandler.loadGuides();
-        guides.add(newGuide);
-
-        if (JSONHandler.saveGuides(guides)) {
+        if (Repositories.guides().addGuide(newGuide)) {
             showSuccess();
         } else {
             showError("Failed to create account. Please try again.");
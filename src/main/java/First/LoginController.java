@@ -3,8 +3,9 @@ package First;
 import Main.MainApplication;
 import Models.User;
 import Models.Guide;
+import Models.UserType;
 import Session.UserSession;
-import Storage.JSONHandler;
+import Storage.Repositories;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
@@ -36,16 +37,14 @@ public class LoginController {
             return;
         }
 
-        List<User> users = JSONHandler.loadUsers();
+        List<User> users = Repositories.users().loadUsers();
         for (User user : users) {
             if ((user.getEmail().equalsIgnoreCase(username) || user.getFirstName().equalsIgnoreCase(username))
                     && user.getPassword().equals(password)) {
 
                 UserSession.getInstance().setCurrentUser(user);  // << Add this line
 
-                String userType = user.getUserType() != null ? user.getUserType().toLowerCase() : "user";
-
-                if (userType.equals("admin")) {
+                if (user.getType() == UserType.ADMIN) {
                     showSuccess("Welcome back, Admin " + user.getFirstName() + "!");
                     MainApplication.changeScene("/Admin/admin_dashboard.fxml");
                     return;
@@ -56,7 +55,7 @@ public class LoginController {
             }
         }
 
-        List<Guide> guides = JSONHandler.loadGuides();
+        List<Guide> guides = Repositories.guides().loadGuides();
         for (Guide guide : guides) {
             if ((guide.getEmail().equalsIgnoreCase(username) || guide.getFirstName().equalsIgnoreCase(username))
                     && guide.getPassword().equals(password)) {
@@ -2,12 +2,10 @@ package First;
 
 import Main.MainApplication;
 import Models.User;
-import Storage.JSONHandler;
+import Storage.Repositories;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
-import java.util.List;
-
 public class RegisterController {
 
     @FXML
@@ -72,17 +70,14 @@ public class RegisterController {
         }
 
         // Check if user already exists
-        if (JSONHandler.userExists(email)) {
+        if (Repositories.users().userExists(email)) {
             showError("User with this email already exists");
             return;
         }
 
         // Create new user
         User newUser = new User(firstName, lastName, email, phone, password, nationality);
-        List<User> users = JSONHandler.loadUsers();
-        users.add(newUser);
-
-        if (JSONHandler.saveUsers(users)) {
+        if (Repositories.users().addUser(newUser)) {
             showSuccess();
         } else {
             showError("Failed to create account. Please try again.");
@@ -3,7 +3,11 @@ package Guide;
 import Models.Emergency;
 import Models.User;
 import Session.UserSession;
-import Storage.AdminJSONHandler;
+import Storage.ChangeBus;
+import Storage.ChangeEvent;
+import Storage.EmergencyRepository;
+import Storage.Repositories;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -14,6 +18,7 @@ import javafx.geometry.Pos;
 
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
 
@@ -31,17 +36,19 @@ public class EmergencyManagementController implements Initializable {
     @FXML
     private Button refreshButton;
 
-    private AdminJSONHandler emergencyHandler;
+    private EmergencyRepository emergencyRepository;
     private User currentGuide;
+    private final List<ChangeBus.Subscription> subscriptions = new ArrayList<>();
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        emergencyHandler = new AdminJSONHandler();
+        emergencyRepository = Repositories.emergencies();
         UserSession userSession = UserSession.getInstance();
         currentGuide = userSession.getCurrentUser();
 
         setupEventHandlers();
         loadEmergencyReports();
+        subscribeToChanges();
 
         // Debug log
         if (currentGuide != null) {
@@ -60,6 +67,33 @@ public class EmergencyManagementController implements Initializable {
         addHoverEffect(refreshButton);
     }
 
+    // Redraw when one of this guide's reports is added or changes status
+    private void subscribeToChanges() {
+        ChangeBus bus = ChangeBus.getInstance();
+        subscriptions.add(bus.subscribe(ChangeEvent.EmergencyAdded.class, Platform::runLater, event -> {
+            if (isCurrentGuides(event.emergency())) {
+                loadEmergencyReports();
+            }
+        }));
+        subscriptions.add(bus.subscribe(ChangeEvent.EmergencyStatusChanged.class, Platform::runLater, event -> {
+            if (isCurrentGuides(event.emergency())) {
+                loadEmergencyReports();
+            }
+        }));
+
+        // The dashboard replaces this screen when navigating away, so stop listening then
+        emergencyReportsList.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) {
+                subscriptions.forEach(ChangeBus.Subscription::cancel);
+                subscriptions.clear();
+            }
+        });
+    }
+
+    private boolean isCurrentGuides(Emergency emergency) {
+        return currentGuide != null && currentGuide.getEmail().equalsIgnoreCase(emergency.getGuideEmail());
+    }
+
     private void loadEmergencyReports() {
         try {
             if (currentGuide == null) {
@@ -72,7 +106,7 @@ public class EmergencyManagementController implements Initializable {
             System.out.println("Loading emergency reports for guide: " + guideEmail);
 
             // Get all emergency reports for this guide
-            List<Emergency> guideEmergencies = emergencyHandler.getEmergenciesByGuideEmail(guideEmail);
+            List<Emergency> guideEmergencies = emergencyRepository.getEmergenciesByGuideEmail(guideEmail);
             System.out.println("Found " + guideEmergencies.size() + " emergency reports");
 
             displayEmergencyReports(guideEmergencies);
@@ -273,9 +307,9 @@ public class EmergencyManagementController implements Initializable {
         });
 
         dialog.showAndWait().ifPresent(emergency -> {
-            if (emergencyHandler.addEmergency(emergency)) {
+            if (emergencyRepository.addEmergency(emergency)) {
+                // The EmergencyAdded event redraws the list
                 showAlert("Success", "Emergency report submitted successfully!", Alert.AlertType.INFORMATION);
-                loadEmergencyReports();
             } else {
                 showAlert("Error", "Failed to submit emergency report. Please try again.", Alert.AlertType.ERROR);
             }
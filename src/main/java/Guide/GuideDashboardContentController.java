@@ -9,7 +9,9 @@ import javafx.scene.layout.VBox;
 import Models.Trek;
 import Models.Attraction;
 import Session.UserSession;
-import Storage.AdminJSONHandler;
+import Storage.AttractionRepository;
+import Storage.Repositories;
+import Storage.TrekRepository;
 import Services.WeatherService;
 import javafx.application.Platform;
 
@@ -43,11 +45,13 @@ public class GuideDashboardContentController implements Initializable {
     @FXML private Label weatherHumidityLabel;
     @FXML private Label weatherWindLabel;
 
-    private AdminJSONHandler adminHandler;
+    private TrekRepository trekRepository;
+    private AttractionRepository attractionRepository;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        adminHandler = new AdminJSONHandler();
+        trekRepository = Repositories.treks();
+        attractionRepository = Repositories.attractions();
         loadDashboardData();
         loadWeatherData();
         setupCalendar();
@@ -75,7 +79,7 @@ public class GuideDashboardContentController implements Initializable {
         String currentGuideEmail = UserSession.getInstance().getCurrentUser().getEmail();
 
         // Get all treks for this guide
-        List<Trek> guideTreks = adminHandler.getTreksByGuideEmail(currentGuideEmail);
+        List<Trek> guideTreks = trekRepository.getTreksByGuideEmail(currentGuideEmail);
 
         if (guideTreks.isEmpty()) {
             hideUpcomingTrek();
@@ -83,17 +87,17 @@ public class GuideDashboardContentController implements Initializable {
         }
 
         // Find the next upcoming trek (closest future date)
-        LocalDate today = LocalDate.now();
+        long today = LocalDate.now().toEpochDay();
         Trek nextTrek = guideTreks.stream()
-                .filter(trek -> trek.getStartDate() != null && trek.getStartDate().isAfter(today))
-                .min(Comparator.comparing(Trek::getStartDate))
+                .filter(trek -> trek.hasStartDate() && trek.getStartEpochDay() > today)
+                .min(Comparator.comparingLong(Trek::getStartEpochDay))
                 .orElse(null);
 
         if (nextTrek == null) {
             // If no future treks, show the most recent one
             nextTrek = guideTreks.stream()
-                    .filter(trek -> trek.getStartDate() != null)
-                    .max(Comparator.comparing(Trek::getStartDate))
+                    .filter(Trek::hasStartDate)
+                    .max(Comparator.comparingLong(Trek::getStartEpochDay))
                     .orElse(guideTreks.get(0));
         }
 
@@ -109,7 +113,7 @@ public class GuideDashboardContentController implements Initializable {
         trekNameLabel.setText(trek.getTrekName());
 
         // Get attraction information
-        Attraction attraction = adminHandler.getAttractionById(trek.getAttractionId());
+        Attraction attraction = attractionRepository.getAttractionById(trek.getAttractionId());
         if (attraction != null) {
             trekLocationLabel.setText(attraction.getLocation());
 
@@ -171,16 +175,16 @@ public class GuideDashboardContentController implements Initializable {
         }
 
         String currentGuideEmail = UserSession.getInstance().getCurrentUser().getEmail();
-        List<Trek> guideTreks = adminHandler.getTreksByGuideEmail(currentGuideEmail);
+        List<Trek> guideTreks = trekRepository.getTreksByGuideEmail(currentGuideEmail);
 
         // Count active trips (treks that are ongoing or upcoming)
-        LocalDate today = LocalDate.now();
+        long today = LocalDate.now().toEpochDay();
         long activeTrips = guideTreks.stream()
-                .filter(trek -> trek.getStartDate() != null)
+                .filter(Trek::hasStartDate)
                 .filter(trek -> {
-                    LocalDate startDate = trek.getStartDate();
+                    long startDay = trek.getStartEpochDay();
                     // Consider a trek active if it starts within the next 30 days or is ongoing
-                    return startDate.isAfter(today.minusDays(30)) && startDate.isBefore(today.plusDays(30));
+                    return startDay > today - 30 && startDay < today + 30;
                 })
                 .count();
 
@@ -242,7 +246,7 @@ public class GuideDashboardContentController implements Initializable {
         }
 
         String currentGuideEmail = UserSession.getInstance().getCurrentUser().getEmail();
-        List<Trek> guideTreks = adminHandler.getTreksByGuideEmail(currentGuideEmail);
+        List<Trek> guideTreks = trekRepository.getTreksByGuideEmail(currentGuideEmail);
 
         LocalDate today = LocalDate.now();
         LocalDate startOfMonth = today.withDayOfMonth(1);
@@ -5,7 +5,8 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.Label;
 import Models.Guide;
 import Session.UserSession;
-import Storage.AdminJSONHandler;
+import Storage.GuideRepository;
+import Storage.Repositories;
 
 import java.net.URL;
 import java.util.ResourceBundle;
@@ -23,13 +24,13 @@ public class GuideProfileContentController implements Initializable {
     @FXML private Label phoneField;
     @FXML private Label experienceField;
 
-    private AdminJSONHandler adminHandler;
+    private GuideRepository guideRepository;
     private Guide currentGuide;
     private String currentGuideEmail;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        adminHandler = new AdminJSONHandler();
+        guideRepository = Repositories.guides();
 
         // Get current guide's email from session
         if (UserSession.getInstance().getCurrentUser() != null) {
@@ -47,7 +48,7 @@ public class GuideProfileContentController implements Initializable {
         }
 
         // Load guide data from JSON file
-        currentGuide = adminHandler.getGuideByEmail(currentGuideEmail);
+        currentGuide = guideRepository.getGuideByEmail(currentGuideEmail);
 
         if (currentGuide != null) {
             populateProfileFields();
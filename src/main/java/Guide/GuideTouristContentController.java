@@ -2,8 +2,11 @@ package Guide;
 
 import Models.*;
 import Session.UserSession;
-import Storage.AdminJSONHandler;
-import Storage.JSONHandler;
+import Storage.AttractionRepository;
+import Storage.BookingRepository;
+import Storage.Repositories;
+import Storage.TrekRepository;
+import Storage.UserRepository;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -25,15 +28,20 @@ public class GuideTouristContentController implements Initializable {
     @FXML
     private VBox touristsList;
 
-    private AdminJSONHandler adminJsonHandler;
+    private TrekRepository trekRepository;
+    private AttractionRepository attractionRepository;
+    private BookingRepository bookingRepository;
+    private UserRepository userRepository;
     private User currentGuide;
 
     private List<TouristData> allTourists;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        adminJsonHandler = new AdminJSONHandler();
-        JSONHandler jsonHandler = new JSONHandler();
+        trekRepository = Repositories.treks();
+        attractionRepository = Repositories.attractions();
+        bookingRepository = Repositories.bookings();
+        userRepository = Repositories.users();
         UserSession userSession = UserSession.getInstance();
         currentGuide = userSession.getCurrentUser();
 
@@ -66,7 +74,7 @@ public class GuideTouristContentController implements Initializable {
             System.out.println("Loading tourists for guide: " + guideEmail);
 
             // Step 1: Get all treks assigned to this guide
-            List<Trek> guideTreks = adminJsonHandler.getTreksByGuideEmail(guideEmail);
+            List<Trek> guideTreks = trekRepository.getTreksByGuideEmail(guideEmail);
             System.out.println("Found " + guideTreks.size() + " treks for guide");
 
             if (guideTreks.isEmpty()) {
@@ -75,7 +83,7 @@ public class GuideTouristContentController implements Initializable {
             }
 
             // Step 2: Get all bookings for these treks
-            List<Booking> allBookings = adminJsonHandler.loadBookings();
+            List<Booking> allBookings = bookingRepository.loadBookings();
             Set<Integer> trekIds = guideTreks.stream()
                     .map(Trek::getId)
                     .collect(Collectors.toSet());
@@ -88,7 +96,7 @@ public class GuideTouristContentController implements Initializable {
 
             // Step 3: Create tourist data from bookings
             allTourists = new ArrayList<>();
-            List<User> allUsers = JSONHandler.loadUsers();
+            List<User> allUsers = userRepository.loadUsers();
 
             for (Booking booking : guideBookings) {
                 TouristData touristData = createTouristData(booking, guideTreks, allUsers);
@@ -142,7 +150,7 @@ public class GuideTouristContentController implements Initializable {
             }
 
             // Get attraction information
-            Attraction attraction = adminJsonHandler.getAttractionById(trek.getAttractionId());
+            Attraction attraction = attractionRepository.getAttractionById(trek.getAttractionId());
             String attractionName = (attraction != null) ? attraction.getName() : "Unknown Attraction";
             String location = (attraction != null) ? attraction.getLocation() : "Unknown Location";
 
@@ -178,7 +186,8 @@ public class GuideTouristContentController implements Initializable {
                                     tourist.getTrekName().toLowerCase().contains(searchText) ||
                                     tourist.getAttractionName().toLowerCase().contains(searchText) ||
                                     tourist.getLocation().toLowerCase().contains(searchText) ||
-                                    tourist.getTrek().getDifficulty().toLowerCase().contains(searchText)
+                                    (tourist.getTrek().getDifficulty() != null
+                                            && tourist.getTrek().getDifficulty().toLowerCase().contains(searchText))
                     )
                     .collect(Collectors.toList());
         }
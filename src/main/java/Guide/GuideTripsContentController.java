@@ -10,7 +10,9 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import Models.*;
 import Session.UserSession;
-import Storage.AdminJSONHandler;
+import Storage.AttractionRepository;
+import Storage.Repositories;
+import Storage.TrekRepository;
 
 import java.net.URL;
 import java.time.format.DateTimeFormatter;
@@ -25,13 +27,15 @@ public class GuideTripsContentController implements Initializable {
     @FXML private Label upcomingCountLabel;
     @FXML private VBox upcomingTripsList;
 
-    private AdminJSONHandler adminHandler;
+    private TrekRepository trekRepository;
+    private AttractionRepository attractionRepository;
     private List<Trek> allGuideTreks;
     private String currentGuideEmail;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        adminHandler = new AdminJSONHandler();
+        trekRepository = Repositories.treks();
+        attractionRepository = Repositories.attractions();
 
         // Get current guide's email
         if (UserSession.getInstance().getCurrentUser() != null) {
@@ -63,7 +67,7 @@ public class GuideTripsContentController implements Initializable {
         }
 
         // Load all treks for this guide
-        allGuideTreks = adminHandler.getTreksByGuideEmail(currentGuideEmail);
+        allGuideTreks = trekRepository.getTreksByGuideEmail(currentGuideEmail);
 
         // Apply current filter
         filterTrips();
@@ -97,13 +101,13 @@ public class GuideTripsContentController implements Initializable {
         }
 
         // Search in attraction location
-        Attraction attraction = adminHandler.getAttractionById(trek.getAttractionId());
+        Attraction attraction = attractionRepository.getAttractionById(trek.getAttractionId());
         if (attraction != null && attraction.getLocation().toLowerCase().contains(searchText)) {
             return true;
         }
 
         // Search in difficulty
-        return trek.getDifficulty().toLowerCase().contains(searchText);
+        return trek.getDifficulty() != null && trek.getDifficulty().toLowerCase().contains(searchText);
     }
 
     private boolean matchesFilterCriteria(Trek trek) {
@@ -113,7 +117,7 @@ public class GuideTripsContentController implements Initializable {
         }
 
         // Filter by difficulty level
-        return filter.equalsIgnoreCase(trek.getDifficulty());
+        return trek.getDifficultyLevel() == Difficulty.parse(filter);
     }
 
     private void displayTrips(List<Trek> treks) {
@@ -155,7 +159,7 @@ public class GuideTripsContentController implements Initializable {
         header.getChildren().addAll(trekNameLabel, spacer, difficultyLabel);
 
         // Location and attraction info
-        Attraction attraction = adminHandler.getAttractionById(trek.getAttractionId());
+        Attraction attraction = attractionRepository.getAttractionById(trek.getAttractionId());
         String locationText = attraction != null ? attraction.getLocation() : "Location not specified";
 
         HBox locationBox = new HBox(8);
@@ -194,7 +198,7 @@ public class GuideTripsContentController implements Initializable {
         HBox costBox = new HBox(5);
         costBox.setAlignment(Pos.CENTER_LEFT);
         Label costIcon = new Label("");
-        Label costLabel = new Label("Rs. " + String.format("%.0f", trek.getCost()));
+        Label costLabel = new Label("Rs. " + trek.getCostWholeString());
         costLabel.setStyle("-fx-text-fill: #4CAF50; -fx-font-size: 12; -fx-font-weight: bold;");
         costBox.getChildren().addAll(costIcon, costLabel);
 
@@ -247,7 +251,7 @@ public class GuideTripsContentController implements Initializable {
         alert.setTitle("Trek Details");
         alert.setHeaderText(trek.getTrekName());
 
-        Attraction attraction = adminHandler.getAttractionById(trek.getAttractionId());
+        Attraction attraction = attractionRepository.getAttractionById(trek.getAttractionId());
         String attractionName = attraction != null ? attraction.getName() : "Unknown Attraction";
         String location = attraction != null ? attraction.getLocation() : "Location not specified";
 
@@ -1,5 +1,8 @@
 package Main;
 
+import Storage.Backups;
+import Storage.DataStore;
+import Storage.Repositories;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -12,6 +15,15 @@ public class MainApplication extends Application {
 
     private static Stage primaryStage;
 
+    @Override
+    public void init() {
+        // Runs on the launcher thread before any screen can read the stores.
+        // With backend=sql the file stores aren't used, so they aren't opened either.
+        if (Repositories.usesDataFiles()) {
+            DataStore.getInstance().recover();
+        }
+    }
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         MainApplication.primaryStage = primaryStage;
@@ -28,6 +40,19 @@ public class MainApplication extends Application {
         primaryStage.setResizable(true);
         primaryStage.centerOnScreen();
         primaryStage.show();
+
+        // Periodic backups to backups/, if backup.interval.minutes is set
+        if (Repositories.usesDataFiles()) {
+            Backups.getInstance().startSchedule();
+        }
+    }
+
+    @Override
+    public void stop() {
+        // Storage writes happen in the background; make sure they land before exit
+        if (Repositories.usesDataFiles()) {
+            DataStore.getInstance().flush();
+        }
     }
 
     public static void changeScene(String fxmlFile) {
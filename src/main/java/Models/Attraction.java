@@ -10,6 +10,16 @@ public class Attraction {
 
     public Attraction() {}
 
+    // Copy with the same field values
+    public Attraction(Attraction other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.location = other.location;
+        this.difficulty = other.difficulty;
+        this.type = other.type;
+        this.remarks = other.remarks;
+    }
+
     public Attraction(String name, String location, String difficulty, String type, String remarks) {
         this.name = name;
         this.location = location;
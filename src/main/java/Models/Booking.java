@@ -1,9 +1,6 @@
 package Models;
 
-import Storage.AdminJSONHandler;
-
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 public class Booking {
     private int id;
@@ -11,38 +8,32 @@ public class Booking {
     private int trekId;
     private String userEmail;
     private String guideEmail;
-    private String trekStartDateStr;
+    // Days since 1970-01-01, or NO_DATE; stored as an ISO date (trekStartDateStr) in the data files
+    private long trekStartEpochDay = NO_DATE;
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
+    public static final long NO_DATE = Long.MIN_VALUE;
 
     public Booking() {
     }
 
-    public Booking(int trekId, String userEmail, String guideEmail) {
-        this.trekId = trekId;
-        this.userEmail = userEmail;
-        this.guideEmail = guideEmail;
-        this.bookingId = generateBookingId();
-
-        AdminJSONHandler jsonHandler = new AdminJSONHandler();
-        Trek matchedTrek = jsonHandler.getTrekById(trekId);
-
-        if (matchedTrek != null && matchedTrek.getStartDate() != null) {
-            this.trekStartDateStr = matchedTrek.getStartDate().format(FORMATTER);
-        } else {
-            System.err.println("Trek with ID " + trekId + " not found or has no start date.");
-        }
+    // Copy with the same field values
+    public Booking(Booking other) {
+        this.id = other.id;
+        this.bookingId = other.bookingId;
+        this.trekId = other.trekId;
+        this.userEmail = other.userEmail;
+        this.guideEmail = other.guideEmail;
+        this.trekStartEpochDay = other.trekStartEpochDay;
     }
 
+    // A new booking with a fresh booking id. Doesn't look anything up, so it is cheap
+    // to call in a loop; BookingFactory.forTrek fills in the guide and date from a trek.
     public Booking(int trekId, String userEmail, String guideEmail, LocalDate trekStartDate) {
-        this(trekId, userEmail, guideEmail);
-        if (trekStartDate != null) {
-            this.trekStartDateStr = trekStartDate.format(FORMATTER);
-        }
-    }
-
-    private String generateBookingId() {
-        return "BK" + System.currentTimeMillis() + (int)(Math.random() * 1000);
+        this.trekId = trekId;
+        this.userEmail = userEmail;
+        this.guideEmail = guideEmail;
+        this.bookingId = BookingFactory.newBookingId();
+        setTrekStartDate(trekStartDate);
     }
 
     // Getters and Setters
@@ -50,16 +41,31 @@ public class Booking {
     public void setId(int id) { this.id = id; }
 
     public String getBookingId() { return bookingId; }
+    public void setBookingId(String bookingId) { this.bookingId = bookingId; }
 
     public int getTrekId() { return trekId; }
+    public void setTrekId(int trekId) { this.trekId = trekId; }
 
     public String getUserEmail() { return userEmail; }
+    public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
 
     public String getGuideEmail() { return guideEmail; }
     public void setGuideEmail(String guideEmail) { this.guideEmail = guideEmail; }
 
     public LocalDate getTrekStartDate() {
-        return (trekStartDateStr != null) ? LocalDate.parse(trekStartDateStr, FORMATTER) : null;
+        return hasTrekStartDate() ? LocalDate.ofEpochDay(trekStartEpochDay) : null;
+    }
+
+    public void setTrekStartDate(LocalDate trekStartDate) {
+        this.trekStartEpochDay = (trekStartDate != null) ? trekStartDate.toEpochDay() : NO_DATE;
+    }
+
+    // For sorting and range filters over many bookings; NO_DATE sorts before every real date
+    public long getTrekStartEpochDay() { return trekStartEpochDay; }
+    public void setTrekStartEpochDay(long trekStartEpochDay) { this.trekStartEpochDay = trekStartEpochDay; }
+
+    public boolean hasTrekStartDate() {
+        return trekStartEpochDay != NO_DATE;
     }
 
     @Override
@@ -69,7 +75,7 @@ public class Booking {
                 ", trekId=" + trekId +
                 ", userEmail='" + userEmail + '\'' +
                 ", guideEmail='" + guideEmail + '\'' +
-                ", trekStartDateStr='" + trekStartDateStr + '\'' +
+                ", trekStartDate=" + getTrekStartDate() +
                 '}';
     }
 }
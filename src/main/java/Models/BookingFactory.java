@@ -0,0 +1,36 @@
+package Models;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Builds bookings from a trek the caller already has. Nothing here reads the
+// data files, so bookings for a whole group or an import can be made in a loop
+// at memory speed and handed to BookingRepository.addBookings in one go.
+public final class BookingFactory {
+    private BookingFactory() {}
+
+    // Guide and start date are copied from the trek
+    public static Booking forTrek(Trek trek, String userEmail) {
+        return create(trek.getId(), userEmail, trek.getGuideEmail(), trek.getStartDate());
+    }
+
+    // One booking per tourist, all on the same trek
+    public static List<Booking> forTrek(Trek trek, List<String> userEmails) {
+        List<Booking> bookings = new ArrayList<>(userEmails.size());
+        for (String userEmail : userEmails) {
+            bookings.add(forTrek(trek, userEmail));
+        }
+        return bookings;
+    }
+
+    // The booking id comes from the Booking constructor
+    public static Booking create(int trekId, String userEmail, String guideEmail, LocalDate trekStartDate) {
+        return new Booking(trekId, userEmail, guideEmail, trekStartDate);
+    }
+
+    // "BK" + a TimeOrderedId, so new booking ids sort by creation time
+    public static String newBookingId() {
+        return "BK" + TimeOrderedId.nextString();
+    }
+}
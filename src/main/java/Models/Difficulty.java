@@ -0,0 +1,32 @@
+package Models;
+
+// Trek difficulty. The label is what the screens show and the data files store.
+public enum Difficulty {
+    EASY("Easy"),
+    MODERATE("Moderate", "Medium"),
+    HARD("Hard", "Difficult", "Challenging", "Strenuous"),
+    EXTREME("Extreme", "Very Hard");
+
+    private static final EnumLookup<Difficulty> LOOKUP =
+            new EnumLookup<>("difficulty", values(), Difficulty::getLabel, difficulty -> difficulty.aliases);
+
+    private final String label;
+    private final String[] aliases;
+
+    Difficulty(String label, String... aliases) {
+        this.label = label;
+        this.aliases = aliases;
+    }
+
+    public String getLabel() { return label; }
+
+    // Any case or older spelling; null if blank or unknown
+    public static Difficulty parse(String text) {
+        return LOOKUP.find(text);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -1,31 +1,53 @@
 package Models;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 
 public class Emergency {
     private int id;
     private String guideName;
     private String guideEmail;
-    private String emergencyType;
+    private String emergencyType; // shared instance from SharedValues.EMERGENCY_TYPES
     private String description;
     private String location;
-    private String severity; // "Low", "Medium", "High", "Critical"
-    private String status; // "Reported", "In Progress", "Resolved"
-    private transient LocalDateTime reportedAt;
-    private String reportedAtStr;
-    private transient LocalDateTime resolvedAt;
-    private String resolvedAtStr;
+    private Severity severity;
+    private EmergencyStatus status;
+    // Stored text that isn't a known Severity / EmergencyStatus, kept so saving doesn't erase it
+    private String severityText;
+    private String statusText;
+    // Local wall-clock time as seconds since 1970-01-01T00:00 (counted as if UTC), or NO_TIME.
+    // Sorting by report time compares longs; the data files keep ISO date-times.
+    private long reportedAtEpochSecond = NO_TIME;
+    private long resolvedAtEpochSecond = NO_TIME;
     private String contactNumber;
     private String additionalNotes;
 
+    public static final long NO_TIME = Long.MIN_VALUE;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     public Emergency() {
-        this.reportedAt = LocalDateTime.now();
-        this.reportedAtStr = this.reportedAt.format(FORMATTER);
-        this.status = "Reported";
-        this.severity = "Medium";
+        this.reportedAtEpochSecond = toEpochSecond(LocalDateTime.now());
+        this.status = EmergencyStatus.REPORTED;
+        this.severity = Severity.MEDIUM;
+    }
+
+    // Copy with the same field values
+    public Emergency(Emergency other) {
+        this.id = other.id;
+        this.guideName = other.guideName;
+        this.guideEmail = other.guideEmail;
+        this.emergencyType = other.emergencyType;
+        this.description = other.description;
+        this.location = other.location;
+        this.severity = other.severity;
+        this.status = other.status;
+        this.severityText = other.severityText;
+        this.statusText = other.statusText;
+        this.reportedAtEpochSecond = other.reportedAtEpochSecond;
+        this.resolvedAtEpochSecond = other.resolvedAtEpochSecond;
+        this.contactNumber = other.contactNumber;
+        this.additionalNotes = other.additionalNotes;
     }
 
     public Emergency(String guideName, String guideEmail, String emergencyType, String description,
@@ -33,10 +55,11 @@ public class Emergency {
         this();
         this.guideName = guideName;
         this.guideEmail = guideEmail;
-        this.emergencyType = emergencyType;
+        this.emergencyType = SharedValues.EMERGENCY_TYPES.canonical(emergencyType);
         this.description = description;
         this.location = location;
-        this.severity = severity;
+        this.severity = Severity.parse(severity);
+        this.severityText = (this.severity == null) ? severity : null;
         this.contactNumber = contactNumber;
     }
 
@@ -45,76 +68,110 @@ public class Emergency {
     public void setId(int id) { this.id = id; }
 
     public String getGuideName() { return guideName; }
+    public void setGuideName(String guideName) { this.guideName = guideName; }
 
     public String getGuideEmail() { return guideEmail; }
     public void setGuideEmail(String guideEmail) { this.guideEmail = guideEmail; }
 
     public String getEmergencyType() { return emergencyType; }
+    public void setEmergencyType(String emergencyType) { this.emergencyType = SharedValues.EMERGENCY_TYPES.canonical(emergencyType); }
 
     public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
 
     public String getLocation() { return location; }
     public void setLocation(String location) { this.location = location; }
 
-    public String getSeverity() { return severity; }
+    // Labels for display, or the stored text as is if it isn't a known value;
+    // filters should compare getSeverityLevel() / getEmergencyStatus()
+    public String getSeverity() { return (severity != null) ? severity.getLabel() : severityText; }
+    public void setSeverity(String severity) {
+        this.severity = Severity.parse(severity);
+        this.severityText = (this.severity == null) ? severity : null;
+    }
+
+    public Severity getSeverityLevel() { return severity; }
+    public void setSeverityLevel(Severity severity) {
+        this.severity = severity;
+        this.severityText = null;
+    }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public String getStatus() { return (status != null) ? status.getLabel() : statusText; }
+    public void setStatus(String status) {
+        this.status = EmergencyStatus.parse(status);
+        this.statusText = (this.status == null) ? status : null;
+    }
+
+    public EmergencyStatus getEmergencyStatus() { return status; }
+    public void setEmergencyStatus(EmergencyStatus status) {
+        this.status = status;
+        this.statusText = null;
+    }
 
     public LocalDateTime getReportedAt() {
-        if (reportedAt == null && reportedAtStr != null) {
-            reportedAt = LocalDateTime.parse(reportedAtStr, FORMATTER);
-        }
-        return reportedAt;
+        return toDateTime(reportedAtEpochSecond);
     }
 
     public void setReportedAt(LocalDateTime reportedAt) {
-        this.reportedAt = reportedAt;
-        this.reportedAtStr = (reportedAt != null) ? reportedAt.format(FORMATTER) : null;
+        this.reportedAtEpochSecond = toEpochSecond(reportedAt);
     }
 
-    public String getReportedAtStr() { return reportedAtStr; }
+    public String getReportedAtStr() { return format(reportedAtEpochSecond); }
     public void setReportedAtStr(String reportedAtStr) {
-        this.reportedAtStr = reportedAtStr;
-        if (reportedAtStr != null) {
-            this.reportedAt = LocalDateTime.parse(reportedAtStr, FORMATTER);
-        }
+        this.reportedAtEpochSecond = parse(reportedAtStr);
     }
 
+    // For sorting; NO_TIME sorts before every real time
+    public long getReportedAtEpochSecond() { return reportedAtEpochSecond; }
+    public void setReportedAtEpochSecond(long reportedAtEpochSecond) { this.reportedAtEpochSecond = reportedAtEpochSecond; }
+
     public LocalDateTime getResolvedAt() {
-        if (resolvedAt == null && resolvedAtStr != null) {
-            resolvedAt = LocalDateTime.parse(resolvedAtStr, FORMATTER);
-        }
-        return resolvedAt;
+        return toDateTime(resolvedAtEpochSecond);
     }
 
     public void setResolvedAt(LocalDateTime resolvedAt) {
-        this.resolvedAt = resolvedAt;
-        this.resolvedAtStr = (resolvedAt != null) ? resolvedAt.format(FORMATTER) : null;
+        this.resolvedAtEpochSecond = toEpochSecond(resolvedAt);
     }
 
-    public String getResolvedAtStr() { return resolvedAtStr; }
+    public String getResolvedAtStr() { return format(resolvedAtEpochSecond); }
     public void setResolvedAtStr(String resolvedAtStr) {
-        this.resolvedAtStr = resolvedAtStr;
-        if (resolvedAtStr != null) {
-            this.resolvedAt = LocalDateTime.parse(resolvedAtStr, FORMATTER);
-        }
+        this.resolvedAtEpochSecond = parse(resolvedAtStr);
     }
 
+    public long getResolvedAtEpochSecond() { return resolvedAtEpochSecond; }
+    public void setResolvedAtEpochSecond(long resolvedAtEpochSecond) { this.resolvedAtEpochSecond = resolvedAtEpochSecond; }
+
     public String getContactNumber() { return contactNumber; }
     public void setContactNumber(String contactNumber) { this.contactNumber = contactNumber; }
 
     public String getAdditionalNotes() { return additionalNotes; }
     public void setAdditionalNotes(String additionalNotes) { this.additionalNotes = additionalNotes; }
 
+    // Whole seconds; anything finer is dropped
+    private static long toEpochSecond(LocalDateTime time) {
+        return (time != null) ? time.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return (epochSecond != NO_TIME) ? LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC) : null;
+    }
+
+    private static String format(long epochSecond) {
+        return (epochSecond != NO_TIME) ? toDateTime(epochSecond).format(FORMATTER) : null;
+    }
+
+    private static long parse(String time) {
+        return (time != null) ? toEpochSecond(LocalDateTime.parse(time, FORMATTER)) : NO_TIME;
+    }
+
     @Override
     public String toString() {
         return "Emergency{" +
                 "id=" + id +
                 ", guideName='" + guideName + '\'' +
                 ", emergencyType='" + emergencyType + '\'' +
-                ", severity='" + severity + '\'' +
-                ", status='" + status + '\'' +
+                ", severity='" + getSeverity() + '\'' +
+                ", status='" + getStatus() + '\'' +
                 ", location='" + location + '\'' +
                 ", reportedAt=" + getReportedAt() +
                 '}';
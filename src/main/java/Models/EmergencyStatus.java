@@ -0,0 +1,31 @@
+package Models;
+
+// Where an emergency is in its handling, in order
+public enum EmergencyStatus {
+    REPORTED("Reported", "Open", "New"),
+    IN_PROGRESS("In Progress", "Ongoing", "Active"),
+    RESOLVED("Resolved", "Closed", "Done");
+
+    private static final EnumLookup<EmergencyStatus> LOOKUP =
+            new EnumLookup<>("emergency status", values(), EmergencyStatus::getLabel, status -> status.aliases);
+
+    private final String label;
+    private final String[] aliases;
+
+    EmergencyStatus(String label, String... aliases) {
+        this.label = label;
+        this.aliases = aliases;
+    }
+
+    public String getLabel() { return label; }
+
+    // Any case or older spelling; null if blank or unknown
+    public static EmergencyStatus parse(String text) {
+        return LOOKUP.find(text);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,53 @@
+package Models;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Lenient text -> enum lookup for the enum-valued model fields. Case, spaces,
+// '_' and '-' are ignored, so "In Progress", "in_progress" and "IN-PROGRESS"
+// are the same value, and each constant can list older spellings as aliases.
+final class EnumLookup<E extends Enum<E>> {
+    private final String typeName;
+    private final Map<String, E> byKey = new HashMap<>();
+    // Unknown texts already reported; every copy of a record parses its fields again
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    EnumLookup(String typeName, E[] values, Function<E, String> label, Function<E, String[]> aliases) {
+        this.typeName = typeName;
+        for (E value : values) {
+            byKey.put(key(value.name()), value);
+            byKey.put(key(label.apply(value)), value);
+            for (String alias : aliases.apply(value)) {
+                byKey.put(key(alias), value);
+            }
+        }
+    }
+
+    // null for null or blank text; unknown text is reported once and also gives null
+    // (the models keep such text as it is, so saving a record doesn't erase it)
+    E find(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        E value = byKey.get(key(text));
+        if (value == null && reported.add(text)) {
+            System.err.println("Unknown " + typeName + " '" + text + "', keeping the text as it is");
+        }
+        return value;
+    }
+
+    private static String key(String text) {
+        StringBuilder key = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != ' ' && c != '_' && c != '-') {
+                key.append(c);
+            }
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+}
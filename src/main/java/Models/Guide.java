@@ -6,19 +6,28 @@ public class Guide extends User {
 
     public Guide() {
         super();
-        setUserType("guide");
+        setType(UserType.GUIDE);
+    }
+
+    // Copy with the same field values
+    public Guide(Guide other) {
+        super(other);
+        this.proficiencyLanguage = other.proficiencyLanguage;
+        this.experience = other.experience;
     }
 
     public Guide(String firstName, String lastName, String email, String phone,
                  String password, String nationality, String proficiencyLanguage, String experience) {
         super(firstName, lastName, email, phone, password, nationality);
-        setUserType("guide");
+        setType(UserType.GUIDE);
         this.proficiencyLanguage = proficiencyLanguage;
         this.experience = experience;
     }
 
     // Getters and Setters
     public String getProficiencyLanguage() { return proficiencyLanguage; }
+    public void setProficiencyLanguage(String proficiencyLanguage) { this.proficiencyLanguage = proficiencyLanguage; }
 
     public String getExperience() { return experience; }
+    public void setExperience(String experience) { this.experience = experience; }
 }
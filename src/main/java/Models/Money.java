@@ -0,0 +1,46 @@
+package Models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Prices as whole minor units (cents / paisa) in a long, and percentages as
+// basis points (hundredths of a percent) in an int, so discount sums are exact.
+// The data files still hold decimal amounts; these convert at the edges, rounding
+// half up to two places the same way "%.2f" does.
+public final class Money {
+    public static final int MINOR_PER_MAJOR = 100;
+    public static final int BASIS_POINTS_PER_PERCENT = 100;
+    private static final long BASIS_POINTS_PER_WHOLE = 100L * BASIS_POINTS_PER_PERCENT;
+
+    private Money() {}
+
+    // 1234.5 -> 123450
+    public static long toMinor(double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    // 123450 -> 1234.5
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    // 7.4 -> 740
+    public static int toBasisPoints(double percent) {
+        return BigDecimal.valueOf(percent).movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+
+    public static double toPercent(int basisPoints) {
+        return basisPoints / (double) BASIS_POINTS_PER_PERCENT;
+    }
+
+    // The share of minor given by basisPoints, rounded half up to a whole minor unit
+    public static long percentOf(long minor, int basisPoints) {
+        return Math.floorDiv(Math.addExact(Math.multiplyExact(minor, basisPoints), BASIS_POINTS_PER_WHOLE / 2),
+                BASIS_POINTS_PER_WHOLE);
+    }
+
+    // The price left after taking basisPoints off
+    public static long discounted(long minor, int basisPoints) {
+        return minor - percentOf(minor, basisPoints);
+    }
+}
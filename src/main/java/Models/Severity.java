@@ -0,0 +1,32 @@
+package Models;
+
+// How serious a reported emergency is, lowest first
+public enum Severity {
+    LOW("Low", "Minor"),
+    MEDIUM("Medium", "Moderate", "Normal"),
+    HIGH("High", "Major", "Severe"),
+    CRITICAL("Critical", "Urgent");
+
+    private static final EnumLookup<Severity> LOOKUP =
+            new EnumLookup<>("severity", values(), Severity::getLabel, severity -> severity.aliases);
+
+    private final String label;
+    private final String[] aliases;
+
+    Severity(String label, String... aliases) {
+        this.label = label;
+        this.aliases = aliases;
+    }
+
+    public String getLabel() { return label; }
+
+    // Any case or older spelling; null if blank or unknown
+    public static Severity parse(String text) {
+        return LOOKUP.find(text);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
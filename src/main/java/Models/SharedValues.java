@@ -0,0 +1,41 @@
+package Models;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Shared instances for open-ended text values that repeat a lot (nationalities,
+// emergency types), so a hundred thousand "Nepali" fields point at one String and
+// equal values can be compared and grouped with ==. A value on the known list,
+// ignoring case and surrounding spaces, takes the listed spelling. Anything else
+// is kept exactly as typed, so what gets stored never depends on which spelling
+// happened to be seen first.
+public final class SharedValues {
+    public static final SharedValues NATIONALITIES = new SharedValues();
+    public static final SharedValues EMERGENCY_TYPES = new SharedValues("Medical Emergency", "Weather Emergency",
+            "Equipment Failure", "Lost Tourist", "Accident", "Natural Disaster", "Other");
+
+    // Lowercase, trimmed form -> listed spelling; never changes after construction
+    private final Map<String, String> known = new HashMap<>();
+    private final ConcurrentHashMap<String, String> shared = new ConcurrentHashMap<>();
+
+    private SharedValues(String... known) {
+        for (String value : known) {
+            this.known.put(value.toLowerCase(Locale.ROOT), value);
+        }
+    }
+
+    // The shared instance for this value; null and blank stay as they are
+    public String canonical(String value) {
+        if (value == null || value.isBlank()) {
+            return value;
+        }
+        String listed = known.get(value.trim().toLowerCase(Locale.ROOT));
+        if (listed != null) {
+            return listed;
+        }
+        String existing = shared.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+}
@@ -0,0 +1,101 @@
+package Models;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Unique ids that sort by creation time, for booking and user ids.
+// One positive long per id:
+//   41 bits milliseconds since 2024-01-01 UTC | 10 bits node | 12 bits counter
+// The counter tells apart ids made in the same millisecond (4096 per ms; a
+// burst beyond that borrows the next millisecond rather than waiting), the node
+// tells apart running instances. Set -Dghumgham.node.id=0..1023 to pin the node
+// per machine; otherwise it is random, so two instances rarely share one.
+// Generation is a single compare-and-set, no lock, and never goes backwards
+// even if the clock does.
+// As text the id is 13 Crockford base32 characters, zero-padded, so sorting the
+// strings sorts by time just like comparing the longs.
+public final class TimeOrderedId {
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int COUNTER_BITS = 12;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final String NODE_PROPERTY = "ghumgham.node.id";
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LENGTH = 13; // 13 x 5 bits covers 63
+
+    private static final long NODE = nodeId();
+    // Time and counter of the last id handed out, as (millis << COUNTER_BITS) | counter
+    private static final AtomicLong last = new AtomicLong();
+
+    private TimeOrderedId() {}
+
+    public static long next() {
+        while (true) {
+            long previous = last.get();
+            long now = (System.currentTimeMillis() - EPOCH_MILLIS) << COUNTER_BITS;
+            // Same or earlier millisecond: count up (a full counter carries into the time)
+            long current = Math.max(now, previous + 1);
+            if (last.compareAndSet(previous, current)) {
+                long millis = current >>> COUNTER_BITS;
+                return (millis << (NODE_BITS + COUNTER_BITS)) | (NODE << COUNTER_BITS) | (current & COUNTER_MASK);
+            }
+        }
+    }
+
+    public static String nextString() {
+        return encode(next());
+    }
+
+    public static String encode(long id) {
+        char[] text = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            text[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(text);
+    }
+
+    // Accepts lower case too; throws IllegalArgumentException for anything else that isn't an id
+    public static long decode(String text) {
+        if (text == null || text.length() != LENGTH) {
+            throw new IllegalArgumentException("Not a " + LENGTH + "-character id: " + text);
+        }
+        long id = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = digit(Character.toUpperCase(text.charAt(i)));
+            if (digit < 0) {
+                throw new IllegalArgumentException("Not an id: " + text);
+            }
+            id = (id << 5) | digit;
+        }
+        return id;
+    }
+
+    // When the id was made, as epoch milliseconds
+    public static long millisOf(long id) {
+        return (id >>> (NODE_BITS + COUNTER_BITS)) + EPOCH_MILLIS;
+    }
+
+    private static int digit(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long nodeId() {
+        String configured = System.getProperty(NODE_PROPERTY);
+        if (configured != null) {
+            try {
+                return Long.parseLong(configured.trim()) & NODE_MASK;
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring bad " + NODE_PROPERTY + ": " + configured);
+            }
+        }
+        return ThreadLocalRandom.current().nextLong(NODE_MASK + 1);
+    }
+}
@@ -2,49 +2,76 @@ package Models;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 
 public class Trek {
     private int id;
     private String trekName;
     private String duration;
-    private transient LocalDate startDate;
-    private String startDateStr;
-    private String difficulty;
+    // Days since 1970-01-01, or NO_DATE. Comparing treks by date needs no LocalDate;
+    // the data files still hold an ISO date (startDateStr), converted when read and written.
+    private long startEpochDay = NO_DATE;
+    private Difficulty difficulty;
+    private String difficultyText; // stored text that isn't a known Difficulty, kept so saving doesn't erase it
     private int maxAltitude;  // Changed from String to int
-    private double cost;
+    // Prices in minor units (see Money); cost is the price after any discount
+    private long costMinor;
     private String bestSeason;
     private String guideEmail;
     private int attractionId;
 
     // Discount-related fields
     private boolean hasDiscount;
-    private double originalCost;
-    private double discountPercent;
+    private long originalCostMinor;
+    private int discountBasisPoints;
 
+    // Display strings built from the prices, dropped whenever a price changes
+    private transient PriceLabels priceLabels;
+
+    public static final long NO_DATE = Long.MIN_VALUE;
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
 
     public Trek() {
         this.hasDiscount = false;
-        this.discountPercent = 0.0;
+        this.discountBasisPoints = 0;
+    }
+
+    // Copy with the same field values; the storage cache hands these out instead of its own records
+    public Trek(Trek other) {
+        this.id = other.id;
+        this.trekName = other.trekName;
+        this.duration = other.duration;
+        this.startEpochDay = other.startEpochDay;
+        this.difficulty = other.difficulty;
+        this.difficultyText = other.difficultyText;
+        this.maxAltitude = other.maxAltitude;
+        this.costMinor = other.costMinor;
+        this.bestSeason = other.bestSeason;
+        this.guideEmail = other.guideEmail;
+        this.attractionId = other.attractionId;
+        this.hasDiscount = other.hasDiscount;
+        this.originalCostMinor = other.originalCostMinor;
+        this.discountBasisPoints = other.discountBasisPoints;
+        this.priceLabels = other.priceLabels; // Immutable, and rebuilt by any price setter
     }
 
     public Trek(String trekName, String duration, LocalDate startDate, String difficulty, int maxAltitude,
                 double cost, String bestSeason, String guideEmail, int attractionId) {
         this.trekName = trekName;
         this.duration = duration;
-        this.startDate = startDate;
-        this.startDateStr = startDate.format(FORMATTER);
-        this.difficulty = difficulty;
+        this.startEpochDay = startDate.toEpochDay();
+        this.difficulty = Difficulty.parse(difficulty);
+        this.difficultyText = (this.difficulty == null) ? difficulty : null;
         this.maxAltitude = maxAltitude;  // Now integer
-        this.cost = cost;
+        this.costMinor = Money.toMinor(cost);
         this.bestSeason = bestSeason;
         this.guideEmail = guideEmail;
         this.attractionId = attractionId;
 
         // Initialize discount fields
         this.hasDiscount = false;
-        this.originalCost = cost;
-        this.discountPercent = 0.0;
+        this.originalCostMinor = costMinor;
+        this.discountBasisPoints = 0;
     }
 
     // Existing getters/setters
@@ -58,28 +85,42 @@ public class Trek {
     public void setDuration(String duration) { this.duration = duration; }
 
     public LocalDate getStartDate() {
-        if (startDate == null && startDateStr != null) {
-            startDate = LocalDate.parse(startDateStr, FORMATTER);
-        }
-        return startDate;
+        return hasStartDate() ? LocalDate.ofEpochDay(startEpochDay) : null;
     }
 
     public void setStartDate(LocalDate startDate) {
-        this.startDate = startDate;
-        this.startDateStr = startDate.format(FORMATTER);
+        this.startEpochDay = (startDate != null) ? startDate.toEpochDay() : NO_DATE;
+    }
+
+    // For sorting and range checks; NO_DATE sorts before every real date
+    public long getStartEpochDay() { return startEpochDay; }
+    public void setStartEpochDay(long startEpochDay) { this.startEpochDay = startEpochDay; }
+
+    public boolean hasStartDate() {
+        return startEpochDay != NO_DATE;
     }
 
     public String getDate() {
-        return (getStartDate() != null) ? getStartDate().format(FORMATTER) : "";
+        return hasStartDate() ? LocalDate.ofEpochDay(startEpochDay).format(FORMATTER) : "";
     }
 
     public void setDate(String dateStr) {
-        this.startDateStr = dateStr;
-        this.startDate = LocalDate.parse(dateStr, FORMATTER);
+        this.startEpochDay = LocalDate.parse(dateStr, FORMATTER).toEpochDay();
     }
 
-    public String getDifficulty() { return difficulty; }
-    public void setDifficulty(String difficulty) { this.difficulty = difficulty; }
+    // The label ("Easy", ...) for display, or the stored text as is if it isn't a known
+    // level; filters should compare getDifficultyLevel()
+    public String getDifficulty() { return (difficulty != null) ? difficulty.getLabel() : difficultyText; }
+    public void setDifficulty(String difficulty) {
+        this.difficulty = Difficulty.parse(difficulty);
+        this.difficultyText = (this.difficulty == null) ? difficulty : null;
+    }
+
+    public Difficulty getDifficultyLevel() { return difficulty; }
+    public void setDifficultyLevel(Difficulty difficulty) {
+        this.difficulty = difficulty;
+        this.difficultyText = null;
+    }
 
     // Updated altitude methods to work with integer
     public int getMaxAltitude() { return maxAltitude; }
@@ -95,8 +136,14 @@ public class Trek {
         return maxAltitude > 3000;
     }
 
-    public double getCost() { return cost; }
-    public void setCost(double cost) { this.cost = cost; }
+    public double getCost() { return Money.toMajor(costMinor); }
+    public void setCost(double cost) { setCostMinor(Money.toMinor(cost)); }
+
+    public long getCostMinor() { return costMinor; }
+    public void setCostMinor(long costMinor) {
+        this.costMinor = costMinor;
+        priceLabels = null;
+    }
 
     public String getBestSeason() { return bestSeason; }
     public void setBestSeason(String bestSeason) { this.bestSeason = bestSeason; }
@@ -110,48 +157,103 @@ public class Trek {
     // Discount-related getters/setters
     public boolean hasDiscount() { return hasDiscount; }
     public boolean getHasDiscount() { return hasDiscount; }
-    public void setHasDiscount(boolean hasDiscount) { this.hasDiscount = hasDiscount; }
+    public void setHasDiscount(boolean hasDiscount) {
+        this.hasDiscount = hasDiscount;
+        priceLabels = null;
+    }
 
-    public double getOriginalCost() { return originalCost; }
-    public void setOriginalCost(double originalCost) { this.originalCost = originalCost; }
+    public double getOriginalCost() { return Money.toMajor(originalCostMinor); }
+    public void setOriginalCost(double originalCost) { setOriginalCostMinor(Money.toMinor(originalCost)); }
 
-    public double getDiscountPercent() { return discountPercent; }
+    public long getOriginalCostMinor() { return originalCostMinor; }
+    public void setOriginalCostMinor(long originalCostMinor) {
+        this.originalCostMinor = originalCostMinor;
+        priceLabels = null;
+    }
+
+    public double getDiscountPercent() { return Money.toPercent(discountBasisPoints); }
     public void setDiscountPercent(double discountPercent) {
-        this.discountPercent = Math.max(0, Math.min(100, discountPercent));
+        setDiscountBasisPoints(Money.toBasisPoints(Math.max(0, Math.min(100, discountPercent))));
+    }
+
+    public int getDiscountBasisPoints() { return discountBasisPoints; }
+    public void setDiscountBasisPoints(int discountBasisPoints) {
+        this.discountBasisPoints = discountBasisPoints;
+        priceLabels = null;
     }
 
     // Utility methods
     public double getDiscountAmount() {
-        if (hasDiscount) {
-            return originalCost * (discountPercent / 100.0);
-        }
-        return 0.0;
+        return Money.toMajor(getDiscountAmountMinor());
+    }
+
+    public long getDiscountAmountMinor() {
+        return hasDiscount ? Money.percentOf(originalCostMinor, discountBasisPoints) : 0;
     }
 
     public double getFinalCost() {
-        return cost;
+        return getCost();
     }
 
-    // Formatted cost methods
+    // Formatted cost methods. Table cells and trek cards call these on every
+    // render, so the strings are built once per price change and locale.
     public String getFormattedCost() {
-        return String.format("$%.2f", cost);
+        return priceLabels().formattedCost;
     }
 
     public String getFormattedOriginalCost() {
-        return String.format("$%.2f", originalCost);
+        return priceLabels().formattedOriginalCost;
     }
 
     public String getFormattedDiscountAmount() {
-        return String.format("$%.2f", getDiscountAmount());
+        return priceLabels().formattedDiscountAmount;
     }
 
     // Method to get cost display string
     public String getCostDisplayString() {
-        if (hasDiscount) {
-            return String.format("$%.2f (%.1f%% off from $%.2f)",
-                    cost, discountPercent, originalCost);
-        } else {
-            return String.format("$%.2f", cost);
+        return priceLabels().costDisplayString;
+    }
+
+    // Whole amounts without a currency sign, for cards that show "$" or "Rs." themselves
+    public String getCostWholeString() {
+        return priceLabels().costWhole;
+    }
+
+    public String getOriginalCostWholeString() {
+        return priceLabels().originalCostWhole;
+    }
+
+    private PriceLabels priceLabels() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        PriceLabels labels = priceLabels;
+        if (labels == null || !labels.locale.equals(locale)) {
+            labels = new PriceLabels(this, locale);
+            priceLabels = labels;
+        }
+        return labels;
+    }
+
+    private static final class PriceLabels {
+        final Locale locale;
+        final String formattedCost;
+        final String formattedOriginalCost;
+        final String formattedDiscountAmount;
+        final String costDisplayString;
+        final String costWhole;
+        final String originalCostWhole;
+
+        PriceLabels(Trek trek, Locale locale) {
+            double cost = trek.getCost();
+            double originalCost = trek.getOriginalCost();
+            this.locale = locale;
+            this.formattedCost = String.format(locale, "$%.2f", cost);
+            this.formattedOriginalCost = String.format(locale, "$%.2f", originalCost);
+            this.formattedDiscountAmount = String.format(locale, "$%.2f", trek.getDiscountAmount());
+            this.costDisplayString = trek.hasDiscount
+                    ? String.format(locale, "$%.2f (%.1f%% off from $%.2f)", cost, trek.getDiscountPercent(), originalCost)
+                    : formattedCost;
+            this.costWhole = String.format(locale, "%.0f", cost);
+            this.originalCostWhole = String.format(locale, "%.0f", originalCost);
         }
     }
 
@@ -161,11 +263,11 @@ public class Trek {
                 "id=" + id +
                 ", trekName='" + trekName + '\'' +
                 ", startDate=" + getStartDate() +
-                ", difficulty='" + difficulty + '\'' +
+                ", difficulty='" + getDifficulty() + '\'' +
                 ", maxAltitude=" + maxAltitude + "m" +
-                ", finalCost=" + cost +
+                ", finalCost=" + getCost() +
                 ", hasDiscount=" + hasDiscount +
-                (hasDiscount ? ", originalCost=" + originalCost + ", discountPercent=" + discountPercent : "") +
+                (hasDiscount ? ", originalCost=" + getOriginalCost() + ", discountPercent=" + getDiscountPercent() : "") +
                 ", attractionId=" + attractionId +
                 ", guideEmail='" + guideEmail + '\'' +
                 '}';
@@ -10,23 +10,37 @@ public class User {
     private String email;
     private String phone;
     private String password;
-    private String userType;
-    private String nationality;
+    private UserType userType;
+    private String userTypeText; // stored text that isn't a known UserType, kept so saving doesn't erase it
+    private String nationality; // shared instance from SharedValues.NATIONALITIES
 
     public User() {
-        this.userType = "user";
+        this.userType = UserType.USER;
         String createdAt = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
     }
 
+    // Copy with the same field values
+    public User(User other) {
+        this.id = other.id;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.email = other.email;
+        this.phone = other.phone;
+        this.password = other.password;
+        this.userType = other.userType;
+        this.userTypeText = other.userTypeText;
+        this.nationality = other.nationality;
+    }
+
     public User(String firstName, String lastName, String email, String phone, String password, String nationality) {
         this();
-        this.id = String.valueOf(System.currentTimeMillis());
+        this.id = TimeOrderedId.nextString();
         this.firstName = firstName;
         this.lastName = lastName;
         this.email = email;
         this.phone = phone;
         this.password = password;
-        this.nationality = nationality;
+        this.nationality = SharedValues.NATIONALITIES.canonical(nationality);
     }
 
     // Getters and Setters
@@ -34,8 +48,10 @@ public class User {
     public void setId(String id) { this.id = id; }
 
     public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
 
     public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
 
     public String getEmail() { return email; }
     public void setEmail(String email) { this.email = email; }
@@ -46,15 +62,40 @@ public class User {
     public String getPassword() { return password; }
     public void setPassword(String password) { this.password = password; }
 
-    public String getUserType() { return userType; }
-    public void setUserType(String userType) { this.userType = userType; }
+    // The stored label ("user", "guide", "admin"), or the stored text as is if it isn't a
+    // known type; checks should compare getType()
+    public String getUserType() { return (userType != null) ? userType.getLabel() : userTypeText; }
+    public void setUserType(String userType) {
+        this.userType = UserType.parse(userType);
+        this.userTypeText = (this.userType == null) ? userType : null;
+    }
+
+    public UserType getType() { return userType; }
+    public void setType(UserType userType) {
+        this.userType = userType;
+        this.userTypeText = null;
+    }
 
     public String getFullName() {
-        return firstName + " " + lastName;
+        return fullName(firstName, lastName);
+    }
+
+    // First and last name joined, skipping a missing part ("Smith", not "null Smith")
+    public static String fullName(String firstName, String lastName) {
+        StringBuilder name = new StringBuilder();
+        for (String part : new String[] {firstName, lastName}) {
+            if (part != null && !part.trim().isEmpty()) {
+                if (name.length() > 0) {
+                    name.append(' ');
+                }
+                name.append(part.trim());
+            }
+        }
+        return name.toString();
     }
 
     public String getNationality() { return nationality; }
-    public void setNationality(String nationality) { this.nationality = nationality; }
+    public void setNationality(String nationality) { this.nationality = SharedValues.NATIONALITIES.canonical(nationality); }
 
     @Override
     public String toString() {
@@ -0,0 +1,31 @@
+package Models;
+
+// Kind of account; the label is the lower-case value stored in the data files
+public enum UserType {
+    USER("user", "tourist"),
+    GUIDE("guide"),
+    ADMIN("admin", "administrator");
+
+    private static final EnumLookup<UserType> LOOKUP =
+            new EnumLookup<>("user type", values(), UserType::getLabel, type -> type.aliases);
+
+    private final String label;
+    private final String[] aliases;
+
+    UserType(String label, String... aliases) {
+        this.label = label;
+        this.aliases = aliases;
+    }
+
+    public String getLabel() { return label; }
+
+    // Any case or older spelling; null if blank or unknown
+    public static UserType parse(String text) {
+        return LOOKUP.find(text);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,80 @@
+package Models;
+
+// Rules shared by the add dialogs and the bulk import. Each check returns the
+// message the dialogs show, or null when the record is valid.
+public final class Validation {
+    public static final String REQUIRED_FIELDS = "Please fill in all required fields.";
+    public static final String NEGATIVE_ALTITUDE = "Altitude cannot be negative.";
+    public static final String DISCOUNT_RANGE = "Discount percentage must be between 0 and 100.";
+
+    private Validation() {}
+
+    public static String trek(Trek trek) {
+        if (isBlank(trek.getTrekName()) ||
+                isBlank(trek.getDuration()) ||
+                trek.getStartDate() == null ||
+                isBlank(trek.getDifficulty()) ||
+                isBlank(trek.getBestSeason()) ||
+                isBlank(trek.getGuideEmail()) ||
+                trek.getAttractionId() <= 0) {
+            return REQUIRED_FIELDS;
+        }
+        String altitudeError = altitude(trek.getMaxAltitude());
+        if (altitudeError != null) {
+            return altitudeError;
+        }
+        return trek.hasDiscount() ? discountPercent(trek.getDiscountPercent()) : null;
+    }
+
+    public static String altitude(int maxAltitude) {
+        return maxAltitude < 0 ? NEGATIVE_ALTITUDE : null;
+    }
+
+    public static String discountPercent(double discountPercent) {
+        return (discountPercent < 0 || discountPercent > 100) ? DISCOUNT_RANGE : null;
+    }
+
+    public static String attraction(Attraction attraction) {
+        if (isBlank(attraction.getName()) ||
+                isBlank(attraction.getLocation()) ||
+                isBlank(attraction.getDifficulty()) ||
+                isBlank(attraction.getType())) {
+            return REQUIRED_FIELDS;
+        }
+        return null;
+    }
+
+    public static String user(User user) {
+        if (isBlank(user.getFirstName()) ||
+                isBlank(user.getLastName()) ||
+                isBlank(user.getEmail()) ||
+                isBlank(user.getPhone()) ||
+                isBlank(user.getPassword()) ||
+                isBlank(user.getNationality())) {
+            return REQUIRED_FIELDS;
+        }
+        return null;
+    }
+
+    public static String guide(Guide guide) {
+        String userError = user(guide);
+        if (userError != null) {
+            return userError;
+        }
+        if (isBlank(guide.getProficiencyLanguage()) || isBlank(guide.getExperience())) {
+            return REQUIRED_FIELDS;
+        }
+        return null;
+    }
+
+    public static String booking(Booking booking) {
+        if (booking.getTrekId() <= 0 || isBlank(booking.getUserEmail())) {
+            return REQUIRED_FIELDS;
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -1,98 +1,62 @@
 package Storage;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import Models.Attraction;
 import Models.Trek;
 import Models.Booking;
 import Models.Guide;
 import Models.Emergency;
+import Models.User;
 
-import java.io.*;
-import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
-public class AdminJSONHandler {
-    private static final String ATTRACTIONS_FILE = "data/attractions.json";
-    private static final String TREKS_FILE = "data/treks.json";
-    private static final String BOOKINGS_FILE = "data/bookings.json";
-    private static final String GUIDES_FILE = "data/guides.json";
-    private static final String EMERGENCIES_FILE = "data/emergencies.json";
-
-    private final Gson gson;
+// File backend for the repository interfaces, on top of the shared DataStore
+public class AdminJSONHandler implements TrekRepository, AttractionRepository, BookingRepository,
+        GuideRepository, EmergencyRepository, UserRepository {
+    // Combo boxes only need these, so a cold store decodes just these fields from the file
+    private static final Projection<Attraction, Map.Entry<Integer, String>> ATTRACTION_NAME = new Projection<>(
+            new String[] {"id", "name"},
+            values -> new AbstractMap.SimpleEntry<>(Integer.parseInt(values[0]), values[1]),
+            attraction -> new AbstractMap.SimpleEntry<>(attraction.getId(), attraction.getName()));
+    private static final Projection<Guide, Map.Entry<String, String>> GUIDE_NAME = new Projection<>(
+            new String[] {"email", "firstName", "lastName"},
+            values -> new AbstractMap.SimpleEntry<>(values[0], User.fullName(values[1], values[2])),
+            guide -> new AbstractMap.SimpleEntry<>(guide.getEmail(), guide.getFullName()));
+
+    private final DataStore store;
 
     public AdminJSONHandler() {
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
-        initializeFiles();
-    }
-
-    private void initializeFiles() {
-        File dataDir = new File("data");
-        if (!dataDir.exists()) {
-            dataDir.mkdirs();
-        }
-
-        createFileIfNotExists(ATTRACTIONS_FILE);
-        createFileIfNotExists(TREKS_FILE);
-        createFileIfNotExists(BOOKINGS_FILE);
-        createFileIfNotExists(GUIDES_FILE);
-        createFileIfNotExists(EMERGENCIES_FILE);
-    }
-
-    private void createFileIfNotExists(String filename) {
-        File file = new File(filename);
-        if (!file.exists()) {
-            try {
-                file.createNewFile();
-                try (FileWriter writer = new FileWriter(file)) {
-                    writer.write("[]");
-                }
-            } catch (IOException e) {
-                System.err.println("Error creating file " + filename + ": " + e.getMessage());
-                e.printStackTrace();
-            }
-        }
+        this.store = DataStore.getInstance();
     }
 
     // ==================== TREK METHODS ====================
 
+    @Override
     public List<Trek> loadTreks() {
-        return loadFromFile(TREKS_FILE, new TypeToken<List<Trek>>(){}.getType());
+        return store.treks().getAll();
     }
 
+    @Override
     public Trek getTrekById(int id) {
-        List<Trek> treks = loadTreks();
-        return treks.stream()
-                .filter(trek -> trek.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return store.treks().findFirstBy(DataStore.BY_ID, id);
     }
 
+    @Override
     public List<Trek> getTreksByGuideEmail(String guideEmail) {
-        List<Trek> allTreks = loadTreks();
-        return allTreks.stream()
-                .filter(trek -> trek.getGuideEmail() != null &&
-                        trek.getGuideEmail().equalsIgnoreCase(guideEmail))
-                .collect(Collectors.toList());
+        return store.treks().findBy(DataStore.BY_GUIDE_EMAIL, DataStore.emailKey(guideEmail));
     }
 
+    @Override
     public boolean addTrek(Trek trek) {
         try {
-            List<Trek> treks = loadTreks();
-
-            // Generate next ID
-            int nextId = treks.stream()
-                    .mapToInt(Trek::getId)
-                    .max()
-                    .orElse(0) + 1;
-
-            trek.setId(nextId);
-            treks.add(trek);
-
-            return saveToFile(TREKS_FILE, treks);
+            trek.setId(store.trekIds().nextId());
+            return store.treks().add(trek);
         } catch (Exception e) {
             System.err.println("Error adding trek: " + e.getMessage());
             e.printStackTrace();
@@ -100,17 +64,26 @@ public class AdminJSONHandler {
         }
     }
 
-    public boolean updateTrek(Trek updatedTrek) {
+    @Override
+    public boolean addTreks(List<Trek> treks) {
         try {
-            List<Trek> treks = loadTreks();
-
-            for (int i = 0; i < treks.size(); i++) {
-                if (treks.get(i).getId() == updatedTrek.getId()) {
-                    treks.set(i, updatedTrek);
-                    return saveToFile(TREKS_FILE, treks);
-                }
+            int id = store.trekIds().reserveIds(treks.size());
+            for (Trek trek : treks) {
+                trek.setId(id++);
             }
-            return false; // Trek not found
+            return store.treks().addAll(treks);
+        } catch (Exception e) {
+            System.err.println("Error adding treks: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean updateTrek(Trek updatedTrek) {
+        try {
+            // Returns false when the trek is not found
+            return store.treks().replace(existing -> existing.getId() == updatedTrek.getId(), updatedTrek);
         } catch (Exception e) {
             System.err.println("Error updating trek: " + e.getMessage());
             e.printStackTrace();
@@ -118,15 +91,18 @@ public class AdminJSONHandler {
         }
     }
 
+    @Override
+    // The trek's bookings go with it, in one transaction
     public boolean deleteTrek(int trekId) {
         try {
-            List<Trek> treks = loadTreks();
-            boolean removed = treks.removeIf(trek -> trek.getId() == trekId);
-
-            if (removed) {
-                return saveToFile(TREKS_FILE, treks);
+            Trek trek = store.treks().findFirstBy(DataStore.BY_ID, trekId);
+            if (trek == null) {
+                return false;
             }
-            return false;
+            return store.begin()
+                    .delete(store.trekRecords(), trek)
+                    .deleteAll(store.bookingRecords(), store.bookings().findBy(DataStore.BY_TREK_ID, trekId))
+                    .commit();
         } catch (Exception e) {
             System.err.println("Error deleting trek: " + e.getMessage());
             e.printStackTrace();
@@ -136,32 +112,31 @@ public class AdminJSONHandler {
 
     // ==================== ATTRACTION METHODS ====================
 
+    @Override
     public List<Attraction> loadAttractions() {
-        return loadFromFile(ATTRACTIONS_FILE, new TypeToken<List<Attraction>>(){}.getType());
+        return store.attractions().getAll();
     }
 
+    @Override
     public Attraction getAttractionById(int id) {
-        List<Attraction> attractions = loadAttractions();
-        return attractions.stream()
-                .filter(attraction -> attraction.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return store.attractions().findFirstBy(DataStore.BY_ID, id);
     }
 
-    public boolean addAttraction(Attraction attraction) {
-        try {
-            List<Attraction> attractions = loadAttractions();
-
-            // Generate next ID
-            int nextId = attractions.stream()
-                    .mapToInt(Attraction::getId)
-                    .max()
-                    .orElse(0) + 1;
+    @Override
+    public int countAttractions() {
+        return store.attractions().count();
+    }
 
-            attraction.setId(nextId);
-            attractions.add(attraction);
+    @Override
+    public Map<Integer, String> loadAttractionNames() {
+        return toMap(store.attractions().project(ATTRACTION_NAME));
+    }
 
-            return saveToFile(ATTRACTIONS_FILE, attractions);
+    @Override
+    public boolean addAttraction(Attraction attraction) {
+        try {
+            attraction.setId(store.attractionIds().nextId());
+            return store.attractions().add(attraction);
         } catch (Exception e) {
             System.err.println("Error adding attraction: " + e.getMessage());
             e.printStackTrace();
@@ -169,15 +144,25 @@ public class AdminJSONHandler {
         }
     }
 
-    public boolean deleteAttraction(int attractionId) {
+    @Override
+    public boolean addAttractions(List<Attraction> attractions) {
         try {
-            List<Attraction> attractions = loadAttractions();
-            boolean removed = attractions.removeIf(attraction -> attraction.getId() == attractionId);
-
-            if (removed) {
-                return saveToFile(ATTRACTIONS_FILE, attractions);
+            int id = store.attractionIds().reserveIds(attractions.size());
+            for (Attraction attraction : attractions) {
+                attraction.setId(id++);
             }
+            return store.attractions().addAll(attractions);
+        } catch (Exception e) {
+            System.err.println("Error adding attractions: " + e.getMessage());
+            e.printStackTrace();
             return false;
+        }
+    }
+
+    @Override
+    public boolean deleteAttraction(int attractionId) {
+        try {
+            return store.attractions().removeIf(attraction -> attraction.getId() == attractionId);
         } catch (Exception e) {
             System.err.println("Error deleting attraction: " + e.getMessage());
             e.printStackTrace();
@@ -187,24 +172,16 @@ public class AdminJSONHandler {
 
     // ==================== BOOKING METHODS ====================
 
+    @Override
     public List<Booking> loadBookings() {
-        return loadFromFile(BOOKINGS_FILE, new TypeToken<List<Booking>>(){}.getType());
+        return store.bookings().getAll();
     }
 
+    @Override
     public boolean addBooking(Booking booking) {
         try {
-            List<Booking> bookings = loadBookings();
-
-            // Generate next ID
-            int nextId = bookings.stream()
-                    .mapToInt(Booking::getId)
-                    .max()
-                    .orElse(0) + 1;
-
-            booking.setId(nextId);
-            bookings.add(booking);
-
-            return saveToFile(BOOKINGS_FILE, bookings);
+            booking.setId(store.bookingIds().nextId());
+            return store.bookings().add(booking);
         } catch (Exception e) {
             System.err.println("Error adding booking: " + e.getMessage());
             e.printStackTrace();
@@ -212,23 +189,60 @@ public class AdminJSONHandler {
         }
     }
 
+    @Override
+    public boolean addBookings(List<Booking> bookings) {
+        try {
+            int id = store.bookingIds().reserveIds(bookings.size());
+            for (Booking booking : bookings) {
+                booking.setId(id++);
+            }
+            return store.bookings().addAll(bookings);
+        } catch (Exception e) {
+            System.err.println("Error adding bookings: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
     public List<Booking> getBookingsByUserEmail(String userEmail) {
-        List<Booking> allBookings = loadBookings();
-        return allBookings.stream()
-                .filter(booking -> booking.getUserEmail() != null &&
-                        booking.getUserEmail().equalsIgnoreCase(userEmail))
+        return store.bookings().findBy(DataStore.BY_USER_EMAIL, DataStore.emailKey(userEmail));
+    }
+
+    @Override
+    public List<Booking> getBookingsByTrekId(int trekId) {
+        return store.bookings().findBy(DataStore.BY_TREK_ID, trekId);
+    }
+
+    @Override
+    public List<Booking> getBookingsBetween(LocalDate from, LocalDate to) {
+        return startingBetween(store.bookings().getBetween(monthOf(from), monthOf(to)), from, to);
+    }
+
+    @Override
+    public List<Booking> getBookingsByUserEmail(String userEmail, LocalDate from, LocalDate to) {
+        return startingBetween(store.bookings().findBy(DataStore.BY_USER_EMAIL, DataStore.emailKey(userEmail),
+                monthOf(from), monthOf(to)), from, to);
+    }
+
+    // The partitions cover whole months, so trim to the exact days (compared as epoch days)
+    private static List<Booking> startingBetween(List<Booking> bookings, LocalDate from, LocalDate to) {
+        long first = (from != null) ? from.toEpochDay() : Long.MIN_VALUE;
+        long last = (to != null) ? to.toEpochDay() : Long.MAX_VALUE;
+        return bookings.stream()
+                .filter(booking -> booking.hasTrekStartDate()
+                        && booking.getTrekStartEpochDay() >= first && booking.getTrekStartEpochDay() <= last)
                 .collect(Collectors.toList());
     }
 
+    private static YearMonth monthOf(LocalDate date) {
+        return date != null ? YearMonth.from(date) : null;
+    }
+
+    @Override
     public boolean deleteBooking(int bookingId) {
         try {
-            List<Booking> bookings = loadBookings();
-            boolean removed = bookings.removeIf(booking -> booking.getId() == bookingId);
-
-            if (removed) {
-                return saveToFile(BOOKINGS_FILE, bookings);
-            }
-            return false;
+            return store.bookings().removeById(DataStore.BY_ID, bookingId);
         } catch (Exception e) {
             System.err.println("Error deleting booking: " + e.getMessage());
             e.printStackTrace();
@@ -238,38 +252,95 @@ public class AdminJSONHandler {
 
     // ==================== GUIDE METHODS ====================
 
+    @Override
     public List<Guide> loadGuides() {
-        return loadFromFile(GUIDES_FILE, new TypeToken<List<Guide>>(){}.getType());
+        return store.guides().getAll();
     }
 
+    @Override
     public Guide getGuideByEmail(String email) {
-        List<Guide> guides = loadGuides();
-        return guides.stream()
-                .filter(guide -> guide.getEmail().equalsIgnoreCase(email))
-                .findFirst()
-                .orElse(null);
+        return store.guides().findFirstBy(DataStore.BY_EMAIL, DataStore.emailKey(email));
+    }
+
+    @Override
+    public boolean guideExists(String email) {
+        return JSONHandler.guideExists(email);
+    }
+
+    @Override
+    public int countGuides() {
+        return store.guides().count();
+    }
+
+    @Override
+    public Map<String, String> loadGuideNames() {
+        return toMap(store.guides().project(GUIDE_NAME));
+    }
+
+    @Override
+    public boolean addGuide(Guide guide) {
+        return JSONHandler.addGuide(guide);
+    }
+
+    @Override
+    public boolean addGuides(List<Guide> guides) {
+        return JSONHandler.addGuides(guides);
+    }
+
+    @Override
+    public boolean deleteGuide(String email) {
+        return JSONHandler.deleteGuide(email);
+    }
+
+    // ==================== USER METHODS ====================
+
+    @Override
+    public List<User> loadUsers() {
+        return JSONHandler.loadUsers();
+    }
+
+    @Override
+    public boolean userExists(String email) {
+        return JSONHandler.userExists(email);
+    }
+
+    @Override
+    public int countUsers() {
+        return JSONHandler.countUsers();
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        return JSONHandler.addUser(user);
+    }
+
+    @Override
+    public boolean addUsers(List<User> users) {
+        return JSONHandler.addUsers(users);
+    }
+
+    @Override
+    public boolean deleteUser(String email) {
+        return JSONHandler.deleteUser(email);
     }
 
     // ==================== EMERGENCY METHODS ====================
 
+    @Override
     public List<Emergency> loadEmergencies() {
-        return loadFromFile(EMERGENCIES_FILE, new TypeToken<List<Emergency>>(){}.getType());
+        return store.emergencies().getAll();
     }
 
+    @Override
+    public int countEmergencies() {
+        return store.emergencies().count();
+    }
+
+    @Override
     public boolean addEmergency(Emergency emergency) {
         try {
-            List<Emergency> emergencies = loadEmergencies();
-
-            // Generate next ID
-            int nextId = emergencies.stream()
-                    .mapToInt(Emergency::getId)
-                    .max()
-                    .orElse(0) + 1;
-
-            emergency.setId(nextId);
-            emergencies.add(emergency);
-
-            return saveToFile(EMERGENCIES_FILE, emergencies);
+            emergency.setId(store.emergencyIds().nextId());
+            return store.emergencies().add(emergency);
         } catch (Exception e) {
             System.err.println("Error adding emergency: " + e.getMessage());
             e.printStackTrace();
@@ -277,17 +348,11 @@ public class AdminJSONHandler {
         }
     }
 
+    @Override
     public boolean updateEmergency(Emergency updatedEmergency) {
         try {
-            List<Emergency> emergencies = loadEmergencies();
-
-            for (int i = 0; i < emergencies.size(); i++) {
-                if (emergencies.get(i).getId() == updatedEmergency.getId()) {
-                    emergencies.set(i, updatedEmergency);
-                    return saveToFile(EMERGENCIES_FILE, emergencies);
-                }
-            }
-            return false; // Emergency not found
+            // Returns false when the emergency is not found
+            return store.emergencies().replace(existing -> existing.getId() == updatedEmergency.getId(), updatedEmergency);
         } catch (Exception e) {
             System.err.println("Error updating emergency: " + e.getMessage());
             e.printStackTrace();
@@ -295,44 +360,23 @@ public class AdminJSONHandler {
         }
     }
 
+    @Override
     public List<Emergency> getEmergenciesByGuideEmail(String guideEmail) {
-        List<Emergency> allEmergencies = loadEmergencies();
-        return allEmergencies.stream()
-                .filter(emergency -> emergency.getGuideEmail() != null &&
-                        emergency.getGuideEmail().equalsIgnoreCase(guideEmail))
-                .sorted((e1, e2) -> e2.getReportedAt().compareTo(e1.getReportedAt())) // Most recent first
+        List<Emergency> guideEmergencies = store.emergencies()
+                .findBy(DataStore.BY_GUIDE_EMAIL, DataStore.emailKey(guideEmail));
+        return guideEmergencies.stream()
+                .sorted(Comparator.comparingLong(Emergency::getReportedAtEpochSecond).reversed()) // Most recent first
                 .collect(Collectors.toList());
     }
 
-    // ==================== HELPER METHODS ====================
-
-    private <T> List<T> loadFromFile(String filename, Type type) {
-        try (FileReader reader = new FileReader(filename)) {
-            List<T> items = gson.fromJson(reader, type);
-            return items != null ? items : new ArrayList<>();
-        } catch (FileNotFoundException e) {
-            System.err.println("File not found: " + filename + ". Creating new file.");
-            createFileIfNotExists(filename);
-            return new ArrayList<>();
-        } catch (IOException e) {
-            System.err.println("Error reading file " + filename + ": " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
-        } catch (Exception e) {
-            System.err.println("Error parsing JSON from " + filename + ": " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
-        }
-    }
+    // ==================== HELPERS ====================
 
-    private <T> boolean saveToFile(String filename, List<T> items) {
-        try (FileWriter writer = new FileWriter(filename)) {
-            gson.toJson(items, writer);
-            return true;
-        } catch (IOException e) {
-            System.err.println("Error writing to file " + filename + ": " + e.getMessage());
-            e.printStackTrace();
-            return false;
+    // Keeps the stored order; later duplicates win, as they would in a lookup
+    private static <K> Map<K, String> toMap(List<Map.Entry<K, String>> rows) {
+        Map<K, String> map = new LinkedHashMap<>();
+        for (Map.Entry<K, String> row : rows) {
+            map.put(row.getKey(), row.getValue());
         }
+        return map;
     }
 }
@@ -0,0 +1,25 @@
+package Storage;
+
+import Models.Attraction;
+
+import java.util.List;
+import java.util.Map;
+
+public interface AttractionRepository {
+    List<Attraction> loadAttractions();
+
+    Attraction getAttractionById(int id);
+
+    int countAttractions();
+
+    // id -> name of every attraction in stored order, without loading whole records
+    Map<Integer, String> loadAttractionNames();
+
+    // Assigns the attraction a new id before storing it
+    boolean addAttraction(Attraction attraction);
+
+    // Bulk version of addAttraction: new ids for all, stored in one write
+    boolean addAttractions(List<Attraction> attractions);
+
+    boolean deleteAttraction(int attractionId);
+}
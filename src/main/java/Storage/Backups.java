@@ -0,0 +1,426 @@
+package Storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+// Compressed backups of every entity store into backups/ (one zip per backup).
+// A full backup holds every record; an incremental one holds only the records
+// added, changed or deleted since the previous backup, found by comparing each
+// record's CRC with the fingerprints stored in that backup. Every sixth backup
+// is a full one, and only the newest few full chains are kept.
+//
+// Inside a zip: backup.properties (type, base backup, chain length), then per
+// store "<store>.jsonl" with {"op":"put","key":..,"record":{..}} or
+// {"op":"delete","key":..} lines, and "<store>.crc" with the fingerprints.
+//
+// Backups run on their own low-priority thread. The stores are flushed and their
+// cached records read back to back, then compressed while writers carry on.
+// A restore puts every store back in one transaction (see Transaction).
+public final class Backups {
+    static final String BACKUP_DIR = "backups";
+    private static final String INFO_ENTRY = "backup.properties";
+    private static final String RECORDS_SUFFIX = ".jsonl";
+    private static final String CRC_SUFFIX = ".crc";
+    private static final String TYPE_FULL = "full";
+    private static final String TYPE_INCREMENTAL = "incremental";
+    private static final int MAX_INCREMENTALS = 5;
+    private static final int KEEP_FULL_BACKUPS = 3;
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private static Backups instance;
+
+    // Reads a store's records for a backup, failing rather than answering with nothing
+    private interface Snapshot<T> {
+        List<T> take() throws IOException;
+    }
+
+    // One entity store as seen by the backup: how to read it, and its transaction
+    // participant, which keys the records and puts them back
+    private static final class Section<T> {
+        private final String name;
+        private final Snapshot<T> snapshot;
+        private final Transaction.Participant<T> records;
+
+        Section(String name, Snapshot<T> snapshot, Transaction.Participant<T> records) {
+            this.name = name;
+            this.snapshot = snapshot;
+            this.records = records;
+        }
+    }
+
+    private final Path directory;
+    private final List<Section<?>> sections = new ArrayList<>();
+    private final Gson gson = StorageCodecs.DATA_GSON;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "backup-worker");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private ScheduledExecutorService schedule;
+
+    private Backups() {
+        this.directory = Paths.get(BACKUP_DIR);
+        DataStore store = DataStore.getInstance();
+        // The stores' own records, not copies: a backup only serializes them
+        sections.add(new Section<>("treks", store.treks()::getAllSharedOrFail, store.trekRecords()));
+        sections.add(new Section<>("attractions", store.attractions()::getAllSharedOrFail, store.attractionRecords()));
+        sections.add(new Section<>("bookings", store.bookings()::getAllSharedOrFail, store.bookingRecords()));
+        sections.add(new Section<>("guides", store.guides()::getAllSharedOrFail, store.guideRecords()));
+        sections.add(new Section<>("emergencies", store.emergencies()::getAllSharedOrFail, store.emergencyRecords()));
+        sections.add(new Section<>("users", store.users()::getAllSharedOrFail, store.userRecords()));
+    }
+
+    public static synchronized Backups getInstance() {
+        if (instance == null) {
+            instance = new Backups();
+        }
+        return instance;
+    }
+
+    // ==================== PUBLIC API ====================
+
+    // Incremental if there is a recent full backup to build on, full otherwise.
+    // Completes with the new zip, or the previous one if nothing changed.
+    public CompletableFuture<Path> backup() {
+        return CompletableFuture.supplyAsync(() -> runBackup(false), worker);
+    }
+
+    public CompletableFuture<Path> fullBackup() {
+        return CompletableFuture.supplyAsync(() -> runBackup(true), worker);
+    }
+
+    // Puts every store back the way it was when the given backup was taken
+    public CompletableFuture<Boolean> restore(Path backup) {
+        return CompletableFuture.supplyAsync(() -> runRestore(backup), worker);
+    }
+
+    // Oldest first
+    public List<Path> listBackups() {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".zip"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            System.err.println("Error listing " + directory + ": " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    // Starts periodic backups if backup.interval.minutes is set in data/storage.properties.
+    // Backups cover the data/ files, so with backend=sql there is nothing for them to take.
+    public synchronized void startSchedule() {
+        long minutes = StorageCodecs.backupIntervalMinutes();
+        if (minutes <= 0 || schedule != null) {
+            return;
+        }
+        if (!Repositories.usesDataFiles()) {
+            System.err.println("Ignoring backup.interval.minutes: backups cover the data/ files, not the database");
+            return;
+        }
+        schedule = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "backup-schedule");
+            thread.setDaemon(true);
+            return thread;
+        });
+        schedule.scheduleWithFixedDelay(() -> backup().join(), minutes, minutes, TimeUnit.MINUTES);
+    }
+
+    // ==================== BACKUP ====================
+
+    private Path runBackup(boolean forceFull) {
+        try {
+            return writeBackup(forceFull);
+        } catch (IOException e) {
+            System.err.println("Error writing backup: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private Path writeBackup(boolean forceFull) throws IOException {
+        Files.createDirectories(directory);
+        Path previous = latestBackup();
+        Properties previousInfo = previous != null ? readInfo(previous) : null;
+        int chainLength = previousInfo != null ? Integer.parseInt(previousInfo.getProperty("chain", "0")) : 0;
+        boolean full = forceFull || previousInfo == null || chainLength >= MAX_INCREMENTALS;
+        Map<String, Properties> previousCrcs = full ? new HashMap<>() : readCrcs(previous);
+
+        // Capture every store back to back so the backup is one moment in time
+        DataStore.getInstance().flush();
+        List<List<?>> snapshots = new ArrayList<>();
+        for (Section<?> section : sections) {
+            snapshots.add(section.snapshot.take());
+        }
+
+        Properties info = new Properties();
+        info.setProperty("type", full ? TYPE_FULL : TYPE_INCREMENTAL);
+        info.setProperty("created", LocalDateTime.now().toString());
+        info.setProperty("chain", String.valueOf(full ? 0 : chainLength + 1));
+        if (!full) {
+            info.setProperty("base", previous.getFileName().toString());
+        }
+
+        Path target = directory.resolve("ghumgham-" + LocalDateTime.now().format(NAME_FORMAT)
+                + (full ? "-full" : "-incr") + ".zip");
+        int[] changes = {0};
+        AtomicFiles.write(target, out -> {
+            ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            zip.putNextEntry(new ZipEntry(INFO_ENTRY));
+            info.store(zip, "GhumGham backup");
+            zip.closeEntry();
+            for (int i = 0; i < sections.size(); i++) {
+                changes[0] += writeSection(zip, sections.get(i), snapshots.get(i),
+                        previousCrcs.getOrDefault(sections.get(i).name, new Properties()), full);
+            }
+            zip.finish();
+        });
+
+        if (!full && changes[0] == 0) {
+            Files.delete(target);
+            return previous;
+        }
+        prune();
+        return target;
+    }
+
+    // Returns how many put/delete lines were written
+    @SuppressWarnings("unchecked")
+    private <T> int writeSection(ZipOutputStream zip, Section<T> section, List<?> snapshot,
+                                 Properties previousCrcs, boolean full) throws IOException {
+        Properties crcs = new Properties();
+        Set<String> deleted = new HashSet<>(previousCrcs.stringPropertyNames());
+        int changes = 0;
+
+        zip.putNextEntry(new ZipEntry(section.name + RECORDS_SUFFIX));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        for (T record : (List<T>) snapshot) {
+            String key = section.records.keyOf(record);
+            if (key == null) {
+                continue;
+            }
+            String json = gson.toJson(record, section.records.getRecordType());
+            String crc = Long.toHexString(crc32(json));
+            crcs.setProperty(key, crc);
+            deleted.remove(key);
+            if (full || !crc.equals(previousCrcs.getProperty(key))) {
+                writer.write("{\"op\":\"put\",\"key\":" + gson.toJson(key) + ",\"record\":" + json + "}\n");
+                changes++;
+            }
+        }
+        for (String key : deleted) {
+            writer.write("{\"op\":\"delete\",\"key\":" + gson.toJson(key) + "}\n");
+            changes++;
+        }
+        writer.flush(); // not close(): that would close the zip
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry(section.name + CRC_SUFFIX));
+        crcs.store(zip, null);
+        zip.closeEntry();
+        return changes;
+    }
+
+    private static long crc32(String json) {
+        CRC32 crc = new CRC32();
+        crc.update(json.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    // Drops everything older than the newest KEEP_FULL_BACKUPS full backups
+    private void prune() {
+        List<Path> backups = listBackups();
+        List<Path> fulls = backups.stream()
+                .filter(file -> file.getFileName().toString().endsWith("-full.zip"))
+                .collect(Collectors.toList());
+        if (fulls.size() <= KEEP_FULL_BACKUPS) {
+            return;
+        }
+        Path oldestKept = fulls.get(fulls.size() - KEEP_FULL_BACKUPS);
+        for (Path file : backups) {
+            if (file.compareTo(oldestKept) < 0) {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    System.err.println("Error deleting old backup " + file + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // ==================== RESTORE ====================
+
+    private boolean runRestore(Path backup) {
+        try {
+            // Replay the chain from its full backup: key -> record, in original order
+            Map<String, Map<String, JsonElement>> records = new HashMap<>();
+            for (Path file : chainOf(backup)) {
+                applyBackup(file, records);
+            }
+
+            // Every store in one transaction: a restore that fails part way changes nothing
+            Transaction transaction = DataStore.getInstance().begin();
+            for (Section<?> section : sections) {
+                // Stores the backup doesn't know about are left alone
+                if (records.containsKey(section.name)) {
+                    restoreSection(transaction, section, records.get(section.name));
+                }
+            }
+            if (!transaction.commit()) {
+                throw new IllegalStateException("the stores refused the restored records");
+            }
+            DataStore.getInstance().flush();
+            DataStore.getInstance().invalidateAll();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error restoring backup " + backup + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Adds the deletes and puts that turn the store's records into the backup's.
+    // Records that already match the backup are left out of the transaction.
+    private <T> void restoreSection(Transaction transaction, Section<T> section, Map<String, JsonElement> records)
+            throws IOException {
+        Class<T> recordType = section.records.getRecordType();
+        Map<String, JsonElement> current = new HashMap<>();
+        for (T record : section.snapshot.take()) {
+            String key = section.records.keyOf(record);
+            if (key == null) {
+                continue;
+            }
+            current.put(key, gson.toJsonTree(record, recordType));
+            if (!records.containsKey(key)) {
+                transaction.delete(section.records, record);
+            }
+        }
+        for (Map.Entry<String, JsonElement> record : records.entrySet()) {
+            if (!record.getValue().equals(current.get(record.getKey()))) {
+                transaction.put(section.records, gson.fromJson(record.getValue(), recordType));
+            }
+        }
+    }
+
+    // Streams one zip and applies its put/delete lines
+    private static void applyBackup(Path file, Map<String, Map<String, JsonElement>> records) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(file)),
+                StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (!name.endsWith(RECORDS_SUFFIX)) {
+                    continue;
+                }
+                Map<String, JsonElement> section = records.computeIfAbsent(
+                        name.substring(0, name.length() - RECORDS_SUFFIX.length()), n -> new LinkedHashMap<>());
+                // Not closed: that would close the zip
+                BufferedReader reader = new BufferedReader(new InputStreamReader(zip, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    JsonObject op = JsonParser.parseString(line).getAsJsonObject();
+                    String key = op.get("key").getAsString();
+                    if ("delete".equals(op.get("op").getAsString())) {
+                        section.remove(key);
+                    } else {
+                        section.put(key, op.get("record"));
+                    }
+                }
+            }
+        }
+    }
+
+    // The full backup the given one builds on, then each incremental up to it
+    private List<Path> chainOf(Path backup) throws IOException {
+        LinkedList<Path> chain = new LinkedList<>();
+        Path current = backup;
+        while (true) {
+            if (chain.contains(current)) {
+                throw new IOException("Backup chain of " + backup + " loops at " + current);
+            }
+            chain.addFirst(current);
+            Properties info = readInfo(current);
+            if (TYPE_FULL.equals(info.getProperty("type"))) {
+                return chain;
+            }
+            String base = info.getProperty("base");
+            if (base == null) {
+                throw new IOException("Backup chain of " + backup + " is broken at " + current);
+            }
+            current = current.resolveSibling(base);
+            if (!Files.exists(current)) {
+                throw new IOException("Backup " + backup + " needs " + current + ", which is missing");
+            }
+        }
+    }
+
+    // ==================== ZIP HELPERS ====================
+
+    private Path latestBackup() {
+        List<Path> backups = listBackups();
+        return backups.isEmpty() ? null : backups.get(backups.size() - 1);
+    }
+
+    private static Properties readInfo(Path backup) throws IOException {
+        try (ZipFile zip = new ZipFile(backup.toFile(), StandardCharsets.UTF_8)) {
+            ZipEntry entry = zip.getEntry(INFO_ENTRY);
+            if (entry == null) {
+                throw new IOException(backup + " is not a GhumGham backup");
+            }
+            Properties info = new Properties();
+            try (InputStream in = zip.getInputStream(entry)) {
+                info.load(in);
+            }
+            return info;
+        }
+    }
+
+    private static Map<String, Properties> readCrcs(Path backup) throws IOException {
+        Map<String, Properties> crcs = new HashMap<>();
+        try (ZipFile zip = new ZipFile(backup.toFile(), StandardCharsets.UTF_8)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.getName().endsWith(CRC_SUFFIX)) {
+                    continue;
+                }
+                Properties section = new Properties();
+                try (InputStream in = zip.getInputStream(entry)) {
+                    section.load(in);
+                }
+                crcs.put(entry.getName().substring(0, entry.getName().length() - CRC_SUFFIX.length()), section);
+            }
+        }
+        return crcs;
+    }
+}
@@ -0,0 +1,124 @@
+package Storage;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Compact binary entity file:
+//   magic "GGDB" | container version (short) | record type | schema version (int) | count (int)
+//   then per record: payload length (int) | payload written by the RecordFormat
+// The length prefix lets an older schema be read with a newer format (and
+// unknown trailing fields be ignored) without walking field by field.
+class BinaryCodec<T> implements StorageCodec<T> {
+    private static final int MAGIC = 0x47474442; // "GGDB"
+    private static final short CONTAINER_VERSION = 1;
+
+    private final RecordFormat<T> format;
+
+    BinaryCodec(RecordFormat<T> format) {
+        this.format = format;
+    }
+
+    @Override
+    public String getExtension() {
+        return ".bin";
+    }
+
+    @Override
+    public List<T> read(Path file) throws IOException {
+        return read(file, () -> {});
+    }
+
+    @Override
+    public List<T> read(Path file, Runnable onOutdated) throws IOException {
+        ByteBuffer data = MappedFiles.read(file);
+        if (!data.hasRemaining()) {
+            return new ArrayList<>();
+        }
+        return decode(data, file.toString(), onOutdated);
+    }
+
+    // The count is in the header, so nothing past it is read
+    @Override
+    public int count(Path file) throws IOException {
+        if (file.toFile().length() == 0) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.toFile())))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a GhumGham binary data file");
+            }
+            in.readShort(); // container version
+            int typeLength = in.readInt();
+            if (typeLength > 0) {
+                in.skipNBytes(typeLength);
+            }
+            in.readInt(); // schema version
+            return in.readInt();
+        } catch (EOFException e) {
+            throw new IOException(file + " is truncated or corrupt", e);
+        }
+    }
+
+    // Payloads are decoded straight from the (possibly mapped) buffer; no per-record streams or copies
+    private List<T> decode(ByteBuffer in, String source, Runnable onOutdated) throws IOException {
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException(source + " is not a GhumGham binary data file");
+            }
+            short containerVersion = in.getShort();
+            if (containerVersion != CONTAINER_VERSION) {
+                throw new IOException("Unsupported container version " + containerVersion + " in " + source);
+            }
+            String recordType = RecordFormat.readString(in);
+            if (!format.getRecordType().equals(recordType)) {
+                throw new IOException(source + " holds " + recordType + " records, expected " + format.getRecordType());
+            }
+            int schemaVersion = in.getInt();
+            int count = in.getInt();
+
+            List<T> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = in.getInt();
+                int end = in.position() + length;
+                ByteBuffer record = in.duplicate();
+                record.limit(end);
+                items.add(format.read(record, schemaVersion));
+                in.position(end);
+            }
+            if (schemaVersion < format.getSchemaVersion()) {
+                onOutdated.run();
+            }
+            return items;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            // A cut-off length prefix points past the end of the buffer
+            throw new IOException(source + " is truncated or corrupt", e);
+        }
+    }
+
+    @Override
+    public byte[] encode(List<T> items) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(CONTAINER_VERSION);
+        RecordFormat.writeString(out, format.getRecordType());
+        out.writeInt(format.getSchemaVersion());
+        out.writeInt(items.size());
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        DataOutputStream recordOut = new DataOutputStream(record);
+        for (T item : items) {
+            record.reset();
+            format.write(recordOut, item);
+            recordOut.flush();
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,28 @@
+package Storage;
+
+import Models.Booking;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface BookingRepository {
+    List<Booking> loadBookings();
+
+    // Assigns the booking a new id before storing it
+    boolean addBooking(Booking booking);
+
+    // Bulk version of addBooking: new ids for all, stored in one write
+    boolean addBookings(List<Booking> bookings);
+
+    List<Booking> getBookingsByUserEmail(String userEmail);
+
+    List<Booking> getBookingsByTrekId(int trekId);
+
+    // Bookings whose trek starts between from and to, inclusive; a null bound is open-ended.
+    // Bookings without a start date never match.
+    List<Booking> getBookingsBetween(LocalDate from, LocalDate to);
+
+    List<Booking> getBookingsByUserEmail(String userEmail, LocalDate from, LocalDate to);
+
+    boolean deleteBooking(int bookingId);
+}
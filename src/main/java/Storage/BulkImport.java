@@ -0,0 +1,490 @@
+package Storage;
+
+import Models.Attraction;
+import Models.Booking;
+import Models.BookingFactory;
+import Models.Guide;
+import Models.Money;
+import Models.Trek;
+import Models.User;
+import Models.Validation;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Bulk import of treks, attractions, guides, users and bookings from CSV (first
+// row is the header) or JSON-lines (.jsonl / .ndjson, one object per line).
+// Column / property names match the model fields, e.g. trekName, startDate,
+// guideEmail. Treks may name their attraction with "attraction" instead of
+// "attractionId"; bookings without a guideEmail or trekStartDate take them
+// from the trek.
+//
+// The file is read a chunk of lines at a time; each chunk's rows are parsed and
+// checked in parallel with the same rules as the add dialogs. Rows that fail are
+// reported with their line number and skipped; the rest are stored through the
+// repository in one write.
+//
+// From the command line, run in the folder holding data/:
+//   java -p <module path> -m org.example.finall/Storage.BulkImport <treks|attractions|guides|users|bookings> <file>
+public final class BulkImport {
+    private static final int CHUNK_LINES = 4096;
+
+    public static final class Result {
+        private final int imported;
+        private final List<String> errors;
+
+        Result(int imported, List<String> errors) {
+            this.imported = imported;
+            this.errors = errors;
+        }
+
+        public int getImported() { return imported; }
+        public List<String> getErrors() { return errors; }
+
+        @Override
+        public String toString() {
+            return "Imported " + imported + " record(s), " + errors.size() + " error(s)";
+        }
+    }
+
+    // One data line of the file: its 1-based line number and its values by column
+    private static final class Row {
+        private final int line;
+        private final Map<String, String> values;
+
+        Row(int line, Map<String, String> values) {
+            this.line = line;
+            this.values = values;
+        }
+
+        String get(String column) {
+            String value = values.get(column);
+            return (value == null || value.trim().isEmpty()) ? null : value.trim();
+        }
+
+        String require(String column) {
+            String value = get(column);
+            if (value == null) {
+                throw new IllegalArgumentException(Validation.REQUIRED_FIELDS);
+            }
+            return value;
+        }
+
+        int getInt(String column, int fallback) {
+            String value = get(column);
+            if (value == null) return fallback;
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not a whole number: " + value);
+            }
+        }
+
+        double getDouble(String column, double fallback) {
+            String value = get(column);
+            if (value == null) return fallback;
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " is not a number: " + value);
+            }
+        }
+
+        LocalDate getDate(String column) {
+            String value = get(column);
+            if (value == null) return null;
+            try {
+                return LocalDate.parse(value);
+            } catch (Exception e) {
+                throw new IllegalArgumentException(column + " is not a yyyy-MM-dd date: " + value);
+            }
+        }
+    }
+
+    // Either the record built from a row or the reason it was rejected
+    private static final class Parsed<T> {
+        private final int line;
+        private final T record;
+        private final String error;
+
+        Parsed(int line, T record, String error) {
+            this.line = line;
+            this.record = record;
+            this.error = error;
+        }
+    }
+
+    private BulkImport() {}
+
+    // ==================== ENTRY POINTS ====================
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: BulkImport <treks|attractions|guides|users|bookings> <file>");
+            System.exit(2);
+        }
+        Path file = Path.of(args[1]);
+        if (Repositories.usesDataFiles()) {
+            DataStore.getInstance().recover();
+        }
+        Result result;
+        switch (args[0].toLowerCase()) {
+            case "treks": result = importTreks(file); break;
+            case "attractions": result = importAttractions(file); break;
+            case "guides": result = importGuides(file); break;
+            case "users": result = importUsers(file); break;
+            case "bookings": result = importBookings(file); break;
+            default:
+                System.err.println("Unknown record type: " + args[0]);
+                System.exit(2);
+                return;
+        }
+        for (String error : result.getErrors()) {
+            System.err.println(error);
+        }
+        System.out.println(result);
+        // Stores write in the background; let them finish before the JVM exits
+        boolean flushed = !Repositories.usesDataFiles() || DataStore.getInstance().flush();
+        System.exit(flushed && result.getImported() > 0 ? 0 : 1);
+    }
+
+    public static Result importTreks(Path file) {
+        Lookups lookups = new Lookups();
+        return run(file, row -> {
+            Trek trek = new Trek();
+            trek.setTrekName(row.require("trekName"));
+            trek.setDuration(row.require("duration"));
+            LocalDate startDate = row.getDate("startDate");
+            if (startDate == null) {
+                throw new IllegalArgumentException(Validation.REQUIRED_FIELDS);
+            }
+            trek.setStartDate(startDate);
+            trek.setDifficulty(row.get("difficulty"));
+            trek.setMaxAltitude(row.getInt("maxAltitude", 0));
+            trek.setBestSeason(row.get("bestSeason"));
+            trek.setGuideEmail(row.get("guideEmail"));
+            trek.setAttractionId(lookups.attractionId(row));
+
+            long originalCost = Money.toMinor(row.getDouble("cost", 0));
+            double discountPercent = row.getDouble("discountPercent", 0);
+            if (discountPercent != 0) {
+                String discountError = Validation.discountPercent(discountPercent);
+                if (discountError != null) {
+                    throw new IllegalArgumentException(discountError);
+                }
+                trek.setHasDiscount(true);
+                trek.setDiscountPercent(discountPercent);
+            }
+            trek.setOriginalCostMinor(originalCost);
+            trek.setCostMinor(Money.discounted(originalCost, trek.getDiscountBasisPoints()));
+
+            if (trek.getGuideEmail() != null && !lookups.guideExists(trek.getGuideEmail())) {
+                throw new IllegalArgumentException("Unknown guide: " + trek.getGuideEmail());
+            }
+            return trek;
+        }, Validation::trek, null, treks -> Repositories.treks().addTreks(treks));
+    }
+
+    public static Result importAttractions(Path file) {
+        return run(file, row -> new Attraction(
+                row.get("name"),
+                row.get("location"),
+                row.get("difficulty"),
+                row.get("type"),
+                row.get("remarks") != null ? row.get("remarks") : ""
+        ), Validation::attraction, null, attractions -> Repositories.attractions().addAttractions(attractions));
+    }
+
+    public static Result importGuides(Path file) {
+        GuideRepository guides = Repositories.guides();
+        return run(file, row -> {
+            Guide guide = new Guide(row.get("firstName"), row.get("lastName"), row.get("email"), row.get("phone"),
+                    row.get("password"), row.get("nationality"), row.get("proficiencyLanguage"), row.get("experience"));
+            if (guide.getEmail() != null && guides.guideExists(guide.getEmail())) {
+                throw new IllegalArgumentException("Guide already exists: " + guide.getEmail());
+            }
+            return guide;
+        }, Validation::guide, guide -> DataStore.emailKey(guide.getEmail()), guides::addGuides);
+    }
+
+    public static Result importUsers(Path file) {
+        UserRepository users = Repositories.users();
+        Lookups lookups = new Lookups();
+        return run(file, row -> {
+            User user = new User(row.get("firstName"), row.get("lastName"), row.get("email"), row.get("phone"),
+                    row.get("password"), row.get("nationality"));
+            if (user.getEmail() != null && lookups.userExists(user.getEmail())) {
+                throw new IllegalArgumentException("User already exists: " + user.getEmail());
+            }
+            return user;
+        }, Validation::user, user -> DataStore.emailKey(user.getEmail()), users::addUsers);
+    }
+
+    public static Result importBookings(Path file) {
+        Lookups lookups = new Lookups();
+        return run(file, row -> {
+            // Every booking belongs to a trek, which also supplies its default guide and date
+            int trekId = row.getInt("trekId", 0);
+            if (trekId <= 0) {
+                throw new IllegalArgumentException("trekId is required");
+            }
+            Trek trek = lookups.trek(trekId);
+            if (trek == null) {
+                throw new IllegalArgumentException("Unknown trek id: " + trekId);
+            }
+            // The trek comes from the import's memo, so building the booking does no I/O
+            Booking booking = BookingFactory.forTrek(trek, row.get("userEmail"));
+            String bookingId = row.get("bookingId");
+            if (bookingId != null) {
+                booking.setBookingId(bookingId);
+            }
+            String guideEmail = row.get("guideEmail");
+            LocalDate startDate = row.getDate("trekStartDate");
+            if (guideEmail != null) {
+                booking.setGuideEmail(guideEmail);
+            }
+            if (startDate != null) {
+                booking.setTrekStartDate(startDate);
+            }
+            return booking;
+        }, Validation::booking, null, bookings -> Repositories.bookings().addBookings(bookings));
+    }
+
+    // ==================== PIPELINE ====================
+
+    // uniqueKey, when given, drops rows repeating a key seen earlier in the file
+    private static <T> Result run(Path file, Function<Row, T> build, Function<T, String> validate,
+                                  Function<T, String> uniqueKey, Predicate<List<T>> commit) {
+        List<String> errors = new ArrayList<>();
+        List<Parsed<T>> parsed = new ArrayList<>();
+        boolean csv = !isJsonLines(file);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> header = List.of();
+            int linesRead = 0;
+            if (csv) {
+                String headerLine = reader.readLine();
+                header = headerLine != null ? parseCsvLine(headerLine) : List.of();
+                linesRead = 1;
+            }
+
+            List<String> chunk = new ArrayList<>(CHUNK_LINES);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.add(line);
+                if (chunk.size() == CHUNK_LINES) {
+                    parsed.addAll(parseChunk(chunk, linesRead + 1, header, csv, build, validate));
+                    linesRead += chunk.size();
+                    chunk.clear();
+                }
+            }
+            parsed.addAll(parseChunk(chunk, linesRead + 1, header, csv, build, validate));
+        } catch (IOException e) {
+            System.err.println("Error reading import file " + file + ": " + e.getMessage());
+            e.printStackTrace();
+            errors.add("Could not read " + file + ": " + e.getMessage());
+            return new Result(0, errors);
+        }
+
+        List<T> records = new ArrayList<>(parsed.size());
+        Set<String> seen = new HashSet<>();
+        for (Parsed<T> result : parsed) {
+            if (result.record == null) {
+                errors.add("Line " + result.line + ": " + result.error);
+            } else if (uniqueKey != null && !seen.add(uniqueKey.apply(result.record))) {
+                errors.add("Line " + result.line + ": duplicate of an earlier line");
+            } else {
+                records.add(result.record);
+            }
+        }
+
+        if (records.isEmpty()) {
+            return new Result(0, errors);
+        }
+        if (!commit.test(records)) {
+            errors.add("Saving failed; nothing from " + file.getFileName() + " was imported");
+            return new Result(0, errors);
+        }
+        return new Result(records.size(), errors);
+    }
+
+    // Parses consecutive lines in parallel; firstLine is the 1-based number of lines[0]
+    private static <T> List<Parsed<T>> parseChunk(List<String> lines, int firstLine, List<String> header, boolean csv,
+                                                  Function<Row, T> build, Function<T, String> validate) {
+        return IntStream.range(0, lines.size())
+                .parallel()
+                .filter(i -> !lines.get(i).trim().isEmpty())
+                .mapToObj(i -> {
+                    int line = firstLine + i;
+                    try {
+                        Row row = new Row(line, csv ? csvRow(header, lines.get(i)) : jsonRow(lines.get(i)));
+                        T record = build.apply(row);
+                        String error = validate.apply(record);
+                        return new Parsed<>(row.line, error == null ? record : null, error);
+                    } catch (RuntimeException e) {
+                        return new Parsed<T>(line, null, e.getMessage());
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isJsonLines(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        return name.endsWith(".jsonl") || name.endsWith(".ndjson");
+    }
+
+    private static Map<String, String> jsonRow(String line) {
+        JsonObject object = JsonParser.parseString(line).getAsJsonObject();
+        Map<String, String> values = new HashMap<>();
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            if (entry.getValue().isJsonPrimitive()) {
+                values.put(entry.getKey(), entry.getValue().getAsString());
+            }
+        }
+        return values;
+    }
+
+    private static Map<String, String> csvRow(List<String> header, String line) {
+        List<String> fields = parseCsvLine(line);
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < header.size() && i < fields.size(); i++) {
+            values.put(header.get(i).trim(), fields.get(i));
+        }
+        return values;
+    }
+
+    // Comma separated, fields may be quoted with "" for a literal quote.
+    // Quoted fields can't span lines.
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // ==================== REFERENCE LOOKUPS ====================
+
+    // Repository lookups for one import, remembered so each id or email hits
+    // the indexes once however many rows refer to it
+    private static final class Lookups {
+        private final Map<Integer, Optional<Trek>> treks = new ConcurrentHashMap<>();
+        private final Map<Integer, Boolean> attractionIds = new ConcurrentHashMap<>();
+        private final Map<String, Boolean> guides = new ConcurrentHashMap<>();
+        private volatile Map<String, Integer> attractionsByName;
+        private volatile Set<String> userEmails;
+
+        Trek trek(int trekId) {
+            return treks.computeIfAbsent(trekId,
+                    id -> Optional.ofNullable(Repositories.treks().getTrekById(id))).orElse(null);
+        }
+
+        boolean guideExists(String email) {
+            return guides.computeIfAbsent(DataStore.emailKey(email), key -> Repositories.guides().guideExists(email));
+        }
+
+        // Every email is read once per import instead of a lookup per row
+        boolean userExists(String email) {
+            return userEmails().contains(DataStore.emailKey(email));
+        }
+
+        // attractionId if given, otherwise the attraction column matched by name
+        int attractionId(Row row) {
+            int attractionId = row.getInt("attractionId", 0);
+            if (attractionId > 0) {
+                boolean exists = attractionIds.computeIfAbsent(attractionId,
+                        id -> Repositories.attractions().getAttractionById(id) != null);
+                if (!exists) {
+                    throw new IllegalArgumentException("Unknown attraction id: " + attractionId);
+                }
+                return attractionId;
+            }
+            String name = row.get("attraction");
+            if (name == null) {
+                return 0;
+            }
+            Integer id = attractionsByName().get(name.toLowerCase());
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown attraction: " + name);
+            }
+            return id;
+        }
+
+        private Map<String, Integer> attractionsByName() {
+            Map<String, Integer> byName = attractionsByName;
+            if (byName == null) {
+                synchronized (this) {
+                    byName = attractionsByName;
+                    if (byName == null) {
+                        byName = new HashMap<>();
+                        for (Attraction attraction : Repositories.attractions().loadAttractions()) {
+                            if (attraction.getName() != null) {
+                                byName.putIfAbsent(attraction.getName().trim().toLowerCase(), attraction.getId());
+                            }
+                        }
+                        attractionsByName = byName;
+                    }
+                }
+            }
+            return byName;
+        }
+
+        private Set<String> userEmails() {
+            Set<String> emails = userEmails;
+            if (emails == null) {
+                synchronized (this) {
+                    emails = userEmails;
+                    if (emails == null) {
+                        emails = new HashSet<>();
+                        for (User user : Repositories.users().loadUsers()) {
+                            emails.add(DataStore.emailKey(user.getEmail()));
+                        }
+                        userEmails = emails;
+                    }
+                }
+            }
+            return emails;
+        }
+    }
+}
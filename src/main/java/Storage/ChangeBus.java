@@ -0,0 +1,81 @@
+package Storage;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+// In-process bus for ChangeEvents. Screens subscribe to the event types they
+// show and patch their lists instead of reloading whole files. Only changes
+// made through this process's repositories are published; the refresh buttons
+// still reload everything to pick up writes from other instances.
+public final class ChangeBus {
+    private static ChangeBus instance;
+
+    public interface Subscription {
+        void cancel();
+    }
+
+    private static final class Subscriber<E extends ChangeEvent> implements Subscription {
+        private final Class<E> type;
+        private final Executor executor;
+        private final Consumer<? super E> handler;
+        private final List<Subscriber<?>> owner;
+
+        Subscriber(Class<E> type, Executor executor, Consumer<? super E> handler, List<Subscriber<?>> owner) {
+            this.type = type;
+            this.executor = executor;
+            this.handler = handler;
+            this.owner = owner;
+        }
+
+        void deliver(ChangeEvent event) {
+            if (!type.isInstance(event)) {
+                return;
+            }
+            E typed = type.cast(event);
+            executor.execute(() -> {
+                try {
+                    handler.accept(typed);
+                } catch (Exception e) {
+                    System.err.println("Error handling " + event + ": " + e.getMessage());
+                    e.printStackTrace();
+                }
+            });
+        }
+
+        @Override
+        public void cancel() {
+            owner.remove(this);
+        }
+    }
+
+    private final List<Subscriber<?>> subscribers = new CopyOnWriteArrayList<>();
+
+    private ChangeBus() {}
+
+    public static synchronized ChangeBus getInstance() {
+        if (instance == null) {
+            instance = new ChangeBus();
+        }
+        return instance;
+    }
+
+    // Handler runs on the publishing thread; subscribing to ChangeEvent.class receives everything
+    public <E extends ChangeEvent> Subscription subscribe(Class<E> type, Consumer<? super E> handler) {
+        return subscribe(type, Runnable::run, handler);
+    }
+
+    // Handler runs on the given executor, e.g. Platform::runLater for screens
+    public <E extends ChangeEvent> Subscription subscribe(Class<E> type, Executor executor, Consumer<? super E> handler) {
+        Subscriber<E> subscriber = new Subscriber<>(type, executor, handler, subscribers);
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    void publish(ChangeEvent event) {
+        for (Subscriber<?> subscriber : subscribers) {
+            subscriber.deliver(event);
+        }
+    }
+}
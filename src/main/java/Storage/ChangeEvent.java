@@ -0,0 +1,132 @@
+package Storage;
+
+import Models.Attraction;
+import Models.Booking;
+import Models.Emergency;
+import Models.Guide;
+import Models.Trek;
+import Models.User;
+
+// What the repositories publish on the ChangeBus after a write succeeds.
+// Added/updated events carry the stored record; deletes carry its key.
+// Records are copied when the event is made and again for every reader, so
+// neither the caller's later edits nor one listener's changes reach the others.
+public interface ChangeEvent {
+
+    // ==================== TREKS ====================
+
+    record TrekAdded(Trek trek) implements ChangeEvent {
+        public TrekAdded {
+            trek = new Trek(trek);
+        }
+
+        @Override
+        public Trek trek() { return new Trek(trek); }
+    }
+
+    record TrekUpdated(Trek trek) implements ChangeEvent {
+        public TrekUpdated {
+            trek = new Trek(trek);
+        }
+
+        @Override
+        public Trek trek() { return new Trek(trek); }
+    }
+
+    record TrekDeleted(int trekId) implements ChangeEvent {}
+
+    // ==================== ATTRACTIONS ====================
+
+    record AttractionAdded(Attraction attraction) implements ChangeEvent {
+        public AttractionAdded {
+            attraction = new Attraction(attraction);
+        }
+
+        @Override
+        public Attraction attraction() { return new Attraction(attraction); }
+    }
+
+    record AttractionDeleted(int attractionId) implements ChangeEvent {}
+
+    // ==================== BOOKINGS ====================
+
+    record BookingAdded(Booking booking) implements ChangeEvent {
+        public BookingAdded {
+            booking = new Booking(booking);
+        }
+
+        @Override
+        public Booking booking() { return new Booking(booking); }
+    }
+
+    record BookingDeleted(int bookingId) implements ChangeEvent {}
+
+    // ==================== GUIDES ====================
+
+    record GuideAdded(Guide guide) implements ChangeEvent {
+        public GuideAdded {
+            guide = new Guide(guide);
+        }
+
+        @Override
+        public Guide guide() { return new Guide(guide); }
+    }
+
+    record GuideDeleted(String email) implements ChangeEvent {}
+
+    // ==================== EMERGENCIES ====================
+
+    record EmergencyAdded(Emergency emergency) implements ChangeEvent {
+        public EmergencyAdded {
+            emergency = new Emergency(emergency);
+        }
+
+        @Override
+        public Emergency emergency() { return new Emergency(emergency); }
+    }
+
+    // Published for every update, including status changes
+    record EmergencyUpdated(Emergency emergency) implements ChangeEvent {
+        public EmergencyUpdated {
+            emergency = new Emergency(emergency);
+        }
+
+        @Override
+        public Emergency emergency() { return new Emergency(emergency); }
+    }
+
+    // Published after EmergencyUpdated when the status differs from the last one seen;
+    // previousStatus is null if this process hadn't seen the emergency before
+    record EmergencyStatusChanged(Emergency emergency, String previousStatus) implements ChangeEvent {
+        public EmergencyStatusChanged {
+            emergency = new Emergency(emergency);
+        }
+
+        @Override
+        public Emergency emergency() { return new Emergency(emergency); }
+    }
+
+    // ==================== USERS ====================
+
+    record UserAdded(User user) implements ChangeEvent {
+        public UserAdded {
+            user = copyOf(user);
+        }
+
+        @Override
+        public User user() { return copyOf(user); }
+    }
+
+    record UserDeleted(String email) implements ChangeEvent {}
+
+    // ==================== BULK ====================
+
+    // A bulk import added count records of one type; screens reload rather than
+    // receive one event per record
+    record RecordsImported(Class<?> recordType, int count) implements ChangeEvent {}
+
+    // Keeps a guide a guide when it is published as a user
+    private static User copyOf(User user) {
+        return user instanceof Guide ? new Guide((Guide) user) : new User(user);
+    }
+}
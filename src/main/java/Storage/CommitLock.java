@@ -0,0 +1,98 @@
+package Storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Cross-process commit lock and version stamp for one data file.
+// Several GhumGham instances may share one data/ folder, so every write to a
+// data file happens while holding an exclusive FileChannel lock on a sibling
+// "<name>.lock" file (data/bookings.json -> data/bookings.lock). The lock file
+// also holds a counter that each commit bumps: a store that remembers the
+// version it loaded can tell at commit time whether another process wrote in
+// between, and merge instead of overwriting. The lock is only held for the
+// commit itself, never while a user is editing.
+final class CommitLock {
+    private static final Map<String, CommitLock> LOCKS = new ConcurrentHashMap<>();
+    // The OS tracks these locks per process, not per thread, and reports a deadlock when
+    // two processes each wait for a file the other holds, even if different threads are
+    // involved. Holding at most one commit lock per process at a time rules that out.
+    private static final Object PROCESS_MUTEX = new Object();
+
+    interface Commit<R> {
+        // versionOnDisk is the stamp left by the previous commit (0 if none yet)
+        R run(long versionOnDisk) throws IOException;
+    }
+
+    private final Path lockFile;
+
+    private CommitLock(Path lockFile) {
+        this.lockFile = lockFile;
+    }
+
+    // One instance per file per JVM: FileChannel locks can't be taken twice by one
+    // process, so threads of the same process are serialized in memory instead
+    static CommitLock forFile(String filename) {
+        return LOCKS.computeIfAbsent(lockFilenameFor(filename), name -> new CommitLock(Paths.get(name)));
+    }
+
+    private static String lockFilenameFor(String filename) {
+        int dot = filename.lastIndexOf('.');
+        int slash = Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\'));
+        String base = dot > slash ? filename.substring(0, dot) : filename;
+        return base + ".lock";
+    }
+
+    // Runs the commit under the lock and bumps the version once it succeeds
+    <R> R commit(Commit<R> work) throws IOException {
+        synchronized (PROCESS_MUTEX) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Closing the channel releases the lock as well
+                channel.lock();
+                long version = readVersion(channel);
+                R result = work.run(version);
+                writeVersion(channel, version + 1);
+                return result;
+            }
+        }
+    }
+
+    // Latest stamp without taking the lock; only good as a hint, commits recheck it
+    long currentVersion() {
+        if (!lockFile.toFile().exists()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.READ)) {
+            return readVersion(channel);
+        } catch (IOException e) {
+            System.err.println("Error reading " + lockFile + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private static long readVersion(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                return 0; // new or empty lock file
+            }
+        }
+        buffer.flip();
+        return buffer.getLong();
+    }
+
+    private static void writeVersion(FileChannel channel, long version) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        buffer.putLong(version).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+        channel.force(false);
+    }
+}
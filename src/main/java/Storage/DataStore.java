@@ -0,0 +1,330 @@
+package Storage;
+
+import com.google.gson.Gson;
+import Models.Attraction;
+import Models.Booking;
+import Models.Emergency;
+import Models.Guide;
+import Models.Trek;
+import Models.User;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Process-wide holder for the entity files under data/.
+// Every AdminJSONHandler shares these stores, so each file is parsed once
+// and then served from memory until it changes on disk.
+// Files are named without extension here; the configured StorageCodec adds it.
+public class DataStore {
+    static final String DATA_DIR = "data";
+    static final String ATTRACTIONS_BASE = DATA_DIR + "/attractions";
+    static final String TREKS_BASE = DATA_DIR + "/treks";
+    static final String BOOKINGS_BASE = DATA_DIR + "/bookings";
+    // Bookings are split by trek start month into files under this directory
+    static final String BOOKINGS_DIR = DATA_DIR + "/bookings";
+    static final String GUIDES_BASE = DATA_DIR + "/guides";
+    // Tourists and admins, told apart by userType
+    static final String USERS_BASE = DATA_DIR + "/users";
+    static final String EMERGENCIES_BASE = DATA_DIR + "/emergencies";
+    // Journal of the old single-file bookings store, only read when splitting it up
+    static final String BOOKINGS_JOURNAL = DATA_DIR + "/bookings.journal";
+    static final String EMERGENCIES_JOURNAL = DATA_DIR + "/emergencies.journal";
+    static final String TRANSACTION_LOG = DATA_DIR + "/transactions.log";
+
+    // Journals are folded back into their snapshot file once they pass this size
+    private static final long JOURNAL_COMPACT_BYTES = 256 * 1024;
+    private static final long FLUSH_TIMEOUT_MILLIS = 10_000;
+
+    // Index names shared with AdminJSONHandler
+    static final String BY_ID = "id";
+    static final String BY_EMAIL = "email";
+    static final String BY_GUIDE_EMAIL = "guideEmail";
+    static final String BY_USER_EMAIL = "userEmail";
+    static final String BY_TREK_ID = "trekId";
+
+    private static DataStore instance;
+
+    private final EntityStore<Trek> treks;
+    private final EntityStore<Attraction> attractions;
+    private final PartitionedStore<Booking> bookings;
+    private final EntityStore<Guide> guides;
+    private final EntityStore<Emergency> emergencies;
+    private final EntityStore<User> users;
+
+    private final IdSequence trekIds;
+    private final IdSequence attractionIds;
+    private final IdSequence bookingIds;
+    private final IdSequence emergencyIds;
+
+    // Each store as seen by transactions spanning several of them
+    private final TransactionLog transactionLog;
+    private final Transaction.Participant<Trek> trekRecords;
+    private final Transaction.Participant<Attraction> attractionRecords;
+    private final Transaction.Participant<Booking> bookingRecords;
+    private final Transaction.Participant<Guide> guideRecords;
+    private final Transaction.Participant<Emergency> emergencyRecords;
+    private final Transaction.Participant<User> userRecords;
+
+    private DataStore() {
+        Gson journalGson = StorageCodecs.DATA_GSON;
+        File dataDir = new File(DATA_DIR);
+        if (!dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+
+        treks = openStore(TREKS_BASE, Trek.class, RecordFormats.TREK, Trek::getId);
+        attractions = openStore(ATTRACTIONS_BASE, Attraction.class, RecordFormats.ATTRACTION, Attraction::getId);
+        bookings = openBookings(journalGson);
+        guides = openStore(GUIDES_BASE, Guide.class, RecordFormats.GUIDE, guide -> emailKey(guide.getEmail()));
+        emergencies = openStore(EMERGENCIES_BASE, Emergency.class, RecordFormats.EMERGENCY, Emergency::getId);
+        users = openStore(USERS_BASE, User.class, RecordFormats.USER, user -> emailKey(user.getEmail()));
+
+        // Each index also names its JSON field so cold lookups can stream the file
+        treks.addIndex(BY_ID, Trek::getId, "id", Integer::valueOf);
+        treks.addIndex(BY_GUIDE_EMAIL, trek -> emailKey(trek.getGuideEmail()), "guideEmail", DataStore::emailKey);
+        attractions.addIndex(BY_ID, Attraction::getId, "id", Integer::valueOf);
+        guides.addIndex(BY_EMAIL, guide -> emailKey(guide.getEmail()), "email", DataStore::emailKey);
+        emergencies.addIndex(BY_ID, Emergency::getId, "id", Integer::valueOf);
+        emergencies.addIndex(BY_GUIDE_EMAIL, emergency -> emailKey(emergency.getGuideEmail()),
+                "guideEmail", DataStore::emailKey);
+        users.addIndex(BY_EMAIL, user -> emailKey(user.getEmail()), "email", DataStore::emailKey);
+
+        trekIds = new IdSequence("trek", () -> treks.maxOf(Trek::getId));
+        attractionIds = new IdSequence("attraction", () -> attractions.maxOf(Attraction::getId));
+        bookingIds = new IdSequence("booking", bookings::maxId);
+        emergencyIds = new IdSequence("emergency", () -> emergencies.maxOf(Emergency::getId));
+
+        // Bookings and emergencies are insert-heavy, so new records are appended to a journal
+        emergencies.enableJournal(new Journal<>(EMERGENCIES_JOURNAL, Emergency.class, Emergency::getId,
+                journalGson, JOURNAL_COMPACT_BYTES));
+
+        trekRecords = participant("treks", Trek.class, treks, trek -> String.valueOf(trek.getId()),
+                BY_ID, Integer::valueOf);
+        attractionRecords = participant("attractions", Attraction.class, attractions,
+                attraction -> String.valueOf(attraction.getId()), BY_ID, Integer::valueOf);
+        guideRecords = participant("guides", Guide.class, guides, guide -> emailKey(guide.getEmail()),
+                BY_EMAIL, key -> key);
+        emergencyRecords = participant("emergencies", Emergency.class, emergencies,
+                emergency -> String.valueOf(emergency.getId()), BY_ID, Integer::valueOf);
+        bookingRecords = new Transaction.Participant<>("bookings", Booking.class,
+                booking -> String.valueOf(booking.getId()),
+                key -> bookings.findByIdOrFail(BY_ID, Integer.parseInt(key)),
+                key -> {
+                    int id = Integer.parseInt(key);
+                    try {
+                        return bookings.removeById(BY_ID, id) || bookings.findByIdOrFail(BY_ID, id) == null;
+                    } catch (IOException e) {
+                        return false;
+                    }
+                },
+                booking -> {
+                    // Its start date, and so its partition, may have changed
+                    Booking previous = bookings.findById(BY_ID, booking.getId());
+                    bookings.removeById(BY_ID, booking.getId());
+                    if (bookings.add(booking)) {
+                        return true;
+                    }
+                    if (previous != null) {
+                        bookings.add(previous); // A refused put leaves the store as it was
+                    }
+                    return false;
+                });
+        userRecords = participant("users", User.class, users, user -> emailKey(user.getEmail()),
+                BY_EMAIL, key -> key);
+
+        transactionLog = new TransactionLog(TRANSACTION_LOG, journalGson);
+        for (Transaction.Participant<?> participant : List.of(trekRecords, attractionRecords, bookingRecords,
+                guideRecords, emergencyRecords, userRecords)) {
+            transactionLog.register(participant);
+        }
+    }
+
+    public static synchronized DataStore getInstance() {
+        if (instance == null) {
+            instance = new DataStore();
+        }
+        return instance;
+    }
+
+    // Finishes the transactions an earlier run left open. Call once at startup, before the
+    // stores are used and off the FX thread: it may wait several seconds for the writer.
+    public void recover() {
+        transactionLog.recover();
+    }
+
+    EntityStore<Trek> treks() { return treks; }
+
+    EntityStore<Attraction> attractions() { return attractions; }
+
+    PartitionedStore<Booking> bookings() { return bookings; }
+
+    EntityStore<Guide> guides() { return guides; }
+
+    EntityStore<Emergency> emergencies() { return emergencies; }
+
+    EntityStore<User> users() { return users; }
+
+    Transaction.Participant<Trek> trekRecords() { return trekRecords; }
+
+    Transaction.Participant<Attraction> attractionRecords() { return attractionRecords; }
+
+    Transaction.Participant<Booking> bookingRecords() { return bookingRecords; }
+
+    Transaction.Participant<Guide> guideRecords() { return guideRecords; }
+
+    Transaction.Participant<Emergency> emergencyRecords() { return emergencyRecords; }
+
+    Transaction.Participant<User> userRecords() { return userRecords; }
+
+    // Starts a change set spanning several stores; nothing happens until commit()
+    Transaction begin() {
+        return new Transaction(transactionLog);
+    }
+
+    IdSequence trekIds() { return trekIds; }
+
+    IdSequence attractionIds() { return attractionIds; }
+
+    IdSequence bookingIds() { return bookingIds; }
+
+    IdSequence emergencyIds() { return emergencyIds; }
+
+    // Emails are matched case-insensitively everywhere, so indexes key on the lowercase form
+    static String emailKey(String email) {
+        return email != null ? email.toLowerCase() : null;
+    }
+
+    // Blocks until every change made so far has been written to disk
+    public boolean flush() {
+        return GroupCommitWriter.getInstance().flush(FLUSH_TIMEOUT_MILLIS);
+    }
+
+    // Forces every store to re-read its file on next access
+    public void invalidateAll() {
+        treks.invalidate();
+        attractions.invalidate();
+        bookings.invalidate();
+        guides.invalidate();
+        emergencies.invalidate();
+        users.invalidate();
+    }
+
+    // ==================== IMPORT / EXPORT ====================
+
+    // Writes every store as pretty JSON into the given directory, whatever the live format is
+    public boolean exportJson(String directory) {
+        try {
+            Path dir = Paths.get(directory);
+            dir.toFile().mkdirs();
+            exportStore(treks.getAll(), Trek.class, dir.resolve("treks.json"));
+            exportStore(attractions.getAll(), Attraction.class, dir.resolve("attractions.json"));
+            exportStore(bookings.getAll(), Booking.class, dir.resolve("bookings.json"));
+            exportStore(guides.getAll(), Guide.class, dir.resolve("guides.json"));
+            exportStore(emergencies.getAll(), Emergency.class, dir.resolve("emergencies.json"));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error exporting data to " + directory + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Replaces the contents of every store that has a JSON file in the given directory
+    public boolean importJson(String directory) {
+        try {
+            Path dir = Paths.get(directory);
+            importStore(treks::save, Trek.class, dir.resolve("treks.json"));
+            importStore(attractions::save, Attraction.class, dir.resolve("attractions.json"));
+            importStore(bookings::save, Booking.class, dir.resolve("bookings.json"));
+            importStore(guides::save, Guide.class, dir.resolve("guides.json"));
+            importStore(emergencies::save, Emergency.class, dir.resolve("emergencies.json"));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error importing data from " + directory + ": " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static <T> void exportStore(List<T> records, Class<T> recordType, Path target) throws IOException {
+        AtomicFiles.write(target, StorageCodecs.prettyJson(recordType).encode(records));
+    }
+
+    private static <T> void importStore(Predicate<List<T>> save, Class<T> recordType, Path source) throws IOException {
+        if (source.toFile().exists()) {
+            save.test(StorageCodecs.json(recordType).read(source));
+        }
+    }
+
+    // Bookings live in one file per trek start month (data/bookings/2026-10.json), so
+    // "upcoming" and "this month" queries only open the months they ask about
+    private static PartitionedStore<Booking> openBookings(Gson journalGson) {
+        PartitionedStore<Booking> store = new PartitionedStore<>(BOOKINGS_DIR,
+                booking -> booking.hasTrekStartDate() ? YearMonth.from(booking.getTrekStartDate()) : null,
+                Booking::getId,
+                base -> {
+                    EntityStore<Booking> partition = openStore(base, Booking.class, RecordFormats.BOOKING, Booking::getId);
+                    partition.addIndex(BY_ID, Booking::getId, "id", Integer::valueOf);
+                    partition.addIndex(BY_USER_EMAIL, booking -> emailKey(booking.getUserEmail()),
+                            "userEmail", DataStore::emailKey);
+                    partition.addIndex(BY_TREK_ID, Booking::getTrekId, "trekId", Integer::valueOf);
+                    partition.enableJournal(new Journal<>(base + ".journal", Booking.class, Booking::getId,
+                            journalGson, JOURNAL_COMPACT_BYTES));
+                    return partition;
+                });
+
+        StorageCodec<Booking> codec = StorageCodecs.configured(Booking.class, RecordFormats.BOOKING);
+        if (!store.hasManifest()) {
+            // Split the old data/bookings.json (plus its journal) into month files once
+            Path jsonFile = Paths.get(StorageCodecs.fileFor(BOOKINGS_BASE, StorageCodecs.json(Booking.class)));
+            Path liveFile = Paths.get(StorageCodecs.fileFor(BOOKINGS_BASE, codec));
+            if (jsonFile.toFile().exists() || liveFile.toFile().exists()) {
+                EntityStore<Booking> legacy = openStore(BOOKINGS_BASE, Booking.class, RecordFormats.BOOKING, Booking::getId);
+                legacy.markReadOnly();
+                legacy.enableJournal(new Journal<>(BOOKINGS_JOURNAL, Booking.class, Booking::getId,
+                        journalGson, JOURNAL_COMPACT_BYTES));
+                store.migrateFrom(legacy, List.of(liveFile, jsonFile, Paths.get(BOOKINGS_JOURNAL)));
+            }
+        }
+        store.reconcile(codec.getExtension());
+        return store;
+    }
+
+    // Deletes and puts by key against one EntityStore; keyIndex finds a record by its
+    // transaction key once parseKey has turned that back into the index's key type
+    private static <T> Transaction.Participant<T> participant(String name, Class<T> recordType, EntityStore<T> store,
+                                                              Function<T, String> keyOf, String keyIndex,
+                                                              Function<String, Object> parseKey) {
+        return new Transaction.Participant<>(name, recordType, keyOf,
+                key -> store.findFirstByOrFail(keyIndex, parseKey.apply(key)),
+                key -> {
+                    // Nothing removed is fine if it is already gone, not if the store refused the write
+                    try {
+                        return store.removeIf(item -> key.equals(keyOf.apply(item)))
+                                || store.findFirstByOrFail(keyIndex, parseKey.apply(key)) == null;
+                    } catch (IOException e) {
+                        return false;
+                    }
+                },
+                record -> {
+                    String key = keyOf.apply(record);
+                    return store.replace(item -> key.equals(keyOf.apply(item)), record) || store.add(record);
+                });
+    }
+
+    private static <T> EntityStore<T> openStore(String basePath, Class<T> recordType, RecordFormat<T> recordFormat,
+                                                Function<T, Object> keyOf) {
+        StorageCodec<T> codec = StorageCodecs.configured(recordType, recordFormat);
+        StorageCodecs.migrateFromJson(basePath, recordType, codec);
+
+        String filename = StorageCodecs.fileFor(basePath, codec);
+        StorageCodecs.createIfMissing(filename, codec);
+        return new EntityStore<>(filename, codec, recordFormat, keyOf);
+    }
+}
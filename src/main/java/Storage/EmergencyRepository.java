@@ -0,0 +1,19 @@
+package Storage;
+
+import Models.Emergency;
+
+import java.util.List;
+
+public interface EmergencyRepository {
+    List<Emergency> loadEmergencies();
+
+    int countEmergencies();
+
+    // Assigns the emergency a new id before storing it
+    boolean addEmergency(Emergency emergency);
+
+    boolean updateEmergency(Emergency updatedEmergency);
+
+    // Most recent first
+    List<Emergency> getEmergenciesByGuideEmail(String guideEmail);
+}
@@ -0,0 +1,843 @@
+package Storage;
+
+
+import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+// Keeps the contents of one entity file resident in memory.
+// The file is only parsed again when its modification time or size differs
+// from what was seen on the last load, so repeated lookups cost no I/O.
+// Named hash indexes are rebuilt on load and patched on every add/replace/remove.
+// Stores with a journal append each change to it instead of rewriting the file,
+// and the file is rewritten in the background once the journal grows.
+// Mutations only touch memory; the disk write is handed to GroupCommitWriter,
+// which coalesces and persists it in the background (write-behind).
+// Until something needs the whole list, keyed lookups stream the file with
+// StreamingQuery instead of loading it, so a cold screen only pays for its rows.
+// Commits run under the file's CommitLock. If another process committed since
+// this store last loaded, the commit first reloads the file and re-applies the
+// changes made here (tracked per record key), so neither side's writes are lost.
+// A file that exists but can't be read or parsed is never treated as empty: reads
+// come back empty, but every write is refused until the file loads again, so the
+// records in it can't be overwritten by a snapshot of nothing.
+// Records never leave or enter the cache by reference: reads hand out copies
+// (as streamed lookups do anyway) and writes store a copy, so a screen editing a
+// record it loaded changes nothing here until it saves it. Copies come from the
+// models' copy constructors, so a lookup costs one small allocation, not a decode.
+class EntityStore<T> {
+    // Keyed lookups allowed to stream before the store decides to load the file after all
+    private static final int STREAMED_LOOKUPS_BEFORE_LOAD = 4;
+
+    // How to find an index key in the raw JSON: the field name and how to turn its text into the key
+    private static class StreamKey {
+        private final String jsonField;
+        private final Function<String, Object> rawKeyOf;
+
+        StreamKey(String jsonField, Function<String, Object> rawKeyOf) {
+            this.jsonField = jsonField;
+            this.rawKeyOf = rawKeyOf;
+        }
+    }
+
+    private final String filename;
+    private final Path path;
+    private final StorageCodec<T> codec;
+    private final Function<T, Object> keyOf;
+    private final CommitLock commitLock;
+    // Copies records in and out of the cache
+    private final RecordFormat<T> recordFormat;
+
+    private List<T> items = new ArrayList<>();
+    private boolean resident = false;
+    private int streamedLookups = 0;
+    private final Map<String, Function<T, Object>> indexKeys = new LinkedHashMap<>();
+    private final Map<String, StreamKey> streamKeys = new HashMap<>();
+    private final Map<String, Map<Object, List<T>>> indexes = new HashMap<>();
+    private long loadedModified = -1;
+    private long loadedSize = -1;
+    // Commit-lock version the in-memory copy is based on
+    private long loadedVersion = -1;
+    // Changes not yet in the snapshot file, by record key; a null value is a delete.
+    // Only used without a journal (the journal already is the list of changes).
+    private Map<Object, T> unsavedChanges = new LinkedHashMap<>();
+
+    private Journal<T> journal;
+    private boolean compactionScheduled = false;
+    // While our own writes are in flight the file on disk lags memory, so it must not be reloaded
+    private int writesInFlight = 0;
+    // Set when the last load read an older schema version; the file is then rewritten in the current one
+    private boolean outdatedOnDisk = false;
+    // Stores that are only read once (a legacy file being split up) never write in the background
+    private boolean readOnly = false;
+    // Set while the file on disk can't be read or parsed; writes are refused until it can
+    private boolean unreadable = false;
+
+    // keyOf identifies a record across reloads (its id, or email for guides)
+    EntityStore(String filename, StorageCodec<T> codec, RecordFormat<T> recordFormat, Function<T, Object> keyOf) {
+        this.filename = filename;
+        this.path = Paths.get(filename);
+        this.codec = codec;
+        this.recordFormat = recordFormat;
+        this.keyOf = keyOf;
+        this.commitLock = CommitLock.forFile(filename);
+    }
+
+    String getFilename() {
+        return filename;
+    }
+
+    // Registers a hash index; records whose key is null are left out of it
+    synchronized void addIndex(String name, Function<T, Object> keyFunction) {
+        indexKeys.put(name, keyFunction);
+        indexes.put(name, buildIndex(keyFunction));
+    }
+
+    // Same, but the index can also be answered by streaming the file while the store is cold
+    synchronized void addIndex(String name, Function<T, Object> keyFunction,
+                               String jsonField, Function<String, Object> rawKeyOf) {
+        addIndex(name, keyFunction);
+        streamKeys.put(name, new StreamKey(jsonField, rawKeyOf));
+    }
+
+    synchronized void markReadOnly() {
+        readOnly = true;
+    }
+
+    synchronized void enableJournal(Journal<T> journal) {
+        this.journal = journal;
+        invalidate();
+    }
+
+    // Copies of the cached records, so callers can add, remove and edit freely
+    synchronized List<T> getAll() {
+        refreshIfStale();
+        return copies(items);
+    }
+
+    // Like getAll, but fails instead of answering with nothing when the file can't be read
+    synchronized List<T> getAllOrFail() throws IOException {
+        refreshIfStale();
+        if (unreadable) {
+            throw new IOException(filename + " could not be read");
+        }
+        return copies(items);
+    }
+
+    // The cached records themselves rather than copies, for readers that only serialize
+    // them (backups). A write swaps in a new record instead of editing the cached one, so
+    // the list stays one consistent picture; callers must not change the records.
+    synchronized List<T> getAllSharedOrFail() throws IOException {
+        refreshIfStale();
+        if (unreadable) {
+            throw new IOException(filename + " could not be read");
+        }
+        return new ArrayList<>(items);
+    }
+
+    synchronized List<T> findBy(String indexName, Object key) {
+        if (key == null) {
+            return new ArrayList<>();
+        }
+        if (canStream(indexName)) {
+            try {
+                return streamLookup(indexName, key);
+            } catch (IOException e) {
+                System.err.println("Error streaming " + filename + ", loading it instead: " + e.getMessage());
+            }
+        }
+        refreshIfStale();
+        List<T> matches = indexes.get(indexName).get(key);
+        return matches != null ? copies(matches) : new ArrayList<>();
+    }
+
+    synchronized T findFirstBy(String indexName, Object key) {
+        if (key == null) {
+            return null;
+        }
+        if (canStream(indexName)) {
+            try {
+                List<T> matches = streamLookup(indexName, key);
+                return matches.isEmpty() ? null : matches.get(0);
+            } catch (IOException e) {
+                System.err.println("Error streaming " + filename + ", loading it instead: " + e.getMessage());
+            }
+        }
+        refreshIfStale();
+        List<T> matches = indexes.get(indexName).get(key);
+        return (matches != null && !matches.isEmpty()) ? recordFormat.copy(matches.get(0)) : null;
+    }
+
+    // Like findFirstBy, but fails instead of answering null when the file can't be read.
+    // Goes through the loaded index, since a streamed lookup can't tell a bad file apart.
+    synchronized T findFirstByOrFail(String indexName, Object key) throws IOException {
+        refreshIfStale();
+        if (unreadable) {
+            throw new IOException(filename + " could not be read");
+        }
+        List<T> matches = indexes.get(indexName).get(key);
+        return (matches != null && !matches.isEmpty()) ? recordFormat.copy(matches.get(0)) : null;
+    }
+
+    // Highest value of an int field, without copying the list (used to seed id sequences)
+    synchronized int maxOf(ToIntFunction<T> field) {
+        refreshIfStale();
+        if (unreadable) {
+            // An empty list would seed the sequence at 1 and hand out ids already in the file
+            throw new IllegalStateException(filename + " could not be read");
+        }
+        return items.stream()
+                .mapToInt(field)
+                .max()
+                .orElse(0);
+    }
+
+    // Back-pressure is applied before taking the store lock, because the
+    // background writer needs that lock to serialize snapshots.
+
+    boolean add(T item) {
+        GroupCommitWriter.getInstance().awaitCapacity();
+        return stageAdd(item);
+    }
+
+    // Adds every item in one staged change, so the writer commits them together
+    boolean addAll(List<T> newItems) {
+        GroupCommitWriter.getInstance().awaitCapacity();
+        return stageAddAll(newItems);
+    }
+
+    // All-or-nothing addAll: adds nothing if any item's key is already taken in the given
+    // index, or appears twice among the items
+    boolean addAllIfAbsent(String indexName, List<T> newItems) {
+        GroupCommitWriter.getInstance().awaitCapacity();
+        return stageAddAllIfAbsent(indexName, newItems);
+    }
+
+    // Adds the item unless another record already has the same key in the given index;
+    // the check and the add happen under one lock, so concurrent callers can't both win
+    boolean addIfAbsent(String indexName, T item) {
+        GroupCommitWriter.getInstance().awaitCapacity();
+        return stageAddIfAbsent(indexName, item);
+    }
+
+    // Swaps the first record matching the predicate for the given one
+    boolean replace(Predicate<T> match, T item) {
+        GroupCommitWriter.getInstance().awaitCapacity();
+        return stageReplace(match, item);
+    }
+
+    boolean removeIf(Predicate<T> match) {
+        GroupCommitWriter.getInstance().awaitCapacity();
+        return stageRemoveIf(match);
+    }
+
+    boolean save(List<T> newItems) {
+        GroupCommitWriter.getInstance().awaitCapacity();
+        return stageSave(newItems);
+    }
+
+    // Replaces the contents and writes them right away on the calling thread, bypassing
+    // the background writer (used when a file is split into partitions)
+    synchronized void writeNow(List<T> newItems) throws IOException {
+        items = copies(newItems);
+        rebuildIndexes();
+        AtomicFiles.write(path, codec.encode(items));
+        rememberFileState(path.toFile());
+        loadedVersion = commitLock.currentVersion();
+        resident = true;
+    }
+
+    // Drops the cached copy so the next read goes back to disk
+    synchronized void invalidate() {
+        loadedModified = -1;
+        loadedSize = -1;
+    }
+
+    // ==================== STREAMING LOOKUPS (cold store) ====================
+
+    private boolean canStream(String indexName) {
+        return codec.supportsStreaming() && streamedLookups < STREAMED_LOOKUPS_BEFORE_LOAD
+                && streamKeys.containsKey(indexName) && fileHasEverything();
+    }
+
+    private List<T> streamLookup(String indexName, Object key) throws IOException {
+        streamedLookups++;
+        StreamKey streamKey = streamKeys.get(indexName);
+        List<T> matches = codec.select(path, streamKey.jsonField,
+                raw -> key.equals(streamKey.rawKeyOf.apply(raw)));
+
+        if (journal != null) {
+            // Logged changes may add, move or delete matching records
+            Function<T, Object> keyFunction = indexKeys.get(indexName);
+            matches = journal.replayDetached(matches, snapshotVersion());
+            matches.removeIf(item -> !key.equals(keyFunction.apply(item)));
+        }
+        return matches;
+    }
+
+    // ==================== PROJECTIONS ====================
+
+    // Number of records. A cold store counts them in the file without loading it.
+    synchronized int count() {
+        if (canReadFileDirectly()) {
+            try {
+                return codec.count(path);
+            } catch (Exception e) {
+                System.err.println("Error counting records in " + filename + ", loading it instead: " + e.getMessage());
+            }
+        }
+        refreshIfStale();
+        return items.size();
+    }
+
+    // A few fields of every record (see Projection). A cold store decodes just those
+    // fields from the file and stays cold; a loaded one maps its records.
+    synchronized <R> List<R> project(Projection<T, R> projection) {
+        if (canReadFileDirectly()) {
+            try {
+                return codec.project(path, projection);
+            } catch (Exception e) {
+                System.err.println("Error reading fields from " + filename + ", loading it instead: " + e.getMessage());
+            }
+        }
+        refreshIfStale();
+        List<R> rows = new ArrayList<>(items.size());
+        for (T item : items) {
+            rows.add(projection.fromRecord(item));
+        }
+        return rows;
+    }
+
+    // Nothing staged here and nothing logged in a journal: the file alone is the answer
+    private boolean canReadFileDirectly() {
+        return fileHasEverything() && (journal == null || journal.length() == 0);
+    }
+
+    // Cold, and nothing staged here or still being written: the file (plus the journal,
+    // which streamed lookups replay) holds every change
+    private boolean fileHasEverything() {
+        return !resident && writesInFlight == 0 && unsavedChanges.isEmpty() && path.toFile().exists();
+    }
+
+    // ==================== STAGING (in memory, under the lock) ====================
+
+    private synchronized boolean stageAdd(T newItem) {
+        if (!refreshForWrite() || !allKeyed(List.of(newItem))) {
+            return false;
+        }
+        T item = recordFormat.copy(newItem);
+        items.add(item);
+        indexInsert(item);
+        if (journal != null) {
+            journal.appendPut(item);
+            commitJournal();
+        } else {
+            unsavedChanges.put(keyOf.apply(item), item);
+            commitSnapshot();
+        }
+        return true;
+    }
+
+    private synchronized boolean stageAddAll(List<T> newItems) {
+        if (newItems.isEmpty()) {
+            return true;
+        }
+        if (!refreshForWrite() || !allKeyed(newItems)) {
+            return false;
+        }
+        for (T item : copies(newItems)) {
+            items.add(item);
+            indexInsert(item);
+            if (journal != null) {
+                journal.appendPut(item);
+            } else {
+                unsavedChanges.put(keyOf.apply(item), item);
+            }
+        }
+        if (journal != null) {
+            commitJournal();
+        } else {
+            commitSnapshot();
+        }
+        return true;
+    }
+
+    private synchronized boolean stageAddAllIfAbsent(String indexName, List<T> newItems) {
+        if (!refreshForWrite()) {
+            return false;
+        }
+        Function<T, Object> keyFunction = indexKeys.get(indexName);
+        Map<Object, List<T>> index = indexes.get(indexName);
+        Set<Object> seen = new HashSet<>();
+        for (T item : newItems) {
+            Object key = keyFunction.apply(item);
+            List<T> existing = index.get(key);
+            if ((existing != null && !existing.isEmpty()) || !seen.add(key)) {
+                return false;
+            }
+        }
+        return stageAddAll(newItems);
+    }
+
+    private synchronized boolean stageAddIfAbsent(String indexName, T item) {
+        if (!refreshForWrite()) {
+            return false;
+        }
+        List<T> existing = indexes.get(indexName).get(indexKeys.get(indexName).apply(item));
+        if (existing != null && !existing.isEmpty()) {
+            return false;
+        }
+        return stageAdd(item);
+    }
+
+    private synchronized boolean stageReplace(Predicate<T> match, T newItem) {
+        if (!refreshForWrite() || !allKeyed(List.of(newItem))) {
+            return false;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            T existing = items.get(i);
+            if (match.test(existing)) {
+                T item = recordFormat.copy(newItem);
+                items.set(i, item);
+                indexReplace(existing, item);
+                if (journal != null) {
+                    journal.appendPut(item);
+                    commitJournal();
+                } else {
+                    Object oldKey = keyOf.apply(existing);
+                    Object newKey = keyOf.apply(item);
+                    if (!Objects.equals(oldKey, newKey)) {
+                        unsavedChanges.put(oldKey, null);
+                    }
+                    unsavedChanges.put(newKey, item);
+                    commitSnapshot();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized boolean stageRemoveIf(Predicate<T> match) {
+        if (!refreshForWrite()) {
+            return false;
+        }
+        List<T> removed = new ArrayList<>();
+        items.removeIf(item -> {
+            if (match.test(item)) {
+                removed.add(item);
+                return true;
+            }
+            return false;
+        });
+
+        if (removed.isEmpty()) {
+            return false;
+        }
+        for (T item : removed) {
+            indexRemove(item);
+        }
+        if (journal != null) {
+            for (T item : removed) {
+                journal.appendDelete(item);
+            }
+            commitJournal();
+        } else {
+            for (T item : removed) {
+                unsavedChanges.put(keyOf.apply(item), null);
+            }
+            commitSnapshot();
+        }
+        return true;
+    }
+
+    private synchronized boolean stageSave(List<T> newItems) {
+        if (!refreshForWrite() || !allKeyed(newItems)) {
+            return false;
+        }
+        // Record the difference to the current list, so a concurrent writer's other records survive
+        List<T> saved = copies(newItems);
+        Map<Object, T> before = new HashMap<>();
+        for (T item : items) {
+            before.put(keyOf.apply(item), item);
+        }
+        for (T item : saved) {
+            Object key = keyOf.apply(item);
+            T previous = before.remove(key);
+            if (previous == null || !recordFormat.sameContents(previous, item)) {
+                unsavedChanges.put(key, item);
+            }
+        }
+        for (Object removedKey : before.keySet()) {
+            unsavedChanges.put(removedKey, null);
+        }
+
+        items = saved;
+        rebuildIndexes();
+        commitSnapshot();
+        return true;
+    }
+
+    // Loads the file if needed; false (and nothing staged) while it can't be read, or
+    // once after the writer gave up on an earlier write, so the failure reaches a caller
+    private boolean refreshForWrite() {
+        refreshIfStale();
+        if (unreadable) {
+            System.err.println("Not changing " + filename + ": the file could not be read. Fix or restore it first.");
+            return false;
+        }
+        GroupCommitWriter writer = GroupCommitWriter.getInstance();
+        String failure = writer.takeFailure(filename);
+        if (failure == null && journal != null) {
+            failure = writer.takeFailure(journal.getFilename());
+        }
+        if (failure != null) {
+            System.err.println("Not changing " + filename + ": an earlier write to it failed (" + failure + ")");
+            return false;
+        }
+        return true;
+    }
+
+    // Changes are tracked by record key, so a record without one (a guide with no email)
+    // can't be merged with other processes' writes and isn't accepted
+    private boolean allKeyed(List<T> records) {
+        for (T record : records) {
+            if (keyOf.apply(record) == null) {
+                System.err.println("Not changing " + filename + ": a record has no key (" + record + ")");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ==================== COMMITTING (background writer) ====================
+
+    private void commitSnapshot() {
+        track(GroupCommitWriter.getInstance().submit(filename, this::writeSnapshot));
+    }
+
+    private void commitJournal() {
+        track(GroupCommitWriter.getInstance().submit(journal.getFilename(), this::writeJournal));
+        scheduleCompactionIfNeeded();
+    }
+
+    // Failed writes are retried by the writer; one it gives up on is reported by refreshForWrite
+    private void track(CompletableFuture<Boolean> commit) {
+        writesInFlight++;
+        commit.whenComplete((ok, error) -> {
+            synchronized (this) {
+                writesInFlight--;
+            }
+        });
+    }
+
+    // Folds a grown journal back into the snapshot file; nobody waits on this
+    private void scheduleCompactionIfNeeded() {
+        if (journal == null || compactionScheduled || !journal.needsCompaction()) {
+            return;
+        }
+        compactionScheduled = true;
+        commitSnapshot();
+    }
+
+    // Appends are safe to interleave with other processes' appends (entries are keyed
+    // by id), so a conflict only means memory is missing their entries: reload later.
+    private void writeJournal() throws IOException {
+        commitLock.commit(versionOnDisk -> {
+            journal.flushPending();
+            synchronized (this) {
+                if (versionOnDisk == loadedVersion) {
+                    loadedVersion = versionOnDisk + 1;
+                } else {
+                    invalidate();
+                }
+            }
+            return null;
+        });
+    }
+
+    // Holds the commit lock for the whole write. Serializes under the store lock but
+    // writes and fsyncs outside it. Journal entries covered by the snapshot are dropped
+    // only once the snapshot is durable.
+    private void writeSnapshot() throws IOException {
+        commitLock.commit(versionOnDisk -> {
+            byte[] data;
+            long journalMark = 0;
+            Map<Object, T> written;
+            synchronized (this) {
+                compactionScheduled = false;
+                if (journal != null) {
+                    journal.flushPending();
+                    journalMark = journal.length();
+                }
+                if (versionOnDisk != loadedVersion) {
+                    mergeWithDisk();
+                }
+                data = codec.encode(items);
+                written = unsavedChanges;
+                unsavedChanges = new LinkedHashMap<>();
+            }
+
+            try {
+                AtomicFiles.write(path, data);
+            } catch (IOException e) {
+                synchronized (this) {
+                    // Keep the changes for the retry; anything staged since is newer
+                    written.putAll(unsavedChanges);
+                    unsavedChanges = written;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                if (journal != null) {
+                    journal.dropPrefix(journalMark);
+                }
+                rememberFileState(path.toFile());
+                loadedVersion = versionOnDisk + 1;
+            }
+            return null;
+        });
+    }
+
+    // Another process committed since we loaded: start from what is on disk now and
+    // put our own changes back on top (last writer wins per record)
+    private void mergeWithDisk() throws IOException {
+        // Throws if the file can't be read, so the commit fails instead of overwriting it
+        List<T> merged = loadFromFile();
+        outdatedOnDisk = false; // This snapshot writes the current version anyway
+        if (journal != null) {
+            // Our entries are already flushed to the journal, so replay covers them
+            merged = journal.replay(merged, snapshotVersion());
+        } else {
+            merged = applyChanges(merged, unsavedChanges);
+        }
+        items = merged;
+        resident = true;
+        rebuildIndexes();
+    }
+
+    private List<T> applyChanges(List<T> records, Map<Object, T> changes) {
+        Map<Object, Integer> positions = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            positions.put(keyOf.apply(records.get(i)), i);
+        }
+
+        boolean hasDeletes = false;
+        for (Map.Entry<Object, T> change : changes.entrySet()) {
+            Integer position = positions.get(change.getKey());
+            if (change.getValue() == null) {
+                if (position != null) {
+                    records.set(position, null);
+                    hasDeletes = true;
+                }
+            } else if (position != null) {
+                records.set(position, change.getValue());
+            } else {
+                positions.put(change.getKey(), records.size());
+                records.add(change.getValue());
+            }
+        }
+
+        if (hasDeletes) {
+            records.removeIf(record -> record == null);
+        }
+        return records;
+    }
+
+    private void refreshIfStale() {
+        if (writesInFlight > 0) {
+            return;
+        }
+
+        File file = path.toFile();
+        if (!file.exists()) {
+            System.err.println("File not found: " + filename + ". Creating new file.");
+            StorageCodecs.createIfMissing(filename, codec);
+            items = new ArrayList<>();
+            resident = true;
+            rebuildIndexes();
+            rememberFileState(file);
+            loadedVersion = commitLock.currentVersion();
+            return;
+        }
+
+        if (file.lastModified() == loadedModified && file.length() == loadedSize
+                && (journal == null || !journal.changedExternally())) {
+            return;
+        }
+
+        // Read the version first: a commit landing during the load then shows up as a mismatch
+        loadedVersion = commitLock.currentVersion();
+        try {
+            items = loadFromFile();
+        } catch (IOException e) {
+            // Stay cold; the file is read again once it changes (fixed or restored)
+            unreadable = true;
+            resident = false;
+            items = new ArrayList<>();
+            rebuildIndexes();
+            rememberFileState(file);
+            return;
+        }
+        unreadable = false;
+        if (journal != null) {
+            items = journal.replay(items, snapshotVersion());
+        }
+        resident = true;
+        rebuildIndexes();
+        rememberFileState(file);
+        if (readOnly) {
+            return;
+        }
+        if (outdatedOnDisk) {
+            scheduleUpgrade();
+        } else {
+            scheduleCompactionIfNeeded();
+        }
+    }
+
+    // Lazy schema migration: the records were upgraded while loading, so writing
+    // them back is an ordinary snapshot in the background. Nobody waits on it.
+    private void scheduleUpgrade() {
+        outdatedOnDisk = false;
+        compactionScheduled = true; // The snapshot folds in the journal as well
+        commitSnapshot();
+    }
+
+    // ==================== INDEX MAINTENANCE ====================
+
+    private void rebuildIndexes() {
+        for (Map.Entry<String, Function<T, Object>> entry : indexKeys.entrySet()) {
+            indexes.put(entry.getKey(), buildIndex(entry.getValue()));
+        }
+    }
+
+    private Map<Object, List<T>> buildIndex(Function<T, Object> keyFunction) {
+        Map<Object, List<T>> index = new HashMap<>();
+        for (T item : items) {
+            Object key = keyFunction.apply(item);
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+            }
+        }
+        return index;
+    }
+
+    private void indexInsert(T item) {
+        for (Map.Entry<String, Function<T, Object>> entry : indexKeys.entrySet()) {
+            Object key = entry.getValue().apply(item);
+            if (key != null) {
+                indexes.get(entry.getKey()).computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+            }
+        }
+    }
+
+    private void indexRemove(T item) {
+        for (Map.Entry<String, Function<T, Object>> entry : indexKeys.entrySet()) {
+            Object key = entry.getValue().apply(item);
+            if (key != null) {
+                removeFromBucket(indexes.get(entry.getKey()), key, item);
+            }
+        }
+    }
+
+    private void indexReplace(T oldItem, T newItem) {
+        for (Map.Entry<String, Function<T, Object>> entry : indexKeys.entrySet()) {
+            Map<Object, List<T>> index = indexes.get(entry.getKey());
+            Object oldKey = entry.getValue().apply(oldItem);
+            Object newKey = entry.getValue().apply(newItem);
+
+            // Same key: keep the record's position in its bucket
+            if (oldKey != null && oldKey.equals(newKey)) {
+                List<T> bucket = index.get(oldKey);
+                int position = indexOfIdentity(bucket, oldItem);
+                if (position >= 0) {
+                    bucket.set(position, newItem);
+                    continue;
+                }
+            }
+
+            if (oldKey != null) {
+                removeFromBucket(index, oldKey, oldItem);
+            }
+            if (newKey != null) {
+                index.computeIfAbsent(newKey, k -> new ArrayList<>()).add(newItem);
+            }
+        }
+    }
+
+    private void removeFromBucket(Map<Object, List<T>> index, Object key, T item) {
+        List<T> bucket = index.get(key);
+        if (bucket == null) {
+            return;
+        }
+        int position = indexOfIdentity(bucket, item);
+        if (position >= 0) {
+            bucket.remove(position);
+        }
+        if (bucket.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private int indexOfIdentity(List<T> bucket, T item) {
+        if (bucket == null) {
+            return -1;
+        }
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<T> loadFromFile() throws IOException {
+        try {
+            return codec.read(path, () -> outdatedOnDisk = true);
+        } catch (IOException e) {
+            System.err.println("Error reading file " + filename + ": " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Error parsing " + filename + ": " + e.getMessage());
+            e.printStackTrace();
+            throw new IOException("Error parsing " + filename, e);
+        }
+    }
+
+    // Journal lines from builds that didn't note their schema version share the snapshot's
+    private int snapshotVersion() {
+        try {
+            return codec.schemaVersion(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private List<T> copies(List<T> records) {
+        List<T> copied = new ArrayList<>(records.size());
+        for (T record : records) {
+            copied.add(recordFormat.copy(record));
+        }
+        return copied;
+    }
+
+    private void rememberFileState(File file) {
+        loadedModified = file.lastModified();
+        loadedSize = file.length();
+    }
+}
@@ -0,0 +1,205 @@
+package Storage;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Single background writer shared by every store (write-behind).
+// Stores change memory first and hand the disk work to this thread.
+// Writes queued for the same file are coalesced: only the latest action runs,
+// so five edits to treks.json in quick succession produce one write and one fsync.
+// A failed write stays queued and is retried a few times. If it still fails it is
+// given up on (its future completes with false) and the failure is kept until the
+// store asks for it with takeFailure, which makes that store's next change fail.
+// Memory still holds the changes, so the next write that succeeds includes them.
+class GroupCommitWriter {
+    private static final long WINDOW_MILLIS = 5;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final int MAX_ATTEMPTS = 5;
+    // Back-pressure: mutators block once this many changes are waiting for disk
+    private static final int MAX_QUEUED_CHANGES = 5000;
+    private static final long SHUTDOWN_FLUSH_MILLIS = 10_000;
+
+    interface WriteAction {
+        void run() throws IOException;
+    }
+
+    private static class PendingWrite {
+        private WriteAction action;
+        private int changes;
+        private int attempts;
+        private final CompletableFuture<Boolean> done = new CompletableFuture<>();
+
+        PendingWrite(WriteAction action) {
+            this.action = action;
+        }
+    }
+
+    private static GroupCommitWriter instance;
+
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+    private int queuedChanges = 0;
+    private boolean committing = false;
+    // Key -> error of a write that was given up on and not yet reported
+    private final Map<String, String> failures = new LinkedHashMap<>();
+
+    private GroupCommitWriter() {
+        Thread committer = new Thread(this::runCommitter, "group-commit-writer");
+        committer.setDaemon(true);
+        committer.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(SHUTDOWN_FLUSH_MILLIS), "storage-flush"));
+    }
+
+    static synchronized GroupCommitWriter getInstance() {
+        if (instance == null) {
+            instance = new GroupCommitWriter();
+        }
+        return instance;
+    }
+
+    // Queues a write keyed by file; a later submit for the same key replaces the action.
+    // Never blocks, so it is safe to call while holding a store lock. The future completes
+    // once the write is on disk (true) or has been given up on after every retry (false).
+    synchronized CompletableFuture<Boolean> submit(String key, WriteAction action) {
+        PendingWrite write = pending.get(key);
+        if (write != null) {
+            write.action = action;
+        } else {
+            write = new PendingWrite(action);
+            pending.put(key, write);
+            notifyAll();
+        }
+        write.changes++;
+        queuedChanges++;
+        return write.done;
+    }
+
+    // Blocks while the writer is too far behind. Call before taking a store lock:
+    // the writer may need that lock to make progress.
+    synchronized void awaitCapacity() {
+        while (queuedChanges >= MAX_QUEUED_CHANGES) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // The error of the last write given up on for this key, or null; reported only once
+    synchronized String takeFailure(String key) {
+        return failures.remove(key);
+    }
+
+    // True while some write that was given up on hasn't been reported yet
+    synchronized boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    // Waits until everything queued so far is on disk, or the timeout passes
+    synchronized boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!pending.isEmpty() || committing) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                System.err.println("Timed out flushing " + pending.size() + " pending data file write(s)");
+                return false;
+            }
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void runCommitter() {
+        while (true) {
+            try {
+                synchronized (this) {
+                    while (pending.isEmpty()) {
+                        wait();
+                    }
+                }
+
+                // Give writes landing right behind the first one a chance to join this batch
+                Thread.sleep(WINDOW_MILLIS);
+
+                Map<String, PendingWrite> batch;
+                synchronized (this) {
+                    batch = new LinkedHashMap<>(pending);
+                    pending.clear();
+                    committing = true;
+                }
+
+                boolean failed = commit(batch);
+
+                synchronized (this) {
+                    committing = false;
+                    notifyAll();
+                }
+                if (failed) {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean commit(Map<String, PendingWrite> batch) {
+        boolean failed = false;
+        for (Map.Entry<String, PendingWrite> entry : batch.entrySet()) {
+            PendingWrite write = entry.getValue();
+            try {
+                write.action.run();
+                synchronized (this) {
+                    queuedChanges -= write.changes;
+                }
+                write.done.complete(true);
+            } catch (Exception e) {
+                write.attempts++;
+                if (write.attempts >= MAX_ATTEMPTS) {
+                    System.err.println("Error committing " + entry.getKey() + ", giving up after "
+                            + write.attempts + " attempts: " + e.getMessage());
+                    e.printStackTrace();
+                    giveUp(entry.getKey(), write, e);
+                } else {
+                    System.err.println("Error committing " + entry.getKey() + ", will retry: " + e.getMessage());
+                    e.printStackTrace();
+                    requeue(entry.getKey(), write);
+                    failed = true;
+                }
+            }
+        }
+        return failed;
+    }
+
+    // Puts a failed write back unless a newer one for the same file has been queued meanwhile
+    private synchronized void requeue(String key, PendingWrite failed) {
+        PendingWrite newer = pending.get(key);
+        if (newer == null) {
+            pending.put(key, failed);
+            return;
+        }
+        newer.changes += failed.changes;
+        newer.attempts = Math.max(newer.attempts, failed.attempts);
+        newer.done.whenComplete((ok, error) -> failed.done.complete(ok));
+    }
+
+    // Drops the write's changes from the back-pressure count, so callers stop waiting on it
+    private void giveUp(String key, PendingWrite write, Exception error) {
+        synchronized (this) {
+            queuedChanges -= write.changes;
+            failures.put(key, String.valueOf(error.getMessage()));
+            notifyAll();
+        }
+        write.done.complete(false);
+    }
+}
@@ -0,0 +1,28 @@
+package Storage;
+
+import Models.Guide;
+
+import java.util.List;
+import java.util.Map;
+
+// Guide emails are matched case-insensitively
+public interface GuideRepository {
+    List<Guide> loadGuides();
+
+    Guide getGuideByEmail(String email);
+
+    boolean guideExists(String email);
+
+    int countGuides();
+
+    // email -> "first last" of every guide in stored order, without loading whole records
+    Map<String, String> loadGuideNames();
+
+    // Returns false if a guide with the same email already exists
+    boolean addGuide(Guide guide);
+
+    // Stores all of them in one write, or none if any email is taken or repeated
+    boolean addGuides(List<Guide> guides);
+
+    boolean deleteGuide(String email);
+}
@@ -0,0 +1,153 @@
+package Storage;
+
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+// Hands out increasing ids for one entity type without scanning the data.
+// Ids come from an in-memory counter; only when the counter runs past the block
+// reserved on disk is a new block recorded in data/sequences.properties.
+// After a restart the sequence resumes past the last reserved block, so ids are
+// never reused, even after the newest record is deleted. Gaps are expected.
+//
+// Several instances may share data/: blocks are reserved under the sequences
+// file's CommitLock against the value on disk, so each process draws from its
+// own block and no two processes hand out the same id.
+class IdSequence {
+    private static final String SEQUENCES_FILE = DataStore.DATA_DIR + "/sequences.properties";
+    private static final int BLOCK_SIZE = 64;
+
+    // Ids first..last (inclusive) belong to this process
+    private static final class Block {
+        private final int first;
+        private final int last;
+
+        Block(int first, int last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        boolean contains(int id) {
+            return id >= first && id <= last;
+        }
+    }
+
+    private final String name;
+    private final IntSupplier highestExistingId;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile Block block;
+
+    // highestExistingId is consulted once, so data written before sequences existed is respected
+    IdSequence(String name, IntSupplier highestExistingId) {
+        this.name = name;
+        this.highestExistingId = highestExistingId;
+    }
+
+    int nextId() {
+        if (block == null) {
+            initialize();
+        }
+        while (true) {
+            int id = next.getAndIncrement();
+            if (block.contains(id)) {
+                return id;
+            }
+            id = reserveFrom(id);
+            if (id > 0) {
+                return id;
+            }
+        }
+    }
+
+    // Reserves count consecutive ids in one go (bulk imports) and returns the first.
+    // The range is recorded on disk straight away and never overlaps the current block.
+    synchronized int reserveIds(int count) {
+        if (block == null) {
+            initialize();
+        }
+        if (count <= 0) {
+            return next.get();
+        }
+        return reserveBlock(name, next.get(), count);
+    }
+
+    private synchronized void initialize() {
+        if (block != null) {
+            return;
+        }
+        int reserved = readReservation(name);
+        int start = Math.max(reserved, highestExistingId.getAsInt()) + 1;
+        next.set(start);
+        block = new Block(start, reserved); // empty: the first id reserves a fresh block
+    }
+
+    // Returns the id to use, or -1 if this one was skipped and the caller should draw again
+    private synchronized int reserveFrom(int id) {
+        Block current = block;
+        if (current.contains(id)) {
+            return id; // another thread reserved a block while we waited
+        }
+        if (id < current.first) {
+            return -1; // fell into a range another process had already reserved
+        }
+
+        int first = reserveBlock(name, id, BLOCK_SIZE);
+        block = new Block(first, first + BLOCK_SIZE - 1);
+        if (first != id) {
+            // Another process got further meanwhile; jump past its ids
+            next.accumulateAndGet(first + 1, Math::max);
+        }
+        return first;
+    }
+
+    // ==================== SEQUENCES FILE ====================
+
+    private static int readReservation(String name) {
+        return parseReservation(name, loadReservations().getProperty(name));
+    }
+
+    // Reserves size ids starting at wanted, or right after the last block
+    // any process reserved if that is higher; returns the first id of the block
+    private static int reserveBlock(String name, int wanted, int size) {
+        try {
+            return CommitLock.forFile(SEQUENCES_FILE).commit(versionOnDisk -> {
+                Properties reservations = loadReservations();
+                int first = Math.max(wanted, parseReservation(name, reservations.getProperty(name)) + 1);
+                reservations.setProperty(name, String.valueOf(first + size - 1));
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                reservations.store(out, "Highest id reserved per entity type");
+                AtomicFiles.write(Paths.get(SEQUENCES_FILE), out.toByteArray());
+                return first;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reserving ids for " + name, e);
+        }
+    }
+
+    private static int parseReservation(String name, String value) {
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : 0;
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring bad sequence value for " + name + ": " + value);
+            return 0;
+        }
+    }
+
+    // Always re-read: another process may have reserved since
+    private static Properties loadReservations() {
+        Properties reservations = new Properties();
+        File file = new File(SEQUENCES_FILE);
+        if (file.exists()) {
+            try (Reader reader = new FileReader(file)) {
+                reservations.load(reader);
+            } catch (IOException e) {
+                System.err.println("Error reading " + SEQUENCES_FILE + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return reservations;
+    }
+}
@@ -1,106 +1,49 @@
 package Storage;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import Models.Booking;
 import Models.User;
 import Models.Guide;
+import Models.UserType;
 
-import java.io.File;
-import java.io.IOException;
-import java.lang.reflect.Type;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class JSONHandler {
-    private static final String DATA_DIR = "data";
-    private static final String USERS_FILE = DATA_DIR + "/users.json";
-    private static final String GUIDES_FILE = DATA_DIR + "/guides.json";
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-
-    static {
-        createDataDirectory();
-        initializeFile(USERS_FILE);
-        initializeFile(GUIDES_FILE);
-    }
-
-    private static void createDataDirectory() {
-        File dataDir = new File(DATA_DIR);
-        if (!dataDir.exists()) {
-            dataDir.mkdirs();
-        }
-    }
 
-    private static void initializeFile(String filename) {
-        File file = new File(filename);
-        if (!file.exists()) {
-            try {
-                file.createNewFile();
-                Files.write(Paths.get(filename), "[]".getBytes()); // Initialize with empty JSON array
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+    // User operations (includes admins because they are in the same file). Like guides,
+    // they go through a shared store in DataStore: read from memory, written in the background.
+    public static List<User> loadUsers() {
+        return DataStore.getInstance().users().getAll();
     }
 
-    // User operations (includes admins because they are in the same file)
-    public static List<User> loadUsers() {
-        try {
-            String json = new String(Files.readAllBytes(Paths.get(USERS_FILE)));
-            Type listType = new TypeToken<List<User>>() {}.getType();
-            List<User> users = gson.fromJson(json, listType);
-            return users != null ? users : new ArrayList<>();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new ArrayList<>();
-        }
+    public static int countUsers() {
+        return DataStore.getInstance().users().count();
     }
 
+    // Replaces the whole file; prefer addUser/deleteUser, which can't lose another instance's changes
     public static boolean saveUsers(List<User> users) {
-        try {
-            String json = gson.toJson(users);
-            Files.write(Paths.get(USERS_FILE), json.getBytes());
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return DataStore.getInstance().users().save(users);
     }
 
+    // Emails match ignoring case, as for guides
     public static boolean userExists(String email) {
-        List<User> users = loadUsers();
-        return users.stream().anyMatch(user -> user.getEmail().equals(email));
+        return DataStore.getInstance().users()
+                .findFirstBy(DataStore.BY_EMAIL, DataStore.emailKey(email)) != null;
     }
 
-    // Guide operations
+    // Guide operations go through the shared guide store in DataStore, the same
+    // cached copy, index and writer that AdminJSONHandler uses
     public static List<Guide> loadGuides() {
-        try {
-            String json = new String(Files.readAllBytes(Paths.get(GUIDES_FILE)));
-            Type listType = new TypeToken<List<Guide>>() {}.getType();
-            List<Guide> guides = gson.fromJson(json, listType);
-            return guides != null ? guides : new ArrayList<>();
-        } catch (IOException e) {
-            e.printStackTrace();
-            return new ArrayList<>();
-        }
+        return DataStore.getInstance().guides().getAll();
     }
 
     public static boolean saveGuides(List<Guide> guides) {
-        try {
-            String json = gson.toJson(guides);
-            Files.write(Paths.get(GUIDES_FILE), json.getBytes());
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return DataStore.getInstance().guides().save(guides);
     }
 
     public static boolean guideExists(String email) {
-        List<Guide> guides = loadGuides();
-        return guides.stream().anyMatch(guide -> guide.getEmail().equals(email));
+        return DataStore.getInstance().guides()
+                .findFirstBy(DataStore.BY_EMAIL, DataStore.emailKey(email)) != null;
     }
 
     public List<Guide> getGuides() {
@@ -109,15 +52,18 @@ public class JSONHandler {
 
     public static boolean addUser(User user) {
         try {
-            List<User> users = loadUsers();
-
-            // Check if user already exists
-            if (users.stream().anyMatch(u -> u.getEmail().equals(user.getEmail()))) {
-                return false; // User already exists
-            }
+            // Fails if a user with the same email (any case) already exists
+            return DataStore.getInstance().users().addIfAbsent(DataStore.BY_EMAIL, user);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-            users.add(user);
-            return saveUsers(users);
+    // All-or-nothing: adds none of them if any email is taken or repeated
+    public static boolean addUsers(List<User> users) {
+        try {
+            return DataStore.getInstance().users().addAllIfAbsent(DataStore.BY_EMAIL, users);
         } catch (Exception e) {
             e.printStackTrace();
             return false;
@@ -126,15 +72,18 @@ public class JSONHandler {
 
     public static boolean addGuide(Guide guide) {
         try {
-            List<Guide> guides = loadGuides();
-
-            // Check if guide already exists
-            if (guides.stream().anyMatch(g -> g.getEmail().equals(guide.getEmail()))) {
-                return false; // Guide already exists
-            }
+            // Fails if a guide with the same email (any case) already exists
+            return DataStore.getInstance().guides().addIfAbsent(DataStore.BY_EMAIL, guide);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-            guides.add(guide);
-            return saveGuides(guides);
+    // All-or-nothing, like addUsers
+    public static boolean addGuides(List<Guide> guides) {
+        try {
+            return DataStore.getInstance().guides().addAllIfAbsent(DataStore.BY_EMAIL, guides);
         } catch (Exception e) {
             e.printStackTrace();
             return false;
@@ -143,31 +92,28 @@ public class JSONHandler {
 
     public static boolean deleteGuide(String email) {
         try {
-            List<Guide> guides = loadGuides();
-            boolean removed = guides.removeIf(guide ->
-                    guide.getEmail().equalsIgnoreCase(email));
-
-            if (removed) {
-                return saveGuides(guides);
-            }
-            return false;
+            String key = DataStore.emailKey(email);
+            return DataStore.getInstance().guides()
+                    .removeIf(guide -> Objects.equals(DataStore.emailKey(guide.getEmail()), key));
         } catch (Exception e) {
             e.printStackTrace();
             return false;
         }
     }
 
+    // Also deletes the tourist's bookings, in one transaction
     public static boolean deleteUser(String email) {
         try {
-            List<User> users = loadUsers();
-            boolean removed = users.removeIf(user ->
-                    user.getEmail().equalsIgnoreCase(email) &&
-                            "user".equalsIgnoreCase(user.getUserType()));
-
-            if (removed) {
-                return saveUsers(users);
+            DataStore store = DataStore.getInstance();
+            User tourist = store.users().findFirstBy(DataStore.BY_EMAIL, DataStore.emailKey(email));
+            if (tourist == null || tourist.getType() != UserType.USER) {
+                return false;
             }
-            return false;
+            List<Booking> bookings = store.bookings().findBy(DataStore.BY_USER_EMAIL, DataStore.emailKey(email));
+            return store.begin()
+                    .delete(store.userRecords(), tourist)
+                    .deleteAll(store.bookingRecords(), bookings)
+                    .commit();
         } catch (Exception e) {
             e.printStackTrace();
             return false;
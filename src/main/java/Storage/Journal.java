@@ -0,0 +1,207 @@
+package Storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+// Append-only change log that sits next to an entity snapshot file.
+// Each line is one JSON object: {"op":"put","schemaVersion":v,"record":{...}} or
+// {"op":"delete","id":n}. Both operations are keyed by record id, so replaying the
+// same line twice is harmless. Records are upgraded through SchemaMigrations from
+// the version they were logged in; lines from before the version was noted are at
+// the version of the snapshot they sit next to. A line that can't be read is
+// skipped, and the rest of the journal still applies.
+// Lines are buffered in memory until flushPending() appends them in one fsynced write.
+class Journal<T> {
+    private static final String OP_PUT = "put";
+    private static final String OP_DELETE = "delete";
+
+    private final Path path;
+    private final Class<T> recordType;
+    private final ToIntFunction<T> idOf;
+    private final Gson gson;
+    private final SchemaMigrations.Schema schema;
+    private final long compactThreshold;
+
+    private final StringBuilder pendingLines = new StringBuilder();
+    private long knownLength = -1;
+    private long knownModified = -1;
+
+    Journal(String filename, Class<T> recordType, ToIntFunction<T> idOf, Gson gson, long compactThreshold) {
+        this.path = Paths.get(filename);
+        this.recordType = recordType;
+        this.idOf = idOf;
+        this.gson = gson;
+        this.schema = SchemaMigrations.of(recordType);
+        this.compactThreshold = compactThreshold;
+    }
+
+    String getFilename() {
+        return path.toString();
+    }
+
+    long length() {
+        File file = path.toFile();
+        return file.exists() ? file.length() : 0;
+    }
+
+    long lastModified() {
+        File file = path.toFile();
+        return file.exists() ? file.lastModified() : 0;
+    }
+
+    synchronized boolean needsCompaction() {
+        return length() + pendingLines.length() >= compactThreshold;
+    }
+
+    // True when someone other than this journal has written the file since we last touched it
+    synchronized boolean changedExternally() {
+        return length() != knownLength || lastModified() != knownModified;
+    }
+
+    synchronized void appendPut(T item) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("op", OP_PUT);
+        entry.addProperty(SchemaMigrations.VERSION_FIELD, schema.currentVersion());
+        entry.add("record", gson.toJsonTree(item, recordType));
+        append(entry);
+    }
+
+    synchronized void appendDelete(T item) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("op", OP_DELETE);
+        entry.addProperty("id", idOf.applyAsInt(item));
+        append(entry);
+    }
+
+    private void append(JsonObject entry) {
+        pendingLines.append(gson.toJson(entry)).append('\n');
+    }
+
+    // Writes all buffered lines with a single append + fsync; failed lines stay buffered for the next try
+    synchronized void flushPending() throws IOException {
+        if (pendingLines.length() == 0) {
+            return;
+        }
+        AtomicFiles.append(path, pendingLines.toString().getBytes(StandardCharsets.UTF_8));
+        pendingLines.setLength(0);
+        rememberState();
+    }
+
+    // Applies every logged change on top of the snapshot records and returns the result.
+    // snapshotVersion is the snapshot's SchemaMigrations version, or -1 if it has none.
+    synchronized List<T> replay(List<T> snapshot, int snapshotVersion) {
+        List<T> records = applyLog(snapshot, snapshotVersion);
+        rememberState();
+        return records;
+    }
+
+    // Same as replay, for partial snapshots (streamed query results); the journal is not
+    // marked as loaded because the owning store still has not seen it
+    synchronized List<T> replayDetached(List<T> snapshot, int snapshotVersion) {
+        return applyLog(snapshot, snapshotVersion);
+    }
+
+    private List<T> applyLog(List<T> snapshot, int snapshotVersion) {
+        if (!Files.exists(path)) {
+            return new ArrayList<>(snapshot);
+        }
+
+        List<T> records = new ArrayList<>(snapshot);
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            positions.put(idOf.applyAsInt(records.get(i)), i);
+        }
+
+        int legacyVersion = snapshotVersion >= 0 ? snapshotVersion : schema.currentVersion();
+        boolean hasDeletes = false;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                // A torn last line from an interrupted append, or a line missing its op,
+                // id or record: skip it, everything else is intact
+                try {
+                    JsonObject entry = JsonParser.parseString(line).getAsJsonObject();
+                    String op = entry.get("op").getAsString();
+                    if (OP_PUT.equals(op)) {
+                        int version = entry.has(SchemaMigrations.VERSION_FIELD)
+                                ? entry.get(SchemaMigrations.VERSION_FIELD).getAsInt() : legacyVersion;
+                        JsonObject raw = schema.upgrade(entry.getAsJsonObject("record"), version);
+                        T record = gson.fromJson(raw, recordType);
+                        int id = idOf.applyAsInt(record);
+                        Integer position = positions.get(id);
+                        if (position != null && records.get(position) != null) {
+                            records.set(position, record);
+                        } else {
+                            positions.put(id, records.size());
+                            records.add(record);
+                        }
+                    } else if (OP_DELETE.equals(op)) {
+                        Integer position = positions.remove(entry.get("id").getAsInt());
+                        if (position != null) {
+                            records.set(position, null);
+                            hasDeletes = true;
+                        }
+                    } else {
+                        System.err.println("Skipping line " + lineNumber + " of " + path + ": unknown op " + op);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping bad line " + lineNumber + " of " + path + ": " + e);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading journal " + path + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        if (hasDeletes) {
+            records.removeIf(record -> record == null);
+        }
+        return records;
+    }
+
+    // Drops everything up to the given byte offset, keeping entries appended after it
+    synchronized void dropPrefix(long offset) throws IOException {
+        if (!Files.exists(path)) {
+            rememberState();
+            return;
+        }
+        if (offset >= length()) {
+            Files.deleteIfExists(path);
+            rememberState();
+            return;
+        }
+
+        byte[] remaining;
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            file.seek(offset);
+            remaining = new byte[(int) (file.length() - offset)];
+            file.readFully(remaining);
+        }
+
+        AtomicFiles.write(path, remaining);
+        rememberState();
+    }
+
+    private void rememberState() {
+        knownLength = length();
+        knownModified = lastModified();
+    }
+}
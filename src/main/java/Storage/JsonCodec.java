@@ -0,0 +1,168 @@
+package Storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static Storage.SchemaMigrations.RECORDS_FIELD;
+import static Storage.SchemaMigrations.VERSION_FIELD;
+
+// JSON data files: a versioned wrapper around the array of records (see
+// SchemaMigrations). Data files are written compactly with DATA_GSON; exports use
+// the indented PRETTY_GSON. Bare arrays from older builds still read.
+class JsonCodec<T> implements StorageCodec<T> {
+    private final Class<T> recordType;
+    private final Type listType;
+    private final Gson gson;
+    private final SchemaMigrations.Schema schema;
+
+    JsonCodec(Class<T> recordType, Gson gson) {
+        this.recordType = recordType;
+        this.listType = TypeToken.getParameterized(List.class, recordType).getType();
+        this.gson = gson;
+        this.schema = SchemaMigrations.of(recordType);
+    }
+
+    @Override
+    public String getExtension() {
+        return ".json";
+    }
+
+    @Override
+    public List<T> read(Path file) throws IOException {
+        return read(file, () -> {});
+    }
+
+    // Records are upgraded one at a time as they are read, so an old file costs
+    // no more memory than a current one
+    @Override
+    public List<T> read(Path file, Runnable onOutdated) throws IOException {
+        List<T> items = new ArrayList<>();
+        try (JsonReader reader = gson.newJsonReader(
+                new BufferedReader(new FileReader(file.toFile(), StandardCharsets.UTF_8)))) {
+            JsonToken first;
+            try {
+                first = reader.peek();
+            } catch (EOFException e) {
+                return items; // Empty file, same as an empty array
+            }
+
+            int version = 0;
+            if (first == JsonToken.BEGIN_ARRAY) {
+                readRecords(reader, 0, items);
+            } else {
+                boolean versionSeen = false;
+                JsonArray recordsBeforeVersion = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (name.equals(VERSION_FIELD)) {
+                        version = checkVersion(reader.nextInt(), file);
+                        versionSeen = true;
+                    } else if (name.equals(RECORDS_FIELD) && versionSeen) {
+                        readRecords(reader, version, items);
+                    } else if (name.equals(RECORDS_FIELD)) {
+                        // Hand-edited file with the records first; hold them until the version is known
+                        recordsBeforeVersion = JsonParser.parseReader(reader).getAsJsonArray();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                if (recordsBeforeVersion != null) {
+                    for (JsonElement record : recordsBeforeVersion) {
+                        if (record.isJsonObject()) {
+                            items.add(gson.fromJson(schema.upgrade(record.getAsJsonObject(), version), recordType));
+                        }
+                    }
+                }
+            }
+
+            if (version < schema.currentVersion()) {
+                onOutdated.run();
+            }
+        }
+        return items;
+    }
+
+    private void readRecords(JsonReader reader, int version, List<T> items) throws IOException {
+        boolean current = version == schema.currentVersion();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else if (current) {
+                items.add(gson.fromJson(reader, recordType));
+            } else {
+                JsonElement record = JsonParser.parseReader(reader);
+                items.add(gson.fromJson(schema.upgrade(record.getAsJsonObject(), version), recordType));
+            }
+        }
+        reader.endArray();
+    }
+
+    // A file from a newer build would lose fields if read and saved again here
+    private int checkVersion(int version, Path file) throws IOException {
+        if (version > schema.currentVersion()) {
+            throw new IOException(file + " has schema version " + version
+                    + ", newer than the " + schema.currentVersion() + " this build understands");
+        }
+        return version;
+    }
+
+    @Override
+    public byte[] encode(List<T> items) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonWriter writer = gson.newJsonWriter(out)) {
+            writer.beginObject();
+            writer.name(VERSION_FIELD).value(schema.currentVersion());
+            writer.name(RECORDS_FIELD);
+            gson.toJson(items, listType, writer);
+            writer.endObject();
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int schemaVersion(Path file) throws IOException {
+        return StreamingQuery.schemaVersion(file.toString());
+    }
+
+    @Override
+    public int count(Path file) throws IOException {
+        return StreamingQuery.count(file.toString());
+    }
+
+    @Override
+    public <R> List<R> project(Path file, Projection<T, R> projection) throws IOException {
+        List<R> rows = new ArrayList<>();
+        for (String[] values : StreamingQuery.project(file.toString(), schema, projection.getFields())) {
+            rows.add(projection.fromFields(values));
+        }
+        return rows;
+    }
+
+    @Override
+    public boolean supportsStreaming() {
+        return true;
+    }
+
+    @Override
+    public List<T> select(Path file, String keyField, Predicate<String> keyTest) throws IOException {
+        return StreamingQuery.select(file.toString(), recordType, gson, schema, keyField, keyTest);
+    }
+}
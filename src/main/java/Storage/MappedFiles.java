@@ -0,0 +1,56 @@
+package Storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Read side of the binary data files. With read=mapped in data/storage.properties
+// (or -Dghumgham.storage.read=mapped) they are memory-mapped and decoded straight
+// from the mapping: the OS page cache backs repeated reloads and no heap copy of
+// the whole file is made. Small files are cheaper to read than to map, so they
+// always take the plain path. JSON files are always read through a plain reader,
+// since the parser needs decoded chars either way.
+//
+// Java can't unmap a buffer before the garbage collector frees it, and Windows
+// refuses to replace a file while a mapping of it is alive, which would break the
+// atomic rename every save relies on. Mapping is therefore never used on Windows.
+final class MappedFiles {
+    private static final long MIN_MAPPED_SIZE = 64 * 1024;
+    private static final boolean MAPPING_SAFE =
+            !System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+    private static boolean warned = false;
+
+    private MappedFiles() {}
+
+    // Whole file contents, mapped when enabled and worthwhile, otherwise read into the heap.
+    // The mapping stays valid after the file is replaced; readers see the old contents.
+    static ByteBuffer read(Path file) throws IOException {
+        if (shouldMap(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(file));
+    }
+
+    private static boolean shouldMap(Path file) throws IOException {
+        if (!StorageCodecs.mappedReads()) {
+            return false;
+        }
+        if (!MAPPING_SAFE) {
+            warnOnce();
+            return false;
+        }
+        return Files.size(file) >= MIN_MAPPED_SIZE;
+    }
+
+    private static synchronized void warnOnce() {
+        if (!warned) {
+            warned = true;
+            System.err.println("Ignoring read=mapped: mapped files can't be replaced on this platform");
+        }
+    }
+}
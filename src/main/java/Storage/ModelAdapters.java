@@ -0,0 +1,348 @@
+package Storage;
+
+import Models.Attraction;
+import Models.Booking;
+import Models.Emergency;
+import Models.Guide;
+import Models.Trek;
+import Models.User;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+// Hand-written Gson adapters for every persisted model. Reflective binding goes
+// through Field objects for each value; these read and write each field directly.
+// Dates stay ISO strings in the files and are converted once, here, to and from
+// the models' epoch-day / epoch-second fields. Field names and order are the ones reflection
+// produced, so existing files, journals and backup fingerprints stay valid.
+// Unknown fields are skipped. Add a field here when adding one to a model.
+final class ModelAdapters {
+
+    private ModelAdapters() {}
+
+    static GsonBuilder register(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(Trek.class, TREK.nullSafe())
+                .registerTypeAdapter(Attraction.class, ATTRACTION.nullSafe())
+                .registerTypeAdapter(Booking.class, BOOKING.nullSafe())
+                .registerTypeAdapter(Guide.class, GUIDE.nullSafe())
+                .registerTypeAdapter(User.class, USER.nullSafe())
+                .registerTypeAdapter(Emergency.class, EMERGENCY.nullSafe());
+    }
+
+    // yyyy-MM-dd straight from the characters; LocalDate.parse goes through the
+    // general formatter machinery and dominated the cost of reading a booking
+    static LocalDate parseDate(String text) {
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(text); // Anything unusual gets the strict parser and its error message
+    }
+
+    static long parseEpochDay(String text) {
+        return parseDate(text).toEpochDay();
+    }
+
+    static String formatEpochDay(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // ==================== TREK ====================
+
+    static final TypeAdapter<Trek> TREK = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Trek trek) throws IOException {
+            out.beginObject();
+            out.name("id").value(trek.getId());
+            out.name("trekName").value(trek.getTrekName());
+            out.name("duration").value(trek.getDuration());
+            out.name("startDateStr").value(trek.hasStartDate() ? formatEpochDay(trek.getStartEpochDay()) : null);
+            out.name("difficulty").value(trek.getDifficulty());
+            out.name("maxAltitude").value(trek.getMaxAltitude());
+            out.name("cost").value(trek.getCost());
+            out.name("bestSeason").value(trek.getBestSeason());
+            out.name("guideEmail").value(trek.getGuideEmail());
+            out.name("attractionId").value(trek.getAttractionId());
+            out.name("hasDiscount").value(trek.hasDiscount());
+            out.name("originalCost").value(trek.getOriginalCost());
+            out.name("discountPercent").value(trek.getDiscountPercent());
+            out.endObject();
+        }
+
+        @Override
+        public Trek read(JsonReader in) throws IOException {
+            Trek trek = new Trek();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id": trek.setId(in.nextInt()); break;
+                    case "trekName": trek.setTrekName(in.nextString()); break;
+                    case "duration": trek.setDuration(in.nextString()); break;
+                    case "startDateStr": trek.setStartEpochDay(parseEpochDay(in.nextString())); break;
+                    case "difficulty": trek.setDifficulty(in.nextString()); break;
+                    case "maxAltitude": trek.setMaxAltitude(in.nextInt()); break;
+                    case "cost": trek.setCost(in.nextDouble()); break;
+                    case "bestSeason": trek.setBestSeason(in.nextString()); break;
+                    case "guideEmail": trek.setGuideEmail(in.nextString()); break;
+                    case "attractionId": trek.setAttractionId(in.nextInt()); break;
+                    case "hasDiscount": trek.setHasDiscount(in.nextBoolean()); break;
+                    case "originalCost": trek.setOriginalCost(in.nextDouble()); break;
+                    case "discountPercent": trek.setDiscountPercent(in.nextDouble()); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return trek;
+        }
+    };
+
+    // ==================== ATTRACTION ====================
+
+    static final TypeAdapter<Attraction> ATTRACTION = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Attraction attraction) throws IOException {
+            out.beginObject();
+            out.name("id").value(attraction.getId());
+            out.name("name").value(attraction.getName());
+            out.name("location").value(attraction.getLocation());
+            out.name("difficulty").value(attraction.getDifficulty());
+            out.name("type").value(attraction.getType());
+            out.name("remarks").value(attraction.getRemarks());
+            out.endObject();
+        }
+
+        @Override
+        public Attraction read(JsonReader in) throws IOException {
+            Attraction attraction = new Attraction();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id": attraction.setId(in.nextInt()); break;
+                    case "name": attraction.setName(in.nextString()); break;
+                    case "location": attraction.setLocation(in.nextString()); break;
+                    case "difficulty": attraction.setDifficulty(in.nextString()); break;
+                    case "type": attraction.setType(in.nextString()); break;
+                    case "remarks": attraction.setRemarks(in.nextString()); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return attraction;
+        }
+    };
+
+    // ==================== BOOKING ====================
+
+    static final TypeAdapter<Booking> BOOKING = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Booking booking) throws IOException {
+            out.beginObject();
+            out.name("id").value(booking.getId());
+            out.name("bookingId").value(booking.getBookingId());
+            out.name("trekId").value(booking.getTrekId());
+            out.name("userEmail").value(booking.getUserEmail());
+            out.name("guideEmail").value(booking.getGuideEmail());
+            out.name("trekStartDateStr").value(booking.hasTrekStartDate()
+                    ? formatEpochDay(booking.getTrekStartEpochDay()) : null);
+            out.endObject();
+        }
+
+        @Override
+        public Booking read(JsonReader in) throws IOException {
+            Booking booking = new Booking();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id": booking.setId(in.nextInt()); break;
+                    case "bookingId": booking.setBookingId(in.nextString()); break;
+                    case "trekId": booking.setTrekId(in.nextInt()); break;
+                    case "userEmail": booking.setUserEmail(in.nextString()); break;
+                    case "guideEmail": booking.setGuideEmail(in.nextString()); break;
+                    case "trekStartDateStr": booking.setTrekStartEpochDay(parseEpochDay(in.nextString())); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return booking;
+        }
+    };
+
+    // ==================== USERS AND GUIDES ====================
+
+    static final TypeAdapter<User> USER = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, User user) throws IOException {
+            out.beginObject();
+            writeUserFields(out, user);
+            out.endObject();
+        }
+
+        @Override
+        public User read(JsonReader in) throws IOException {
+            User user = new User();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (!readUserField(in, name, user)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return user;
+        }
+    };
+
+    // Reflection wrote the subclass fields first, then User's
+    static final TypeAdapter<Guide> GUIDE = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Guide guide) throws IOException {
+            out.beginObject();
+            out.name("proficiencyLanguage").value(guide.getProficiencyLanguage());
+            out.name("experience").value(guide.getExperience());
+            writeUserFields(out, guide);
+            out.endObject();
+        }
+
+        @Override
+        public Guide read(JsonReader in) throws IOException {
+            Guide guide = new Guide();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "proficiencyLanguage": guide.setProficiencyLanguage(in.nextString()); break;
+                    case "experience": guide.setExperience(in.nextString()); break;
+                    default:
+                        if (!readUserField(in, name, guide)) {
+                            in.skipValue();
+                        }
+                }
+            }
+            in.endObject();
+            return guide;
+        }
+    };
+
+    private static void writeUserFields(JsonWriter out, User user) throws IOException {
+        out.name("id").value(user.getId());
+        out.name("firstName").value(user.getFirstName());
+        out.name("lastName").value(user.getLastName());
+        out.name("email").value(user.getEmail());
+        out.name("phone").value(user.getPhone());
+        out.name("password").value(user.getPassword());
+        out.name("userType").value(user.getUserType());
+        out.name("nationality").value(user.getNationality());
+    }
+
+    // False if the name isn't a User field, so the caller can try its own or skip it
+    private static boolean readUserField(JsonReader in, String name, User user) throws IOException {
+        switch (name) {
+            case "id": user.setId(in.nextString()); return true;
+            case "firstName": user.setFirstName(in.nextString()); return true;
+            case "lastName": user.setLastName(in.nextString()); return true;
+            case "email": user.setEmail(in.nextString()); return true;
+            case "phone": user.setPhone(in.nextString()); return true;
+            case "password": user.setPassword(in.nextString()); return true;
+            case "userType": user.setUserType(in.nextString()); return true;
+            case "nationality": user.setNationality(in.nextString()); return true;
+            default: return false;
+        }
+    }
+
+    // ==================== EMERGENCY ====================
+
+    static final TypeAdapter<Emergency> EMERGENCY = new TypeAdapter<>() {
+        @Override
+        public void write(JsonWriter out, Emergency emergency) throws IOException {
+            out.beginObject();
+            out.name("id").value(emergency.getId());
+            out.name("guideName").value(emergency.getGuideName());
+            out.name("guideEmail").value(emergency.getGuideEmail());
+            out.name("emergencyType").value(emergency.getEmergencyType());
+            out.name("description").value(emergency.getDescription());
+            out.name("location").value(emergency.getLocation());
+            out.name("severity").value(emergency.getSeverity());
+            out.name("status").value(emergency.getStatus());
+            out.name("reportedAtStr").value(emergency.getReportedAtStr());
+            out.name("resolvedAtStr").value(emergency.getResolvedAtStr());
+            out.name("contactNumber").value(emergency.getContactNumber());
+            out.name("additionalNotes").value(emergency.getAdditionalNotes());
+            out.endObject();
+        }
+
+        @Override
+        public Emergency read(JsonReader in) throws IOException {
+            Emergency emergency = new Emergency();
+            // The constructor stamps "now"; a stored record only has the time it was reported
+            emergency.setReportedAtEpochSecond(Emergency.NO_TIME);
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "id": emergency.setId(in.nextInt()); break;
+                    case "guideName": emergency.setGuideName(in.nextString()); break;
+                    case "guideEmail": emergency.setGuideEmail(in.nextString()); break;
+                    case "emergencyType": emergency.setEmergencyType(in.nextString()); break;
+                    case "description": emergency.setDescription(in.nextString()); break;
+                    case "location": emergency.setLocation(in.nextString()); break;
+                    case "severity": emergency.setSeverity(in.nextString()); break;
+                    case "status": emergency.setStatus(in.nextString()); break;
+                    case "reportedAtStr": emergency.setReportedAtStr(in.nextString()); break;
+                    case "resolvedAtStr": emergency.setResolvedAtStr(in.nextString()); break;
+                    case "contactNumber": emergency.setContactNumber(in.nextString()); break;
+                    case "additionalNotes": emergency.setAdditionalNotes(in.nextString()); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return emergency;
+        }
+    };
+}
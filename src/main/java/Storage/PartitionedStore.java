@@ -0,0 +1,502 @@
+package Storage;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// Splits one entity type into per-month EntityStores under a directory
+// (data/bookings/2026-10.json, data/bookings/undated.json, ...), keyed on a
+// date of the record. Each partition has its own journal, indexes and commit
+// lock. A small manifest (manifest.properties) lists the partitions with their
+// record count and id range, so range queries open only the months they cover,
+// id lookups open only the partitions whose range contains the id, and
+// partitions nobody asks for are never read. The manifest is written behind the
+// partitions, so it is treated as a hint: id lookups fall back to the other
+// partitions, and reconcile() picks up partition files it doesn't list yet.
+class PartitionedStore<T> {
+    static final String UNDATED = "undated";
+    private static final String MANIFEST_FILE = "manifest.properties";
+
+    // What the manifest knows about one partition
+    private static class Entry {
+        private int count;
+        private int minId;
+        private int maxId;
+
+        Entry(int count, int minId, int maxId) {
+            this.count = count;
+            this.minId = minId;
+            this.maxId = maxId;
+        }
+
+        boolean mayContain(int id) {
+            return count > 0 && id >= minId && id <= maxId;
+        }
+
+        // Folds another entry into this one: counts add, the id range only ever widens
+        void merge(Entry other) {
+            count += other.count;
+            if (other.minId > 0) {
+                minId = minId > 0 ? Math.min(minId, other.minId) : other.minId;
+            }
+            maxId = Math.max(maxId, other.maxId);
+        }
+
+        String format() {
+            return count + "," + minId + "," + maxId;
+        }
+
+        static Entry parse(String value) {
+            String[] parts = value.split(",");
+            return new Entry(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                    Integer.parseInt(parts[2].trim()));
+        }
+    }
+
+    private final String directory;
+    private final Function<T, YearMonth> monthOf;
+    private final ToIntFunction<T> idOf;
+    private final Function<String, EntityStore<T>> openPartition;
+    private final Path manifestPath;
+    private final CommitLock manifestLock;
+
+    // Partition name ("2026-10" or "undated") -> entry; TreeMap keeps months in order
+    private final Map<String, Entry> manifest = new TreeMap<>();
+    // Count and id-range changes not yet in the manifest file
+    private Map<String, Entry> manifestChanges = new HashMap<>();
+    private long manifestModified = -1;
+    private final Map<String, EntityStore<T>> partitions = new HashMap<>();
+
+    // openPartition builds the store for a base path without extension, e.g. "data/bookings/2026-10"
+    PartitionedStore(String directory, Function<T, YearMonth> monthOf, ToIntFunction<T> idOf,
+                     Function<String, EntityStore<T>> openPartition) {
+        this.directory = directory;
+        this.monthOf = monthOf;
+        this.idOf = idOf;
+        this.openPartition = openPartition;
+        this.manifestPath = Paths.get(directory, MANIFEST_FILE);
+        this.manifestLock = CommitLock.forFile(manifestPath.toString());
+        new File(directory).mkdirs();
+    }
+
+    // ==================== READS ====================
+
+    synchronized List<T> getAll() {
+        List<T> all = new ArrayList<>();
+        for (String name : partitionNames()) {
+            all.addAll(partition(name).getAll());
+        }
+        return all;
+    }
+
+    // Every partition's cached records without copying them (see EntityStore.getAllSharedOrFail)
+    synchronized List<T> getAllSharedOrFail() throws IOException {
+        List<T> all = new ArrayList<>();
+        for (String name : partitionNames()) {
+            all.addAll(partition(name).getAllSharedOrFail());
+        }
+        return all;
+    }
+
+    // Records dated from..to (inclusive, null = open-ended); undated records are left out
+    synchronized List<T> getBetween(YearMonth from, YearMonth to) {
+        List<T> matches = new ArrayList<>();
+        for (String name : partitionsBetween(from, to)) {
+            matches.addAll(partition(name).getAll());
+        }
+        return matches;
+    }
+
+    synchronized List<T> findBy(String indexName, Object key) {
+        List<T> matches = new ArrayList<>();
+        for (String name : partitionNames()) {
+            matches.addAll(partition(name).findBy(indexName, key));
+        }
+        return matches;
+    }
+
+    synchronized List<T> findBy(String indexName, Object key, YearMonth from, YearMonth to) {
+        List<T> matches = new ArrayList<>();
+        for (String name : partitionsBetween(from, to)) {
+            matches.addAll(partition(name).findBy(indexName, key));
+        }
+        return matches;
+    }
+
+    synchronized T findById(String idIndex, int id) {
+        for (String name : partitionsByIdRange(id)) {
+            T match = partition(name).findFirstBy(idIndex, id);
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    // Like findById, but fails instead of answering null when a partition can't be read
+    synchronized T findByIdOrFail(String idIndex, int id) throws IOException {
+        for (String name : partitionsByIdRange(id)) {
+            T match = partition(name).findFirstByOrFail(idIndex, id);
+            if (match != null) {
+                return match;
+            }
+        }
+        return null;
+    }
+
+    // Highest id stored (seeds the id sequence). Taken from the manifest, except for
+    // partitions whose files changed after it was written: the manifest is written
+    // behind the partitions, so after a crash it can lag them, and those partitions
+    // are read instead.
+    synchronized int maxId() {
+        refreshManifest();
+        Set<String> changed = partitionsChangedSince(manifestPath.toFile().lastModified());
+        int max = 0;
+        for (Map.Entry<String, Entry> entry : manifest.entrySet()) {
+            if (!changed.contains(entry.getKey())) {
+                max = Math.max(max, entry.getValue().maxId);
+            }
+        }
+        for (String name : changed) {
+            max = Math.max(max, partition(name).maxOf(idOf));
+        }
+        return max;
+    }
+
+    // ==================== WRITES ====================
+
+    boolean add(T item) {
+        String name = partitionNameOf(item);
+        EntityStore<T> store;
+        synchronized (this) {
+            store = partition(name);
+        }
+        if (!store.add(item)) {
+            return false;
+        }
+        recordChange(name, 1, idOf.applyAsInt(item));
+        return true;
+    }
+
+    // Each month's records go to its partition in one staged change
+    boolean addAll(List<T> newItems) {
+        Map<String, List<T>> grouped = new TreeMap<>();
+        for (T item : newItems) {
+            grouped.computeIfAbsent(partitionNameOf(item), name -> new ArrayList<>()).add(item);
+        }
+        boolean added = true;
+        for (Map.Entry<String, List<T>> group : grouped.entrySet()) {
+            EntityStore<T> store;
+            synchronized (this) {
+                store = partition(group.getKey());
+            }
+            if (store.addAll(group.getValue())) {
+                recordChange(group.getKey(), summarize(group.getValue()));
+            } else {
+                added = false;
+            }
+        }
+        return added;
+    }
+
+    boolean removeById(String idIndex, int id) {
+        List<String> candidates;
+        synchronized (this) {
+            candidates = partitionsByIdRange(id);
+        }
+        for (String name : candidates) {
+            EntityStore<T> store;
+            synchronized (this) {
+                store = partition(name);
+            }
+            if (store.findFirstBy(idIndex, id) != null && store.removeIf(item -> idOf.applyAsInt(item) == id)) {
+                recordChange(name, -1, 0);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Replaces everything (used by imports): records are regrouped by month
+    boolean save(List<T> newItems) {
+        Map<String, List<T>> grouped = new TreeMap<>();
+        for (T item : newItems) {
+            grouped.computeIfAbsent(partitionNameOf(item), name -> new ArrayList<>()).add(item);
+        }
+        List<String> names;
+        synchronized (this) {
+            names = new ArrayList<>(partitionNames());
+        }
+        for (String name : names) {
+            grouped.putIfAbsent(name, new ArrayList<>());
+        }
+
+        boolean saved = true;
+        for (Map.Entry<String, List<T>> group : grouped.entrySet()) {
+            EntityStore<T> store;
+            int oldCount;
+            synchronized (this) {
+                store = partition(group.getKey());
+                oldCount = store.count();
+            }
+            saved &= store.save(group.getValue());
+            int maxId = group.getValue().stream().mapToInt(idOf).max().orElse(0);
+            recordChange(group.getKey(), group.getValue().size() - oldCount, maxId);
+        }
+        return saved;
+    }
+
+    synchronized void invalidate() {
+        manifestModified = -1;
+        for (EntityStore<T> store : partitions.values()) {
+            store.invalidate();
+        }
+    }
+
+    // ==================== PARTITIONS ====================
+
+    private String partitionNameOf(T item) {
+        YearMonth month = monthOf.apply(item);
+        return month != null ? month.toString() : UNDATED;
+    }
+
+    private EntityStore<T> partition(String name) {
+        return partitions.computeIfAbsent(name, n -> openPartition.apply(directory + "/" + n));
+    }
+
+    private List<String> partitionNames() {
+        refreshManifest();
+        return new ArrayList<>(manifest.keySet());
+    }
+
+    private List<String> partitionsBetween(YearMonth from, YearMonth to) {
+        List<String> names = new ArrayList<>();
+        for (String name : partitionNames()) {
+            if (UNDATED.equals(name)) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(name);
+            if ((from == null || !month.isBefore(from)) && (to == null || !month.isAfter(to))) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    // Partitions whose id range covers the id first, then the rest in case the manifest lags
+    private List<String> partitionsByIdRange(int id) {
+        refreshManifest();
+        List<String> likely = new ArrayList<>();
+        List<String> others = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : manifest.entrySet()) {
+            (entry.getValue().mayContain(id) ? likely : others).add(entry.getKey());
+        }
+        likely.addAll(others);
+        return likely;
+    }
+
+    // Partitions with a data or journal file modified at or after the given time,
+    // including ones the manifest doesn't list (0 = no manifest: every partition)
+    private Set<String> partitionsChangedSince(long time) {
+        Set<String> names = new TreeSet<>();
+        File[] files = new File(directory).listFiles((dir, name) -> !name.equals(MANIFEST_FILE)
+                && !name.endsWith(".lock") && !name.endsWith(".migrated"));
+        if (files == null) {
+            return names;
+        }
+        for (File file : files) {
+            int dot = file.getName().indexOf('.');
+            String name = dot > 0 ? file.getName().substring(0, dot) : file.getName();
+            if (isPartitionName(name) && file.lastModified() >= time) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    // ==================== MANIFEST ====================
+
+    private void recordChange(String name, int countDelta, int id) {
+        recordChange(name, new Entry(countDelta, id, id));
+    }
+
+    private void recordChange(String name, Entry change) {
+        synchronized (this) {
+            manifestChanges.computeIfAbsent(name, n -> new Entry(0, 0, 0)).merge(change);
+            manifest.computeIfAbsent(name, n -> new Entry(0, 0, 0)).merge(change);
+        }
+        GroupCommitWriter.getInstance().submit(manifestPath.toString(), this::writeManifest);
+    }
+
+    // Re-reads the manifest under its lock and applies our changes on top, so partitions
+    // added by another instance are kept
+    private void writeManifest() throws IOException {
+        manifestLock.commit(versionOnDisk -> {
+            Map<String, Entry> changes;
+            synchronized (this) {
+                changes = manifestChanges;
+                manifestChanges = new HashMap<>();
+            }
+
+            Map<String, Entry> merged = readManifest();
+            for (Map.Entry<String, Entry> change : changes.entrySet()) {
+                merged.computeIfAbsent(change.getKey(), n -> new Entry(0, 0, 0)).merge(change.getValue());
+            }
+            try {
+                AtomicFiles.write(manifestPath, formatManifest(merged));
+            } catch (IOException e) {
+                synchronized (this) {
+                    // Keep the changes for the retry
+                    for (Map.Entry<String, Entry> change : changes.entrySet()) {
+                        manifestChanges.computeIfAbsent(change.getKey(), n -> new Entry(0, 0, 0)).merge(change.getValue());
+                    }
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                manifest.clear();
+                manifest.putAll(merged);
+                for (Map.Entry<String, Entry> pending : manifestChanges.entrySet()) {
+                    manifest.computeIfAbsent(pending.getKey(), n -> new Entry(0, 0, 0)).merge(pending.getValue());
+                }
+                manifestModified = manifestPath.toFile().lastModified();
+            }
+            return null;
+        });
+    }
+
+    private void refreshManifest() {
+        long modified = manifestPath.toFile().lastModified();
+        if (modified == manifestModified) {
+            return;
+        }
+        manifest.clear();
+        manifest.putAll(readManifest());
+        for (Map.Entry<String, Entry> pending : manifestChanges.entrySet()) {
+            manifest.computeIfAbsent(pending.getKey(), n -> new Entry(0, 0, 0)).merge(pending.getValue());
+        }
+        manifestModified = modified;
+    }
+
+    private Map<String, Entry> readManifest() {
+        Map<String, Entry> entries = new TreeMap<>();
+        if (!Files.exists(manifestPath)) {
+            return entries;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            System.err.println("Error reading " + manifestPath + ": " + e.getMessage());
+            e.printStackTrace();
+            return entries;
+        }
+        for (String name : properties.stringPropertyNames()) {
+            try {
+                entries.put(name, Entry.parse(properties.getProperty(name)));
+            } catch (RuntimeException e) {
+                System.err.println("Ignoring bad manifest entry " + name + " in " + manifestPath);
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] formatManifest(Map<String, Entry> entries) {
+        StringBuilder text = new StringBuilder("# partition=record count,lowest id,highest id\n");
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            text.append(entry.getKey()).append('=').append(entry.getValue().format()).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    boolean hasManifest() {
+        return Files.exists(manifestPath);
+    }
+
+    // Adds partition files the manifest doesn't list yet (e.g. after a crash between
+    // writing a new partition and writing the manifest)
+    void reconcile(String extension) {
+        File[] files = new File(directory).listFiles((dir, name) -> name.endsWith(extension));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName().substring(0, file.getName().length() - extension.length());
+            if (!isPartitionName(name)) {
+                continue;
+            }
+            EntityStore<T> store;
+            synchronized (this) {
+                refreshManifest();
+                if (manifest.containsKey(name)) {
+                    continue;
+                }
+                store = partition(name);
+            }
+            recordChange(name, summarize(store.getAll()));
+        }
+    }
+
+    private Entry summarize(List<T> items) {
+        Entry entry = new Entry(0, 0, 0);
+        for (T item : items) {
+            int id = idOf.applyAsInt(item);
+            entry.merge(new Entry(1, id, id));
+        }
+        return entry;
+    }
+
+    private static boolean isPartitionName(String name) {
+        return UNDATED.equals(name) || name.matches("\\d{4}-\\d{2}");
+    }
+
+    // One-time split of an existing single-file store into partitions, done under the
+    // manifest lock so only one instance migrates
+    void migrateFrom(EntityStore<T> legacy, List<Path> legacyFiles) {
+        try {
+            manifestLock.commit(versionOnDisk -> {
+                if (hasManifest()) {
+                    return null; // another instance got there first
+                }
+                Map<String, Entry> entries = new TreeMap<>();
+                Map<String, List<T>> grouped = new TreeMap<>();
+                for (T item : legacy.getAllOrFail()) {
+                    grouped.computeIfAbsent(partitionNameOf(item), name -> new ArrayList<>()).add(item);
+                }
+                for (Map.Entry<String, List<T>> group : grouped.entrySet()) {
+                    EntityStore<T> store;
+                    synchronized (this) {
+                        store = partition(group.getKey());
+                    }
+                    store.writeNow(group.getValue());
+                    entries.put(group.getKey(), summarize(group.getValue()));
+                }
+                AtomicFiles.write(manifestPath, formatManifest(entries));
+
+                for (Path file : legacyFiles) {
+                    if (Files.exists(file)) {
+                        Files.move(file, file.resolveSibling(file.getFileName() + ".migrated"));
+                    }
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            System.err.println("Error partitioning " + legacy.getFilename() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
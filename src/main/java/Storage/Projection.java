@@ -0,0 +1,30 @@
+package Storage;
+
+import java.util.function.Function;
+
+// A few fields of each record instead of the whole object, e.g. id and name for
+// a combo box. A JSON file is streamed and only the named fields are decoded
+// (fromFields gets their text, in the order given); binary files and stores
+// already in memory map whole records with fromRecord instead. Both must build
+// the same result.
+final class Projection<T, R> {
+    private final String[] fields;
+    private final Function<String[], R> fromFields;
+    private final Function<T, R> fromRecord;
+
+    Projection(String[] fields, Function<String[], R> fromFields, Function<T, R> fromRecord) {
+        this.fields = fields;
+        this.fromFields = fromFields;
+        this.fromRecord = fromRecord;
+    }
+
+    String[] getFields() { return fields; }
+
+    R fromFields(String[] values) {
+        return fromFields.apply(values);
+    }
+
+    R fromRecord(T record) {
+        return fromRecord.apply(record);
+    }
+}
@@ -0,0 +1,313 @@
+package Storage;
+
+import Models.Attraction;
+import Models.Booking;
+import Models.Emergency;
+import Models.Guide;
+import Models.Trek;
+import Models.User;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wraps whichever backend Repositories picked and publishes a ChangeEvent on
+// the ChangeBus after every successful write. Reads pass straight through.
+class PublishingRepository implements TrekRepository, AttractionRepository, BookingRepository,
+        GuideRepository, EmergencyRepository, UserRepository {
+    private final TrekRepository treks;
+    private final AttractionRepository attractions;
+    private final BookingRepository bookings;
+    private final GuideRepository guides;
+    private final EmergencyRepository emergencies;
+    private final UserRepository users;
+    private final ChangeBus bus = ChangeBus.getInstance();
+
+    // Last status seen per emergency id, so an update can tell whether the status
+    // changed without reading the old record back from the backend.
+    private final Map<Integer, String> emergencyStatuses = new ConcurrentHashMap<>();
+
+    <B extends TrekRepository & AttractionRepository & BookingRepository & GuideRepository
+            & EmergencyRepository & UserRepository> PublishingRepository(B backend) {
+        this.treks = backend;
+        this.attractions = backend;
+        this.bookings = backend;
+        this.guides = backend;
+        this.emergencies = backend;
+        this.users = backend;
+    }
+
+    // ==================== TREK METHODS ====================
+
+    @Override
+    public List<Trek> loadTreks() {
+        return treks.loadTreks();
+    }
+
+    @Override
+    public Trek getTrekById(int id) {
+        return treks.getTrekById(id);
+    }
+
+    @Override
+    public List<Trek> getTreksByGuideEmail(String guideEmail) {
+        return treks.getTreksByGuideEmail(guideEmail);
+    }
+
+    @Override
+    public boolean addTrek(Trek trek) {
+        return published(treks.addTrek(trek), new ChangeEvent.TrekAdded(trek));
+    }
+
+    @Override
+    public boolean addTreks(List<Trek> newTreks) {
+        return published(treks.addTreks(newTreks), new ChangeEvent.RecordsImported(Trek.class, newTreks.size()));
+    }
+
+    @Override
+    public boolean updateTrek(Trek updatedTrek) {
+        return published(treks.updateTrek(updatedTrek), new ChangeEvent.TrekUpdated(updatedTrek));
+    }
+
+    @Override
+    public boolean deleteTrek(int trekId) {
+        List<Booking> cascaded = bookings.getBookingsByTrekId(trekId);
+        if (!published(treks.deleteTrek(trekId), new ChangeEvent.TrekDeleted(trekId))) {
+            return false;
+        }
+        publishBookingsDeleted(cascaded);
+        return true;
+    }
+
+    // ==================== ATTRACTION METHODS ====================
+
+    @Override
+    public List<Attraction> loadAttractions() {
+        return attractions.loadAttractions();
+    }
+
+    @Override
+    public Attraction getAttractionById(int id) {
+        return attractions.getAttractionById(id);
+    }
+
+    @Override
+    public int countAttractions() {
+        return attractions.countAttractions();
+    }
+
+    @Override
+    public Map<Integer, String> loadAttractionNames() {
+        return attractions.loadAttractionNames();
+    }
+
+    @Override
+    public boolean addAttraction(Attraction attraction) {
+        return published(attractions.addAttraction(attraction), new ChangeEvent.AttractionAdded(attraction));
+    }
+
+    @Override
+    public boolean addAttractions(List<Attraction> newAttractions) {
+        return published(attractions.addAttractions(newAttractions),
+                new ChangeEvent.RecordsImported(Attraction.class, newAttractions.size()));
+    }
+
+    @Override
+    public boolean deleteAttraction(int attractionId) {
+        return published(attractions.deleteAttraction(attractionId), new ChangeEvent.AttractionDeleted(attractionId));
+    }
+
+    // ==================== BOOKING METHODS ====================
+
+    @Override
+    public List<Booking> loadBookings() {
+        return bookings.loadBookings();
+    }
+
+    @Override
+    public boolean addBooking(Booking booking) {
+        return published(bookings.addBooking(booking), new ChangeEvent.BookingAdded(booking));
+    }
+
+    @Override
+    public boolean addBookings(List<Booking> newBookings) {
+        return published(bookings.addBookings(newBookings),
+                new ChangeEvent.RecordsImported(Booking.class, newBookings.size()));
+    }
+
+    @Override
+    public List<Booking> getBookingsByUserEmail(String userEmail) {
+        return bookings.getBookingsByUserEmail(userEmail);
+    }
+
+    @Override
+    public List<Booking> getBookingsByTrekId(int trekId) {
+        return bookings.getBookingsByTrekId(trekId);
+    }
+
+    @Override
+    public List<Booking> getBookingsBetween(LocalDate from, LocalDate to) {
+        return bookings.getBookingsBetween(from, to);
+    }
+
+    @Override
+    public List<Booking> getBookingsByUserEmail(String userEmail, LocalDate from, LocalDate to) {
+        return bookings.getBookingsByUserEmail(userEmail, from, to);
+    }
+
+    @Override
+    public boolean deleteBooking(int bookingId) {
+        return published(bookings.deleteBooking(bookingId), new ChangeEvent.BookingDeleted(bookingId));
+    }
+
+    // ==================== GUIDE METHODS ====================
+
+    @Override
+    public List<Guide> loadGuides() {
+        return guides.loadGuides();
+    }
+
+    @Override
+    public Guide getGuideByEmail(String email) {
+        return guides.getGuideByEmail(email);
+    }
+
+    @Override
+    public boolean guideExists(String email) {
+        return guides.guideExists(email);
+    }
+
+    @Override
+    public int countGuides() {
+        return guides.countGuides();
+    }
+
+    @Override
+    public Map<String, String> loadGuideNames() {
+        return guides.loadGuideNames();
+    }
+
+    @Override
+    public boolean addGuide(Guide guide) {
+        return published(guides.addGuide(guide), new ChangeEvent.GuideAdded(guide));
+    }
+
+    @Override
+    public boolean addGuides(List<Guide> newGuides) {
+        return published(guides.addGuides(newGuides), new ChangeEvent.RecordsImported(Guide.class, newGuides.size()));
+    }
+
+    @Override
+    public boolean deleteGuide(String email) {
+        return published(guides.deleteGuide(email), new ChangeEvent.GuideDeleted(email));
+    }
+
+    // ==================== EMERGENCY METHODS ====================
+
+    @Override
+    public List<Emergency> loadEmergencies() {
+        return rememberStatuses(emergencies.loadEmergencies());
+    }
+
+    @Override
+    public int countEmergencies() {
+        return emergencies.countEmergencies();
+    }
+
+    @Override
+    public boolean addEmergency(Emergency emergency) {
+        if (!emergencies.addEmergency(emergency)) {
+            return false;
+        }
+        rememberStatus(emergency);
+        bus.publish(new ChangeEvent.EmergencyAdded(emergency));
+        return true;
+    }
+
+    @Override
+    public boolean updateEmergency(Emergency updatedEmergency) {
+        if (!emergencies.updateEmergency(updatedEmergency)) {
+            return false;
+        }
+        String previousStatus = emergencyStatuses.get(updatedEmergency.getId());
+        rememberStatus(updatedEmergency);
+        bus.publish(new ChangeEvent.EmergencyUpdated(updatedEmergency));
+        if (!Objects.equals(previousStatus, updatedEmergency.getStatus())) {
+            bus.publish(new ChangeEvent.EmergencyStatusChanged(updatedEmergency, previousStatus));
+        }
+        return true;
+    }
+
+    @Override
+    public List<Emergency> getEmergenciesByGuideEmail(String guideEmail) {
+        return rememberStatuses(emergencies.getEmergenciesByGuideEmail(guideEmail));
+    }
+
+    private List<Emergency> rememberStatuses(List<Emergency> loaded) {
+        for (Emergency emergency : loaded) {
+            rememberStatus(emergency);
+        }
+        return loaded;
+    }
+
+    private void rememberStatus(Emergency emergency) {
+        if (emergency.getStatus() != null) {
+            emergencyStatuses.put(emergency.getId(), emergency.getStatus());
+        } else {
+            emergencyStatuses.remove(emergency.getId());
+        }
+    }
+
+    // ==================== USER METHODS ====================
+
+    @Override
+    public List<User> loadUsers() {
+        return users.loadUsers();
+    }
+
+    @Override
+    public boolean userExists(String email) {
+        return users.userExists(email);
+    }
+
+    @Override
+    public int countUsers() {
+        return users.countUsers();
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        return published(users.addUser(user), new ChangeEvent.UserAdded(user));
+    }
+
+    @Override
+    public boolean addUsers(List<User> newUsers) {
+        return published(users.addUsers(newUsers), new ChangeEvent.RecordsImported(User.class, newUsers.size()));
+    }
+
+    @Override
+    public boolean deleteUser(String email) {
+        List<Booking> cascaded = bookings.getBookingsByUserEmail(email);
+        if (!published(users.deleteUser(email), new ChangeEvent.UserDeleted(email))) {
+            return false;
+        }
+        publishBookingsDeleted(cascaded);
+        return true;
+    }
+
+    // Bookings removed together with their trek or tourist
+    private void publishBookingsDeleted(List<Booking> cascaded) {
+        for (Booking booking : cascaded) {
+            bus.publish(new ChangeEvent.BookingDeleted(booking.getId()));
+        }
+    }
+
+    private boolean published(boolean succeeded, ChangeEvent event) {
+        if (succeeded) {
+            bus.publish(event);
+        }
+        return succeeded;
+    }
+}
@@ -0,0 +1,71 @@
+package Storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Field-by-field binary layout of one model class, used by BinaryCodec.
+// Bump getSchemaVersion() when fields change and keep read() able to decode
+// every older version it may meet on disk.
+interface RecordFormat<T> {
+
+    String getRecordType();
+
+    int getSchemaVersion();
+
+    void write(DataOutput out, T item) throws IOException;
+
+    // Reads from a buffer limited to exactly one record's payload
+    T read(ByteBuffer in, int schemaVersion) throws IOException;
+
+    // A detached record with the same fields (the model's copy constructor). Reads from
+    // the storage cache hand these out, so this has to stay a plain field copy.
+    T copy(T item);
+
+    // True when both would be stored the same way (used when saving, not on reads)
+    default boolean sameContents(T first, T second) {
+        return first == second || Arrays.equals(toBytes(first), toBytes(second));
+    }
+
+    private byte[] toBytes(T item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try {
+            write(new DataOutputStream(bytes), item);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error encoding a " + getRecordType() + " record", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Nullable UTF-8 string: length -1 means null (writeUTF can't do null or > 64 KB)
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (!in.hasArray()) {
+            // Mapped buffer: copy just this field's bytes
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,279 @@
+package Storage;
+
+import Models.Attraction;
+import Models.Booking;
+import Models.Emergency;
+import Models.Guide;
+import Models.Trek;
+import Models.User;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static Storage.RecordFormat.readString;
+import static Storage.RecordFormat.writeString;
+
+// Binary layouts for every persisted model. Treks are at schema version 3
+// (epoch-day date, prices in minor units), emergencies at version 2 (epoch-second
+// dates), the rest at version 1.
+final class RecordFormats {
+
+    private RecordFormats() {}
+
+    static final RecordFormat<Trek> TREK = new RecordFormat<>() {
+        @Override
+        public String getRecordType() { return "Trek"; }
+
+        @Override
+        public Trek copy(Trek trek) { return new Trek(trek); }
+
+        // 2: start date as epoch day instead of an ISO string
+        // 3: prices as minor units and the discount as basis points instead of doubles
+        @Override
+        public int getSchemaVersion() { return 3; }
+
+        @Override
+        public void write(DataOutput out, Trek trek) throws IOException {
+            out.writeInt(trek.getId());
+            writeString(out, trek.getTrekName());
+            writeString(out, trek.getDuration());
+            out.writeLong(trek.getStartEpochDay()); // Trek.NO_DATE when there is none
+            writeString(out, trek.getDifficulty());
+            out.writeInt(trek.getMaxAltitude());
+            out.writeLong(trek.getCostMinor());
+            writeString(out, trek.getBestSeason());
+            writeString(out, trek.getGuideEmail());
+            out.writeInt(trek.getAttractionId());
+            out.writeBoolean(trek.hasDiscount());
+            out.writeLong(trek.getOriginalCostMinor());
+            out.writeInt(trek.getDiscountBasisPoints());
+        }
+
+        @Override
+        public Trek read(ByteBuffer in, int schemaVersion) throws IOException {
+            Trek trek = new Trek();
+            trek.setId(in.getInt());
+            trek.setTrekName(readString(in));
+            trek.setDuration(readString(in));
+            if (schemaVersion >= 2) {
+                trek.setStartEpochDay(in.getLong());
+            } else {
+                String startDate = readString(in);
+                if (startDate != null) {
+                    trek.setDate(startDate);
+                }
+            }
+            trek.setDifficulty(readString(in));
+            trek.setMaxAltitude(in.getInt());
+            if (schemaVersion >= 3) {
+                trek.setCostMinor(in.getLong());
+            } else {
+                trek.setCost(in.getDouble());
+            }
+            trek.setBestSeason(readString(in));
+            trek.setGuideEmail(readString(in));
+            trek.setAttractionId(in.getInt());
+            trek.setHasDiscount((in.get() != 0));
+            if (schemaVersion >= 3) {
+                trek.setOriginalCostMinor(in.getLong());
+                trek.setDiscountBasisPoints(in.getInt());
+            } else {
+                trek.setOriginalCost(in.getDouble());
+                trek.setDiscountPercent(in.getDouble());
+            }
+            return trek;
+        }
+    };
+
+    static final RecordFormat<Attraction> ATTRACTION = new RecordFormat<>() {
+        @Override
+        public String getRecordType() { return "Attraction"; }
+
+        @Override
+        public Attraction copy(Attraction attraction) { return new Attraction(attraction); }
+
+        @Override
+        public int getSchemaVersion() { return 1; }
+
+        @Override
+        public void write(DataOutput out, Attraction attraction) throws IOException {
+            out.writeInt(attraction.getId());
+            writeString(out, attraction.getName());
+            writeString(out, attraction.getLocation());
+            writeString(out, attraction.getDifficulty());
+            writeString(out, attraction.getType());
+            writeString(out, attraction.getRemarks());
+        }
+
+        @Override
+        public Attraction read(ByteBuffer in, int schemaVersion) throws IOException {
+            Attraction attraction = new Attraction();
+            attraction.setId(in.getInt());
+            attraction.setName(readString(in));
+            attraction.setLocation(readString(in));
+            attraction.setDifficulty(readString(in));
+            attraction.setType(readString(in));
+            attraction.setRemarks(readString(in));
+            return attraction;
+        }
+    };
+
+    static final RecordFormat<Booking> BOOKING = new RecordFormat<>() {
+        @Override
+        public String getRecordType() { return "Booking"; }
+
+        @Override
+        public Booking copy(Booking booking) { return new Booking(booking); }
+
+        @Override
+        public int getSchemaVersion() { return 1; }
+
+        @Override
+        public void write(DataOutput out, Booking booking) throws IOException {
+            out.writeInt(booking.getId());
+            writeString(out, booking.getBookingId());
+            out.writeInt(booking.getTrekId());
+            writeString(out, booking.getUserEmail());
+            writeString(out, booking.getGuideEmail());
+            // Epoch day keeps the date to 8 bytes; Booking.NO_DATE (Long.MIN_VALUE) marks "no date"
+            out.writeLong(booking.getTrekStartEpochDay());
+        }
+
+        @Override
+        public Booking read(ByteBuffer in, int schemaVersion) throws IOException {
+            Booking booking = new Booking();
+            booking.setId(in.getInt());
+            booking.setBookingId(readString(in));
+            booking.setTrekId(in.getInt());
+            booking.setUserEmail(readString(in));
+            booking.setGuideEmail(readString(in));
+            booking.setTrekStartEpochDay(in.getLong());
+            return booking;
+        }
+    };
+
+    static final RecordFormat<Emergency> EMERGENCY = new RecordFormat<>() {
+        @Override
+        public String getRecordType() { return "Emergency"; }
+
+        @Override
+        public Emergency copy(Emergency emergency) { return new Emergency(emergency); }
+
+        // 2: report and resolve times as epoch seconds instead of ISO strings
+        @Override
+        public int getSchemaVersion() { return 2; }
+
+        @Override
+        public void write(DataOutput out, Emergency emergency) throws IOException {
+            out.writeInt(emergency.getId());
+            writeString(out, emergency.getGuideName());
+            writeString(out, emergency.getGuideEmail());
+            writeString(out, emergency.getEmergencyType());
+            writeString(out, emergency.getDescription());
+            writeString(out, emergency.getLocation());
+            writeString(out, emergency.getSeverity());
+            writeString(out, emergency.getStatus());
+            out.writeLong(emergency.getReportedAtEpochSecond()); // Emergency.NO_TIME when unset
+            out.writeLong(emergency.getResolvedAtEpochSecond());
+            writeString(out, emergency.getContactNumber());
+            writeString(out, emergency.getAdditionalNotes());
+        }
+
+        @Override
+        public Emergency read(ByteBuffer in, int schemaVersion) throws IOException {
+            Emergency emergency = new Emergency();
+            emergency.setId(in.getInt());
+            emergency.setGuideName(readString(in));
+            emergency.setGuideEmail(readString(in));
+            emergency.setEmergencyType(readString(in));
+            emergency.setDescription(readString(in));
+            emergency.setLocation(readString(in));
+            emergency.setSeverity(readString(in));
+            emergency.setStatus(readString(in));
+            if (schemaVersion >= 2) {
+                emergency.setReportedAtEpochSecond(in.getLong());
+                emergency.setResolvedAtEpochSecond(in.getLong());
+            } else {
+                // Null clears the constructor's "now"
+                emergency.setReportedAtStr(readString(in));
+                emergency.setResolvedAtStr(readString(in));
+            }
+            emergency.setContactNumber(readString(in));
+            emergency.setAdditionalNotes(readString(in));
+            return emergency;
+        }
+    };
+
+    static final RecordFormat<User> USER = new RecordFormat<>() {
+        @Override
+        public String getRecordType() { return "User"; }
+
+        @Override
+        public User copy(User user) { return new User(user); }
+
+        @Override
+        public int getSchemaVersion() { return 1; }
+
+        @Override
+        public void write(DataOutput out, User user) throws IOException {
+            writeUserFields(out, user);
+        }
+
+        @Override
+        public User read(ByteBuffer in, int schemaVersion) throws IOException {
+            User user = new User();
+            readUserFields(in, user);
+            return user;
+        }
+    };
+
+    static final RecordFormat<Guide> GUIDE = new RecordFormat<>() {
+        @Override
+        public String getRecordType() { return "Guide"; }
+
+        @Override
+        public Guide copy(Guide guide) { return new Guide(guide); }
+
+        @Override
+        public int getSchemaVersion() { return 1; }
+
+        @Override
+        public void write(DataOutput out, Guide guide) throws IOException {
+            writeUserFields(out, guide);
+            writeString(out, guide.getProficiencyLanguage());
+            writeString(out, guide.getExperience());
+        }
+
+        @Override
+        public Guide read(ByteBuffer in, int schemaVersion) throws IOException {
+            Guide guide = new Guide();
+            readUserFields(in, guide);
+            guide.setProficiencyLanguage(readString(in));
+            guide.setExperience(readString(in));
+            return guide;
+        }
+    };
+
+    private static void writeUserFields(DataOutput out, User user) throws IOException {
+        writeString(out, user.getId());
+        writeString(out, user.getFirstName());
+        writeString(out, user.getLastName());
+        writeString(out, user.getEmail());
+        writeString(out, user.getPhone());
+        writeString(out, user.getPassword());
+        writeString(out, user.getUserType());
+        writeString(out, user.getNationality());
+    }
+
+    private static void readUserFields(ByteBuffer in, User user) {
+        user.setId(readString(in));
+        user.setFirstName(readString(in));
+        user.setLastName(readString(in));
+        user.setEmail(readString(in));
+        user.setPhone(readString(in));
+        user.setPassword(readString(in));
+        user.setUserType(readString(in));
+        user.setNationality(readString(in));
+    }
+}
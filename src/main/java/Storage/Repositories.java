@@ -0,0 +1,66 @@
+package Storage;
+
+// Where controllers get their data access from. The backend is chosen once per
+// process: the data/ files by default (AdminJSONHandler), or the embedded
+// database with backend=sql in data/storage.properties (SQLHandler). Either
+// way it is wrapped so writes are published on the ChangeBus.
+public final class Repositories {
+    private static TrekRepository treks;
+    private static AttractionRepository attractions;
+    private static BookingRepository bookings;
+    private static GuideRepository guides;
+    private static EmergencyRepository emergencies;
+    private static UserRepository users;
+
+    private Repositories() {}
+
+    public static TrekRepository treks() {
+        initialize();
+        return treks;
+    }
+
+    public static AttractionRepository attractions() {
+        initialize();
+        return attractions;
+    }
+
+    public static BookingRepository bookings() {
+        initialize();
+        return bookings;
+    }
+
+    public static GuideRepository guides() {
+        initialize();
+        return guides;
+    }
+
+    public static EmergencyRepository emergencies() {
+        initialize();
+        return emergencies;
+    }
+
+    public static UserRepository users() {
+        initialize();
+        return users;
+    }
+
+    // False with backend=sql: the data/ files are then only read once, to fill the database
+    public static boolean usesDataFiles() {
+        return StorageCodecs.configuredBackend() == StorageCodecs.Backend.FILES;
+    }
+
+    private static synchronized void initialize() {
+        if (treks != null) {
+            return;
+        }
+        PublishingRepository backend = StorageCodecs.configuredBackend() == StorageCodecs.Backend.SQL
+                ? new PublishingRepository(new SQLHandler())
+                : new PublishingRepository(new AdminJSONHandler());
+        attractions = backend;
+        bookings = backend;
+        guides = backend;
+        emergencies = backend;
+        users = backend;
+        treks = backend;
+    }
+}
@@ -0,0 +1,821 @@
+package Storage;
+
+import Models.Attraction;
+import Models.Booking;
+import Models.Emergency;
+import Models.Guide;
+import Models.Trek;
+import Models.User;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Embedded SQL backend, selected with backend=sql in data/storage.properties.
+// Defaults to an H2 database file under data/ (AUTO_SERVER lets several instances
+// share it); jdbc.url points it anywhere else. Tables have real indexes on the
+// columns the screens look records up by, and multi-statement changes run in a
+// transaction. On first start the tables are filled from the existing data/ files.
+// Ids still come from IdSequence, so they line up with the file backend.
+public class SQLHandler implements TrekRepository, AttractionRepository, BookingRepository,
+        GuideRepository, EmergencyRepository, UserRepository {
+    private static final String DEFAULT_URL = "jdbc:h2:./" + DataStore.DATA_DIR + "/ghumgham;AUTO_SERVER=TRUE";
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS treks (id INTEGER PRIMARY KEY, trek_name VARCHAR(255), duration VARCHAR(255), "
+                    + "start_date VARCHAR(10), difficulty VARCHAR(64), max_altitude INTEGER, cost DOUBLE, "
+                    + "best_season VARCHAR(255), guide_email VARCHAR(255), guide_email_key VARCHAR(255), "
+                    + "attraction_id INTEGER, has_discount BOOLEAN, original_cost DOUBLE, discount_percent DOUBLE)",
+            "CREATE INDEX IF NOT EXISTS treks_guide_email ON treks (guide_email_key)",
+            "CREATE TABLE IF NOT EXISTS attractions (id INTEGER PRIMARY KEY, name VARCHAR(255), location VARCHAR(255), "
+                    + "difficulty VARCHAR(64), attraction_type VARCHAR(255), remarks VARCHAR(4000))",
+            "CREATE TABLE IF NOT EXISTS bookings (id INTEGER PRIMARY KEY, booking_id VARCHAR(64), trek_id INTEGER, "
+                    + "user_email VARCHAR(255), user_email_key VARCHAR(255), guide_email VARCHAR(255), "
+                    + "start_date VARCHAR(10))",
+            "CREATE INDEX IF NOT EXISTS bookings_user_email ON bookings (user_email_key)",
+            "CREATE INDEX IF NOT EXISTS bookings_trek_id ON bookings (trek_id)",
+            "CREATE INDEX IF NOT EXISTS bookings_start_date ON bookings (start_date)",
+            "CREATE TABLE IF NOT EXISTS guides (email_key VARCHAR(255) PRIMARY KEY, id VARCHAR(64), "
+                    + "first_name VARCHAR(255), last_name VARCHAR(255), email VARCHAR(255), phone VARCHAR(64), "
+                    + "password VARCHAR(255), user_type VARCHAR(32), nationality VARCHAR(255), "
+                    + "proficiency_language VARCHAR(255), experience VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS users (email_key VARCHAR(255) PRIMARY KEY, id VARCHAR(64), "
+                    + "first_name VARCHAR(255), last_name VARCHAR(255), email VARCHAR(255), phone VARCHAR(64), "
+                    + "password VARCHAR(255), user_type VARCHAR(32), nationality VARCHAR(255))",
+            "CREATE TABLE IF NOT EXISTS emergencies (id INTEGER PRIMARY KEY, guide_name VARCHAR(255), "
+                    + "guide_email VARCHAR(255), guide_email_key VARCHAR(255), emergency_type VARCHAR(255), "
+                    + "description VARCHAR(4000), location VARCHAR(255), severity VARCHAR(32), status VARCHAR(32), "
+                    + "reported_at VARCHAR(32), resolved_at VARCHAR(32), contact_number VARCHAR(64), "
+                    + "additional_notes VARCHAR(4000))",
+            "CREATE INDEX IF NOT EXISTS emergencies_guide_email ON emergencies (guide_email_key)"
+    };
+
+    private static final String TREK_COLUMNS = "id, trek_name, duration, start_date, difficulty, max_altitude, cost, "
+            + "best_season, guide_email, guide_email_key, attraction_id, has_discount, original_cost, discount_percent";
+    private static final String ATTRACTION_COLUMNS = "id, name, location, difficulty, attraction_type, remarks";
+    private static final String BOOKING_COLUMNS = "id, booking_id, trek_id, user_email, user_email_key, guide_email, start_date";
+    private static final String GUIDE_COLUMNS = "email_key, id, first_name, last_name, email, phone, password, "
+            + "user_type, nationality, proficiency_language, experience";
+    private static final String USER_COLUMNS = "email_key, id, first_name, last_name, email, phone, password, "
+            + "user_type, nationality";
+    private static final String EMERGENCY_COLUMNS = "id, guide_name, guide_email, guide_email_key, emergency_type, "
+            + "description, location, severity, status, reported_at, resolved_at, contact_number, additional_notes";
+
+    private interface RowMapper<T> {
+        T map(ResultSet row) throws SQLException;
+    }
+
+    private interface Work<R> {
+        R run(Connection connection) throws SQLException;
+    }
+
+    // One connection for the process; JDBC connections aren't safe for concurrent
+    // transactions, so every use is serialized on SQLHandler.class
+    private static Connection connection;
+
+    private final IdSequence trekIds = new IdSequence("trek", () -> maxId("treks"));
+    private final IdSequence attractionIds = new IdSequence("attraction", () -> maxId("attractions"));
+    private final IdSequence bookingIds = new IdSequence("booking", () -> maxId("bookings"));
+    private final IdSequence emergencyIds = new IdSequence("emergency", () -> maxId("emergencies"));
+
+    // ==================== TREK METHODS ====================
+
+    @Override
+    public List<Trek> loadTreks() {
+        return query("SELECT " + TREK_COLUMNS + " FROM treks ORDER BY id", SQLHandler::readTrek);
+    }
+
+    @Override
+    public Trek getTrekById(int id) {
+        return first(query("SELECT " + TREK_COLUMNS + " FROM treks WHERE id = ?", SQLHandler::readTrek, id));
+    }
+
+    @Override
+    public List<Trek> getTreksByGuideEmail(String guideEmail) {
+        return query("SELECT " + TREK_COLUMNS + " FROM treks WHERE guide_email_key = ? ORDER BY id",
+                SQLHandler::readTrek, DataStore.emailKey(guideEmail));
+    }
+
+    @Override
+    public boolean addTrek(Trek trek) {
+        try {
+            trek.setId(trekIds.nextId());
+            return update(insert("treks", TREK_COLUMNS), trekValues(trek)) > 0;
+        } catch (Exception e) {
+            System.err.println("Error adding trek: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean addTreks(List<Trek> treks) {
+        int id = trekIds.reserveIds(treks.size());
+        List<Object[]> rows = new ArrayList<>();
+        for (Trek trek : treks) {
+            trek.setId(id++);
+            rows.add(trekValues(trek));
+        }
+        return Boolean.TRUE.equals(transaction(connection -> executeBatch(connection, insert("treks", TREK_COLUMNS), rows)));
+    }
+
+    @Override
+    public boolean updateTrek(Trek updatedTrek) {
+        return update("UPDATE treks SET trek_name = ?, duration = ?, start_date = ?, difficulty = ?, max_altitude = ?, "
+                        + "cost = ?, best_season = ?, guide_email = ?, guide_email_key = ?, attraction_id = ?, "
+                        + "has_discount = ?, original_cost = ?, discount_percent = ? WHERE id = ?",
+                withIdLast(trekValues(updatedTrek))) > 0;
+    }
+
+    @Override
+    public boolean deleteTrek(int trekId) {
+        Boolean deleted = transaction(connection -> {
+            execute(connection, "DELETE FROM bookings WHERE trek_id = ?", trekId);
+            return execute(connection, "DELETE FROM treks WHERE id = ?", trekId) > 0;
+        });
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    // ==================== ATTRACTION METHODS ====================
+
+    @Override
+    public List<Attraction> loadAttractions() {
+        return query("SELECT " + ATTRACTION_COLUMNS + " FROM attractions ORDER BY id", SQLHandler::readAttraction);
+    }
+
+    @Override
+    public Attraction getAttractionById(int id) {
+        return first(query("SELECT " + ATTRACTION_COLUMNS + " FROM attractions WHERE id = ?",
+                SQLHandler::readAttraction, id));
+    }
+
+    @Override
+    public int countAttractions() {
+        return countRows("attractions");
+    }
+
+    @Override
+    public Map<Integer, String> loadAttractionNames() {
+        return toMap(query("SELECT id, name FROM attractions ORDER BY id",
+                row -> new AbstractMap.SimpleEntry<>(row.getInt("id"), row.getString("name"))));
+    }
+
+    @Override
+    public boolean addAttraction(Attraction attraction) {
+        try {
+            attraction.setId(attractionIds.nextId());
+            return update(insert("attractions", ATTRACTION_COLUMNS), attractionValues(attraction)) > 0;
+        } catch (Exception e) {
+            System.err.println("Error adding attraction: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean addAttractions(List<Attraction> attractions) {
+        int id = attractionIds.reserveIds(attractions.size());
+        List<Object[]> rows = new ArrayList<>();
+        for (Attraction attraction : attractions) {
+            attraction.setId(id++);
+            rows.add(attractionValues(attraction));
+        }
+        return Boolean.TRUE.equals(transaction(connection ->
+                executeBatch(connection, insert("attractions", ATTRACTION_COLUMNS), rows)));
+    }
+
+    @Override
+    public boolean deleteAttraction(int attractionId) {
+        return update("DELETE FROM attractions WHERE id = ?", attractionId) > 0;
+    }
+
+    // ==================== BOOKING METHODS ====================
+
+    @Override
+    public List<Booking> loadBookings() {
+        return query("SELECT " + BOOKING_COLUMNS + " FROM bookings ORDER BY id", SQLHandler::readBooking);
+    }
+
+    @Override
+    public boolean addBooking(Booking booking) {
+        try {
+            booking.setId(bookingIds.nextId());
+            return update(insert("bookings", BOOKING_COLUMNS), bookingValues(booking)) > 0;
+        } catch (Exception e) {
+            System.err.println("Error adding booking: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean addBookings(List<Booking> bookings) {
+        int id = bookingIds.reserveIds(bookings.size());
+        List<Object[]> rows = new ArrayList<>();
+        for (Booking booking : bookings) {
+            booking.setId(id++);
+            rows.add(bookingValues(booking));
+        }
+        return Boolean.TRUE.equals(transaction(connection ->
+                executeBatch(connection, insert("bookings", BOOKING_COLUMNS), rows)));
+    }
+
+    @Override
+    public List<Booking> getBookingsByUserEmail(String userEmail) {
+        return query("SELECT " + BOOKING_COLUMNS + " FROM bookings WHERE user_email_key = ? ORDER BY id",
+                SQLHandler::readBooking, DataStore.emailKey(userEmail));
+    }
+
+    @Override
+    public List<Booking> getBookingsByTrekId(int trekId) {
+        return query("SELECT " + BOOKING_COLUMNS + " FROM bookings WHERE trek_id = ? ORDER BY id",
+                SQLHandler::readBooking, trekId);
+    }
+
+    @Override
+    public List<Booking> getBookingsBetween(LocalDate from, LocalDate to) {
+        List<Object> parameters = new ArrayList<>();
+        String where = startDateBetween(from, to, parameters);
+        return query("SELECT " + BOOKING_COLUMNS + " FROM bookings WHERE " + where + " ORDER BY id",
+                SQLHandler::readBooking, parameters.toArray());
+    }
+
+    @Override
+    public List<Booking> getBookingsByUserEmail(String userEmail, LocalDate from, LocalDate to) {
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(DataStore.emailKey(userEmail));
+        String where = "user_email_key = ? AND " + startDateBetween(from, to, parameters);
+        return query("SELECT " + BOOKING_COLUMNS + " FROM bookings WHERE " + where + " ORDER BY id",
+                SQLHandler::readBooking, parameters.toArray());
+    }
+
+    // start_date holds ISO dates, so comparing the text compares the dates
+    private static String startDateBetween(LocalDate from, LocalDate to, List<Object> parameters) {
+        StringBuilder where = new StringBuilder("start_date IS NOT NULL");
+        if (from != null) {
+            where.append(" AND start_date >= ?");
+            parameters.add(from.toString());
+        }
+        if (to != null) {
+            where.append(" AND start_date <= ?");
+            parameters.add(to.toString());
+        }
+        return where.toString();
+    }
+
+    @Override
+    public boolean deleteBooking(int bookingId) {
+        return update("DELETE FROM bookings WHERE id = ?", bookingId) > 0;
+    }
+
+    // ==================== GUIDE METHODS ====================
+
+    @Override
+    public List<Guide> loadGuides() {
+        return query("SELECT " + GUIDE_COLUMNS + " FROM guides", SQLHandler::readGuide);
+    }
+
+    @Override
+    public Guide getGuideByEmail(String email) {
+        return first(query("SELECT " + GUIDE_COLUMNS + " FROM guides WHERE email_key = ?",
+                SQLHandler::readGuide, DataStore.emailKey(email)));
+    }
+
+    @Override
+    public boolean guideExists(String email) {
+        return getGuideByEmail(email) != null;
+    }
+
+    @Override
+    public int countGuides() {
+        return countRows("guides");
+    }
+
+    @Override
+    public Map<String, String> loadGuideNames() {
+        return toMap(query("SELECT email, first_name, last_name FROM guides",
+                row -> new AbstractMap.SimpleEntry<>(row.getString("email"),
+                        User.fullName(row.getString("first_name"), row.getString("last_name")))));
+    }
+
+    @Override
+    public boolean addGuide(Guide guide) {
+        Boolean added = transaction(connection -> {
+            if (count(connection, "SELECT COUNT(*) FROM guides WHERE email_key = ?", DataStore.emailKey(guide.getEmail())) > 0) {
+                return false; // Guide already exists
+            }
+            return execute(connection, insert("guides", GUIDE_COLUMNS), guideValues(guide)) > 0;
+        });
+        return Boolean.TRUE.equals(added);
+    }
+
+    @Override
+    public boolean addGuides(List<Guide> guides) {
+        List<Object[]> rows = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (Guide guide : guides) {
+            if (!keys.add(DataStore.emailKey(guide.getEmail()))) {
+                return false; // Same email twice
+            }
+            rows.add(guideValues(guide));
+        }
+        Boolean added = transaction(connection -> {
+            for (String key : keys) {
+                if (count(connection, "SELECT COUNT(*) FROM guides WHERE email_key = ?", key) > 0) {
+                    return false; // Guide already exists
+                }
+            }
+            return executeBatch(connection, insert("guides", GUIDE_COLUMNS), rows);
+        });
+        return Boolean.TRUE.equals(added);
+    }
+
+    @Override
+    public boolean deleteGuide(String email) {
+        return update("DELETE FROM guides WHERE email_key = ?", DataStore.emailKey(email)) > 0;
+    }
+
+    // ==================== USER METHODS ====================
+
+    @Override
+    public List<User> loadUsers() {
+        return query("SELECT " + USER_COLUMNS + " FROM users", SQLHandler::readUser);
+    }
+
+    @Override
+    public boolean userExists(String email) {
+        return !query("SELECT " + USER_COLUMNS + " FROM users WHERE email_key = ?", SQLHandler::readUser,
+                DataStore.emailKey(email)).isEmpty();
+    }
+
+    @Override
+    public int countUsers() {
+        return countRows("users");
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        Boolean added = transaction(connection -> {
+            if (count(connection, "SELECT COUNT(*) FROM users WHERE email_key = ?", DataStore.emailKey(user.getEmail())) > 0) {
+                return false; // User already exists
+            }
+            return execute(connection, insert("users", USER_COLUMNS), userValues(user)) > 0;
+        });
+        return Boolean.TRUE.equals(added);
+    }
+
+    @Override
+    public boolean addUsers(List<User> users) {
+        List<Object[]> rows = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (User user : users) {
+            if (!keys.add(DataStore.emailKey(user.getEmail()))) {
+                return false; // Same email twice
+            }
+            rows.add(userValues(user));
+        }
+        Boolean added = transaction(connection -> {
+            for (String key : keys) {
+                if (count(connection, "SELECT COUNT(*) FROM users WHERE email_key = ?", key) > 0) {
+                    return false; // User already exists
+                }
+            }
+            return executeBatch(connection, insert("users", USER_COLUMNS), rows);
+        });
+        return Boolean.TRUE.equals(added);
+    }
+
+    @Override
+    public boolean deleteUser(String email) {
+        String key = DataStore.emailKey(email);
+        Boolean deleted = transaction(connection -> {
+            if (execute(connection, "DELETE FROM users WHERE email_key = ? AND LOWER(user_type) = 'user'", key) == 0) {
+                return false;
+            }
+            execute(connection, "DELETE FROM bookings WHERE user_email_key = ?", key);
+            return true;
+        });
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    // ==================== EMERGENCY METHODS ====================
+
+    @Override
+    public List<Emergency> loadEmergencies() {
+        return query("SELECT " + EMERGENCY_COLUMNS + " FROM emergencies ORDER BY id", SQLHandler::readEmergency);
+    }
+
+    @Override
+    public int countEmergencies() {
+        return countRows("emergencies");
+    }
+
+    @Override
+    public boolean addEmergency(Emergency emergency) {
+        try {
+            emergency.setId(emergencyIds.nextId());
+            return update(insert("emergencies", EMERGENCY_COLUMNS), emergencyValues(emergency)) > 0;
+        } catch (Exception e) {
+            System.err.println("Error adding emergency: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean updateEmergency(Emergency updatedEmergency) {
+        return update("UPDATE emergencies SET guide_name = ?, guide_email = ?, guide_email_key = ?, emergency_type = ?, "
+                        + "description = ?, location = ?, severity = ?, status = ?, reported_at = ?, resolved_at = ?, "
+                        + "contact_number = ?, additional_notes = ? WHERE id = ?",
+                withIdLast(emergencyValues(updatedEmergency))) > 0;
+    }
+
+    @Override
+    public List<Emergency> getEmergenciesByGuideEmail(String guideEmail) {
+        return query("SELECT " + EMERGENCY_COLUMNS + " FROM emergencies WHERE guide_email_key = ? "
+                + "ORDER BY reported_at DESC", SQLHandler::readEmergency, DataStore.emailKey(guideEmail));
+    }
+
+    // ==================== ROW MAPPING ====================
+
+    private static Object[] trekValues(Trek trek) {
+        return new Object[]{trek.getId(), trek.getTrekName(), trek.getDuration(),
+                trek.getStartDate() != null ? trek.getDate() : null, trek.getDifficulty(), trek.getMaxAltitude(),
+                trek.getCost(), trek.getBestSeason(), trek.getGuideEmail(), DataStore.emailKey(trek.getGuideEmail()),
+                trek.getAttractionId(), trek.hasDiscount(), trek.getOriginalCost(), trek.getDiscountPercent()};
+    }
+
+    private static Trek readTrek(ResultSet row) throws SQLException {
+        Trek trek = new Trek();
+        trek.setId(row.getInt("id"));
+        trek.setTrekName(row.getString("trek_name"));
+        trek.setDuration(row.getString("duration"));
+        String startDate = row.getString("start_date");
+        if (startDate != null) {
+            trek.setDate(startDate);
+        }
+        trek.setDifficulty(row.getString("difficulty"));
+        trek.setMaxAltitude(row.getInt("max_altitude"));
+        trek.setCost(row.getDouble("cost"));
+        trek.setBestSeason(row.getString("best_season"));
+        trek.setGuideEmail(row.getString("guide_email"));
+        trek.setAttractionId(row.getInt("attraction_id"));
+        trek.setHasDiscount(row.getBoolean("has_discount"));
+        trek.setOriginalCost(row.getDouble("original_cost"));
+        trek.setDiscountPercent(row.getDouble("discount_percent"));
+        return trek;
+    }
+
+    private static Object[] attractionValues(Attraction attraction) {
+        return new Object[]{attraction.getId(), attraction.getName(), attraction.getLocation(),
+                attraction.getDifficulty(), attraction.getType(), attraction.getRemarks()};
+    }
+
+    private static Attraction readAttraction(ResultSet row) throws SQLException {
+        Attraction attraction = new Attraction();
+        attraction.setId(row.getInt("id"));
+        attraction.setName(row.getString("name"));
+        attraction.setLocation(row.getString("location"));
+        attraction.setDifficulty(row.getString("difficulty"));
+        attraction.setType(row.getString("attraction_type"));
+        attraction.setRemarks(row.getString("remarks"));
+        return attraction;
+    }
+
+    private static Object[] bookingValues(Booking booking) {
+        return new Object[]{booking.getId(), booking.getBookingId(), booking.getTrekId(), booking.getUserEmail(),
+                DataStore.emailKey(booking.getUserEmail()), booking.getGuideEmail(),
+                booking.getTrekStartDate() != null ? booking.getTrekStartDate().toString() : null};
+    }
+
+    private static Booking readBooking(ResultSet row) throws SQLException {
+        Booking booking = new Booking();
+        booking.setId(row.getInt("id"));
+        booking.setBookingId(row.getString("booking_id"));
+        booking.setTrekId(row.getInt("trek_id"));
+        booking.setUserEmail(row.getString("user_email"));
+        booking.setGuideEmail(row.getString("guide_email"));
+        String startDate = row.getString("start_date");
+        booking.setTrekStartDate(startDate != null ? LocalDate.parse(startDate) : null);
+        return booking;
+    }
+
+    private static Object[] guideValues(Guide guide) {
+        return new Object[]{DataStore.emailKey(guide.getEmail()), guide.getId(), guide.getFirstName(),
+                guide.getLastName(), guide.getEmail(), guide.getPhone(), guide.getPassword(), guide.getUserType(),
+                guide.getNationality(), guide.getProficiencyLanguage(), guide.getExperience()};
+    }
+
+    private static Guide readGuide(ResultSet row) throws SQLException {
+        Guide guide = new Guide();
+        readUserColumns(row, guide);
+        guide.setProficiencyLanguage(row.getString("proficiency_language"));
+        guide.setExperience(row.getString("experience"));
+        return guide;
+    }
+
+    private static Object[] userValues(User user) {
+        return new Object[]{DataStore.emailKey(user.getEmail()), user.getId(), user.getFirstName(),
+                user.getLastName(), user.getEmail(), user.getPhone(), user.getPassword(), user.getUserType(),
+                user.getNationality()};
+    }
+
+    private static User readUser(ResultSet row) throws SQLException {
+        User user = new User();
+        readUserColumns(row, user);
+        return user;
+    }
+
+    private static void readUserColumns(ResultSet row, User user) throws SQLException {
+        user.setId(row.getString("id"));
+        user.setFirstName(row.getString("first_name"));
+        user.setLastName(row.getString("last_name"));
+        user.setEmail(row.getString("email"));
+        user.setPhone(row.getString("phone"));
+        user.setPassword(row.getString("password"));
+        user.setUserType(row.getString("user_type"));
+        user.setNationality(row.getString("nationality"));
+    }
+
+    private static Object[] emergencyValues(Emergency emergency) {
+        return new Object[]{emergency.getId(), emergency.getGuideName(), emergency.getGuideEmail(),
+                DataStore.emailKey(emergency.getGuideEmail()), emergency.getEmergencyType(),
+                emergency.getDescription(), emergency.getLocation(), emergency.getSeverity(), emergency.getStatus(),
+                emergency.getReportedAtStr(), emergency.getResolvedAtStr(), emergency.getContactNumber(),
+                emergency.getAdditionalNotes()};
+    }
+
+    private static Emergency readEmergency(ResultSet row) throws SQLException {
+        Emergency emergency = new Emergency();
+        emergency.setId(row.getInt("id"));
+        emergency.setGuideName(row.getString("guide_name"));
+        emergency.setGuideEmail(row.getString("guide_email"));
+        emergency.setEmergencyType(row.getString("emergency_type"));
+        emergency.setDescription(row.getString("description"));
+        emergency.setLocation(row.getString("location"));
+        emergency.setSeverity(row.getString("severity"));
+        emergency.setStatus(row.getString("status"));
+        String reportedAt = row.getString("reported_at");
+        if (reportedAt != null) {
+            emergency.setReportedAtStr(reportedAt);
+        } else {
+            emergency.setReportedAt(null);
+        }
+        String resolvedAt = row.getString("resolved_at");
+        if (resolvedAt != null) {
+            emergency.setResolvedAtStr(resolvedAt);
+        }
+        emergency.setContactNumber(row.getString("contact_number"));
+        emergency.setAdditionalNotes(row.getString("additional_notes"));
+        return emergency;
+    }
+
+    // UPDATE statements list the id last, the insert column lists first
+    private static Object[] withIdLast(Object[] values) {
+        Object[] reordered = new Object[values.length];
+        System.arraycopy(values, 1, reordered, 0, values.length - 1);
+        reordered[values.length - 1] = values[0];
+        return reordered;
+    }
+
+    // ==================== JDBC PLUMBING ====================
+
+    private static String insert(String table, String columns) {
+        int count = columns.split(",").length;
+        return "INSERT INTO " + table + " (" + columns + ") VALUES (" + "?, ".repeat(count - 1) + "?)";
+    }
+
+    private static <T> T first(List<T> rows) {
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static <K> Map<K, String> toMap(List<Map.Entry<K, String>> rows) {
+        Map<K, String> map = new LinkedHashMap<>();
+        for (Map.Entry<K, String> row : rows) {
+            map.put(row.getKey(), row.getValue());
+        }
+        return map;
+    }
+
+    private static synchronized Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            String url = StorageCodecs.jdbcUrl();
+            connection = DriverManager.getConnection(url != null ? url : DEFAULT_URL);
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+            importFromFiles(connection);
+        }
+        return connection;
+    }
+
+    private static <T> List<T> query(String sql, RowMapper<T> mapper, Object... parameters) {
+        synchronized (SQLHandler.class) {
+            List<T> rows = new ArrayList<>();
+            try (PreparedStatement statement = prepare(connection(), sql, parameters);
+                 ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    rows.add(mapper.map(result));
+                }
+            } catch (SQLException e) {
+                System.err.println("Error running query: " + e.getMessage());
+                e.printStackTrace();
+            }
+            return rows;
+        }
+    }
+
+    // Returns the number of rows changed, or 0 on error
+    private static int update(String sql, Object... parameters) {
+        synchronized (SQLHandler.class) {
+            try {
+                return execute(connection(), sql, parameters);
+            } catch (SQLException e) {
+                System.err.println("Error running update: " + e.getMessage());
+                e.printStackTrace();
+                return 0;
+            }
+        }
+    }
+
+    // Runs the work in one transaction; rolls back and returns null if anything fails
+    private static <R> R transaction(Work<R> work) {
+        synchronized (SQLHandler.class) {
+            Connection connection = null;
+            try {
+                connection = connection();
+                connection.setAutoCommit(false);
+                R result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException e) {
+                System.err.println("Error in transaction, rolling back: " + e.getMessage());
+                e.printStackTrace();
+                rollback(connection);
+                return null;
+            } finally {
+                restoreAutoCommit(connection);
+            }
+        }
+    }
+
+    private static int execute(Connection connection, String sql, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, sql, parameters)) {
+            return statement.executeUpdate();
+        }
+    }
+
+    // Sends all rows in one JDBC batch; true once every row is inserted
+    private static boolean executeBatch(Connection connection, String sql, List<Object[]> rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            return true;
+        }
+    }
+
+    private static int count(Connection connection, String sql, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = prepare(connection, sql, parameters);
+             ResultSet result = statement.executeQuery()) {
+            return result.next() ? result.getInt(1) : 0;
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Object... parameters) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+        return statement;
+    }
+
+    private static void rollback(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("Error rolling back: " + e.getMessage());
+        }
+    }
+
+    private static void restoreAutoCommit(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            System.err.println("Error restoring auto-commit: " + e.getMessage());
+        }
+    }
+
+    private static int countRows(String table) {
+        synchronized (SQLHandler.class) {
+            try {
+                return count(connection(), "SELECT COUNT(*) FROM " + table);
+            } catch (SQLException e) {
+                System.err.println("Error counting rows of " + table + ": " + e.getMessage());
+                e.printStackTrace();
+                return 0;
+            }
+        }
+    }
+
+    private static int maxId(String table) {
+        synchronized (SQLHandler.class) {
+            try {
+                return count(connection(), "SELECT COALESCE(MAX(id), 0) FROM " + table);
+            } catch (SQLException e) {
+                System.err.println("Error reading highest id of " + table + ": " + e.getMessage());
+                e.printStackTrace();
+                return 0;
+            }
+        }
+    }
+
+    // ==================== FIRST START ====================
+
+    // Fills empty tables from the data/ files, all in one transaction. The file stores
+    // are only opened (and their unfinished transactions recovered) when there is
+    // something to import; once every table has rows, a start never touches them.
+    private static void importFromFiles(Connection connection) throws SQLException {
+        boolean anyEmpty = false;
+        for (String table : new String[] {"treks", "attractions", "bookings", "guides", "users", "emergencies"}) {
+            anyEmpty |= isEmpty(connection, table);
+        }
+        if (!anyEmpty) {
+            return;
+        }
+        DataStore.getInstance().recover();
+        AdminJSONHandler files = new AdminJSONHandler();
+        connection.setAutoCommit(false);
+        try {
+            if (isEmpty(connection, "treks")) {
+                for (Trek trek : files.loadTreks()) {
+                    execute(connection, insert("treks", TREK_COLUMNS), trekValues(trek));
+                }
+            }
+            if (isEmpty(connection, "attractions")) {
+                for (Attraction attraction : files.loadAttractions()) {
+                    execute(connection, insert("attractions", ATTRACTION_COLUMNS), attractionValues(attraction));
+                }
+            }
+            if (isEmpty(connection, "bookings")) {
+                for (Booking booking : files.loadBookings()) {
+                    execute(connection, insert("bookings", BOOKING_COLUMNS), bookingValues(booking));
+                }
+            }
+            if (isEmpty(connection, "guides")) {
+                for (Guide guide : files.loadGuides()) {
+                    if (count(connection, "SELECT COUNT(*) FROM guides WHERE email_key = ?",
+                            DataStore.emailKey(guide.getEmail())) == 0) {
+                        execute(connection, insert("guides", GUIDE_COLUMNS), guideValues(guide));
+                    }
+                }
+            }
+            if (isEmpty(connection, "users")) {
+                for (User user : files.loadUsers()) {
+                    if (count(connection, "SELECT COUNT(*) FROM users WHERE email_key = ?",
+                            DataStore.emailKey(user.getEmail())) == 0) {
+                        execute(connection, insert("users", USER_COLUMNS), userValues(user));
+                    }
+                }
+            }
+            if (isEmpty(connection, "emergencies")) {
+                for (Emergency emergency : files.loadEmergencies()) {
+                    execute(connection, insert("emergencies", EMERGENCY_COLUMNS), emergencyValues(emergency));
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static boolean isEmpty(Connection connection, String table) throws SQLException {
+        return count(connection, "SELECT COUNT(*) FROM " + table) == 0;
+    }
+}
@@ -0,0 +1,107 @@
+package Storage;
+
+import Models.Trek;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.List;
+import java.util.Map;
+
+// Versioned record format for the JSON data files:
+//   {"schemaVersion": 1, "records": [ ... ]}
+// Files written before versioning are a bare array and count as version 0.
+//
+// Every record type has a chain of steps; step i upgrades one record from
+// version i to i + 1 on the raw JSON, before Gson maps it onto the model, so
+// a field whose type changed no longer breaks the whole file. JsonCodec runs
+// the missing steps on each record as it streams in, and the store writes the
+// file back in the current version in the background.
+//
+// To change a model's shape, append a step to its chain. Never edit an old
+// step: files in the old version may still be on someone's disk.
+final class SchemaMigrations {
+    static final String VERSION_FIELD = "schemaVersion";
+    static final String RECORDS_FIELD = "records";
+
+    interface Step {
+        void apply(JsonObject record);
+    }
+
+    static final class Schema {
+        private final List<Step> steps;
+
+        Schema(List<Step> steps) {
+            this.steps = steps;
+        }
+
+        int currentVersion() {
+            return steps.size();
+        }
+
+        // Runs every step after fromVersion, in order, on the record in place
+        JsonObject upgrade(JsonObject record, int fromVersion) {
+            for (int version = fromVersion; version < steps.size(); version++) {
+                steps.get(version).apply(record);
+            }
+            return record;
+        }
+    }
+
+    // 0 -> 1: the records themselves are unchanged, the file just gains its version
+    private static final Step VERSIONED_FILE = record -> {};
+
+    // Types without shape changes of their own
+    private static final Schema DEFAULT = new Schema(List.of(VERSIONED_FILE));
+
+    private static final Map<Class<?>, Schema> SCHEMAS = Map.of(
+            // 0 -> 1: unversioned trek files may predate the int altitude and the discount fields
+            Trek.class, new Schema(List.of(record -> {
+                numericAltitude(record);
+                discountFields(record);
+            }))
+    );
+
+    private SchemaMigrations() {}
+
+    static Schema of(Class<?> recordType) {
+        return SCHEMAS.getOrDefault(recordType, DEFAULT);
+    }
+
+    // ==================== TREK STEPS ====================
+
+    // maxAltitude used to be free text such as "5364m" or "5,364 m"
+    private static void numericAltitude(JsonObject record) {
+        JsonElement altitude = record.get("maxAltitude");
+        if (altitude == null || !altitude.isJsonPrimitive()) {
+            return;
+        }
+        JsonPrimitive value = altitude.getAsJsonPrimitive();
+        if (value.isNumber()) {
+            record.addProperty("maxAltitude", Math.round(value.getAsDouble()));
+            return;
+        }
+        String digits = value.getAsString().replaceAll("[^0-9.]", "");
+        int meters = 0;
+        try {
+            meters = digits.isEmpty() ? 0 : (int) Math.round(Double.parseDouble(digits));
+        } catch (NumberFormatException e) {
+            System.err.println("Unreadable maxAltitude '" + value.getAsString() + "', using 0");
+        }
+        record.addProperty("maxAltitude", meters);
+    }
+
+    // Treks saved before discounts existed: no discount, and the cost is the original cost.
+    // Without this Gson leaves originalCost at 0 and the price before discount is lost.
+    private static void discountFields(JsonObject record) {
+        if (!record.has("hasDiscount")) {
+            record.addProperty("hasDiscount", false);
+        }
+        if (!record.has("originalCost") && record.has("cost")) {
+            record.add("originalCost", record.get("cost"));
+        }
+        if (!record.has("discountPercent")) {
+            record.addProperty("discountPercent", 0.0);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package Storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+// How one entity file is laid out on disk. The JSON codec is the readable
+// default; the binary codec is compact and much faster to load.
+interface StorageCodec<T> {
+
+    // File extension including the dot, e.g. ".json"
+    String getExtension();
+
+    List<T> read(Path file) throws IOException;
+
+    // Same, and calls onOutdated if the file was written with an older schema
+    // version, so the caller can write it back in the current one
+    default List<T> read(Path file, Runnable onOutdated) throws IOException {
+        return read(file);
+    }
+
+    byte[] encode(List<T> items) throws IOException;
+
+    // SchemaMigrations version of the file's records, which journal lines logged by the
+    // same build share; -1 for formats that don't use SchemaMigrations
+    default int schemaVersion(Path file) throws IOException {
+        return -1;
+    }
+
+    // Number of records in the file. Codecs that can tell without decoding them override this.
+    default int count(Path file) throws IOException {
+        return read(file).size();
+    }
+
+    // Only the projected fields of every record; the default decodes whole records
+    default <R> List<R> project(Path file, Projection<T, R> projection) throws IOException {
+        List<R> rows = new ArrayList<>();
+        for (T record : read(file)) {
+            rows.add(projection.fromRecord(record));
+        }
+        return rows;
+    }
+
+    // Codecs that can filter records while reading (see StreamingQuery) override these two
+    default boolean supportsStreaming() {
+        return false;
+    }
+
+    default List<T> select(Path file, String keyField, Predicate<String> keyTest) throws IOException {
+        throw new UnsupportedOperationException(getExtension() + " files can't be streamed");
+    }
+}
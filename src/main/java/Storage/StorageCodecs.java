@@ -0,0 +1,153 @@
+package Storage;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+
+// Picks the on-disk format for data/. JSON stays the default; set
+// format=binary in data/storage.properties (or -Dghumgham.storage.format=binary)
+// to switch. Existing JSON files are converted the first time they are needed.
+final class StorageCodecs {
+    static final String CONFIG_FILE = DataStore.DATA_DIR + "/storage.properties";
+    private static final String FORMAT_PROPERTY = "ghumgham.storage.format";
+    private static final String READ_PROPERTY = "ghumgham.storage.read";
+    private static final String BACKEND_PROPERTY = "ghumgham.storage.backend";
+    private static final String JDBC_URL_PROPERTY = "ghumgham.storage.jdbc.url";
+    private static final String BACKUP_INTERVAL_PROPERTY = "ghumgham.backup.interval.minutes";
+
+    enum Format { JSON, BINARY }
+
+    enum Backend { FILES, SQL }
+
+    // Data files are written compactly; only exports meant for people are pretty-printed
+    static final Gson DATA_GSON = ModelAdapters.register(new GsonBuilder()).create();
+    private static final Gson PRETTY_GSON = ModelAdapters.register(new GsonBuilder()).setPrettyPrinting().create();
+    private static Properties config;
+    private static Format format;
+    private static Boolean mappedReads;
+    private static Backend backend;
+
+    private StorageCodecs() {}
+
+    static synchronized Format configuredFormat() {
+        if (format == null) {
+            String value = setting(FORMAT_PROPERTY, "format");
+            format = "binary".equalsIgnoreCase(value) ? Format.BINARY : Format.JSON;
+        }
+        return format;
+    }
+
+    // read=mapped memory-maps binary data files instead of copying them into the heap (see MappedFiles)
+    static synchronized boolean mappedReads() {
+        if (mappedReads == null) {
+            mappedReads = "mapped".equalsIgnoreCase(setting(READ_PROPERTY, "read"));
+        }
+        return mappedReads;
+    }
+
+    // backend=sql keeps everything in the embedded database (see SQLHandler) instead of data/ files
+    static synchronized Backend configuredBackend() {
+        if (backend == null) {
+            backend = "sql".equalsIgnoreCase(setting(BACKEND_PROPERTY, "backend")) ? Backend.SQL : Backend.FILES;
+        }
+        return backend;
+    }
+
+    // null means SQLHandler's default database under data/
+    static synchronized String jdbcUrl() {
+        return setting(JDBC_URL_PROPERTY, "jdbc.url");
+    }
+
+    // backup.interval.minutes=N takes a backup every N minutes while the app runs; 0 or unset is off
+    static synchronized long backupIntervalMinutes() {
+        String value = setting(BACKUP_INTERVAL_PROPERTY, "backup.interval.minutes");
+        try {
+            return value != null ? Math.max(0, Long.parseLong(value)) : 0;
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring bad backup.interval.minutes: " + value);
+            return 0;
+        }
+    }
+
+    // A system property wins over the same setting in data/storage.properties
+    private static String setting(String systemProperty, String key) {
+        String value = System.getProperty(systemProperty);
+        if (value == null) {
+            value = loadConfig().getProperty(key);
+        }
+        return value != null ? value.trim() : null;
+    }
+
+    private static Properties loadConfig() {
+        if (config == null) {
+            config = new Properties();
+            File file = new File(CONFIG_FILE);
+            if (file.exists()) {
+                try (Reader reader = new FileReader(file)) {
+                    config.load(reader);
+                } catch (IOException e) {
+                    System.err.println("Error reading " + CONFIG_FILE + ": " + e.getMessage());
+                }
+            }
+        }
+        return config;
+    }
+
+    static <T> StorageCodec<T> json(Class<T> recordType) {
+        return new JsonCodec<>(recordType, DATA_GSON);
+    }
+
+    // Same format, indented, for files people open (exports)
+    static <T> StorageCodec<T> prettyJson(Class<T> recordType) {
+        return new JsonCodec<>(recordType, PRETTY_GSON);
+    }
+
+    static <T> StorageCodec<T> configured(Class<T> recordType, RecordFormat<T> recordFormat) {
+        return configuredFormat() == Format.BINARY ? new BinaryCodec<>(recordFormat) : json(recordType);
+    }
+
+    // basePath is the file name without extension, e.g. "data/treks"
+    static String fileFor(String basePath, StorageCodec<?> codec) {
+        return basePath + codec.getExtension();
+    }
+
+    // Creates the target file from the JSON one (import) if only the JSON file exists yet
+    static <T> void migrateFromJson(String basePath, Class<T> recordType, StorageCodec<T> target) {
+        StorageCodec<T> jsonCodec = json(recordType);
+        if (target.getExtension().equals(jsonCodec.getExtension())) {
+            return;
+        }
+
+        Path targetFile = Paths.get(fileFor(basePath, target));
+        Path jsonFile = Paths.get(fileFor(basePath, jsonCodec));
+        if (Files.exists(targetFile) || !Files.exists(jsonFile)) {
+            return;
+        }
+
+        try {
+            List<T> items = jsonCodec.read(jsonFile);
+            AtomicFiles.write(targetFile, target.encode(items));
+        } catch (Exception e) {
+            System.err.println("Error converting " + jsonFile + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    static <T> void createIfMissing(String filename, StorageCodec<T> codec) {
+        File file = new File(filename);
+        if (!file.exists()) {
+            try {
+                AtomicFiles.write(file.toPath(), codec.encode(List.of()));
+            } catch (IOException e) {
+                System.err.println("Error creating file " + filename + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
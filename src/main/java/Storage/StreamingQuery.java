@@ -0,0 +1,254 @@
+package Storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+// Reads a JSON data file record by record with Gson's JsonReader and only
+// materializes the records whose key field passes the test. For the others,
+// everything after the key field is skipped with skipValue(), so a selective
+// query allocates roughly the size of its result, not the size of the file.
+// Matches from an older schema version are upgraded before Gson sees them
+// (migrations must not rename key fields for this to find them).
+// count() and project() walk the whole file the same way for screens that only
+// need a record count or a couple of fields per record.
+final class StreamingQuery {
+
+    private StreamingQuery() {}
+
+    // Fails on a file that can't be read or parsed, rather than answering with the
+    // matches found before the problem, which would look like a complete answer
+    static <T> List<T> select(String filename, Class<T> recordType, Gson gson, SchemaMigrations.Schema schema,
+                              String keyField, Predicate<String> keyTest) throws IOException {
+        List<T> matches = new ArrayList<>();
+        try {
+            readRecordArray(filename, (reader, version) ->
+                    selectFromArray(reader, version, recordType, gson, schema, keyField, keyTest, matches));
+        } catch (RuntimeException e) {
+            throw new IOException("Error parsing JSON from " + filename + ": " + e.getMessage(), e);
+        }
+        return matches;
+    }
+
+    // The wrapper's schemaVersion, read without touching the records it precedes;
+    // 0 for a bare array or a wrapper without one
+    static int schemaVersion(String filename) throws IOException {
+        try (JsonReader reader = new JsonReader(
+                new BufferedReader(new FileReader(filename, StandardCharsets.UTF_8)))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return 0;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals(SchemaMigrations.VERSION_FIELD)) {
+                    return reader.nextInt();
+                }
+                reader.skipValue();
+            }
+            return 0;
+        } catch (EOFException e) {
+            return 0; // Empty file
+        } catch (RuntimeException e) {
+            throw new IOException("Error parsing JSON from " + filename + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Number of records; each one is skipped over without being decoded
+    static int count(String filename) throws IOException {
+        int[] count = {0};
+        readRecordArray(filename, (reader, version) -> {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                } else {
+                    reader.skipValue();
+                    count[0]++;
+                }
+            }
+            reader.endArray();
+        });
+        return count[0];
+    }
+
+    // The named fields of every record as text (numbers included; null if missing or
+    // not a scalar), in file order. Everything else is skipped. Records from an older
+    // schema version are upgraded whole first, since a step may fill in a projected field.
+    static List<String[]> project(String filename, SchemaMigrations.Schema schema, String[] fields) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        readRecordArray(filename, (reader, version) -> {
+            boolean current = version == schema.currentVersion();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                } else if (current) {
+                    rows.add(readFields(reader, fields));
+                } else {
+                    JsonObject record = JsonParser.parseReader(reader).getAsJsonObject();
+                    rows.add(fieldsOf(schema.upgrade(record, version), fields));
+                }
+            }
+            reader.endArray();
+        });
+        return rows;
+    }
+
+    // ==================== INTERNALS ====================
+
+    private interface RecordArrayReader {
+        void read(JsonReader reader, int version) throws IOException;
+    }
+
+    // Finds the record array, bare or inside the versioned wrapper, and hands it to
+    // records together with the file's schema version (0 for a bare array)
+    private static void readRecordArray(String filename, RecordArrayReader records) throws IOException {
+        try (JsonReader reader = new JsonReader(
+                new BufferedReader(new FileReader(filename, StandardCharsets.UTF_8)))) {
+            JsonToken first;
+            try {
+                first = reader.peek();
+            } catch (EOFException e) {
+                return; // Empty file, same as an empty array; running out later means it was cut off
+            }
+            if (first == JsonToken.BEGIN_ARRAY) {
+                records.read(reader, 0);
+                return;
+            }
+            if (first != JsonToken.BEGIN_OBJECT) {
+                return;
+            }
+
+            // Versioned wrapper; the version is written before the records
+            int version = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals(SchemaMigrations.VERSION_FIELD)) {
+                    version = reader.nextInt();
+                } else if (name.equals(SchemaMigrations.RECORDS_FIELD)) {
+                    records.read(reader, version);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+    }
+
+    private static <T> void selectFromArray(JsonReader reader, int version, Class<T> recordType, Gson gson,
+                                            SchemaMigrations.Schema schema, String keyField,
+                                            Predicate<String> keyTest, List<T> matches) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonObject record = readIfMatches(reader, keyField, keyTest);
+            if (record != null) {
+                matches.add(gson.fromJson(schema.upgrade(record, version), recordType));
+            }
+        }
+        reader.endArray();
+    }
+
+    // Returns the record as a tree if its key field passes, otherwise skips it and returns null.
+    // Fields that appear before the key have to be kept until the key is seen.
+    private static JsonObject readIfMatches(JsonReader reader, String keyField,
+                                            Predicate<String> keyTest) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        JsonObject record = new JsonObject();
+        boolean matched = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!matched && name.equals(keyField)) {
+                JsonElement key = readScalar(reader);
+                if (key == null || !test(keyTest, key.getAsString())) {
+                    skipRest(reader);
+                    return null;
+                }
+                record.add(name, key);
+                matched = true;
+            } else {
+                record.add(name, JsonParser.parseReader(reader));
+            }
+        }
+        reader.endObject();
+        return matched ? record : null;
+    }
+
+    private static String[] readFields(JsonReader reader, String[] fields) throws IOException {
+        String[] values = new String[fields.length];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int position = indexOf(fields, reader.nextName());
+            if (position < 0) {
+                reader.skipValue();
+                continue;
+            }
+            JsonElement value = readScalar(reader);
+            values[position] = value != null ? value.getAsString() : null;
+        }
+        reader.endObject();
+        return values;
+    }
+
+    private static String[] fieldsOf(JsonObject record, String[] fields) {
+        String[] values = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            JsonElement value = record.get(fields[i]);
+            values[i] = value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+        }
+        return values;
+    }
+
+    private static int indexOf(String[] fields, String name) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static JsonElement readScalar(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER) {
+            return new JsonPrimitive(new BigDecimal(reader.nextString()));
+        }
+        if (token == JsonToken.STRING) {
+            return new JsonPrimitive(reader.nextString());
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static boolean test(Predicate<String> keyTest, String raw) {
+        try {
+            return keyTest.test(raw);
+        } catch (RuntimeException e) {
+            return false; // e.g. a non-numeric value in a numeric key field
+        }
+    }
+
+    private static void skipRest(JsonReader reader) throws IOException {
+        while (reader.hasNext()) {
+            reader.nextName();
+            reader.skipValue();
+        }
+        reader.endObject();
+    }
+}
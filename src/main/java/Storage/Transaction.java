@@ -0,0 +1,131 @@
+package Storage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Changes to several stores that have to land together, e.g. a trek and its
+// bookings. Build one with DataStore.begin(), add keyed deletes and puts, and
+// commit(). The whole change set is first appended to data/transactions.log
+// and fsynced; from then on the transaction is durable. The changes are then
+// applied to the stores, which persist them through their usual writers, and
+// the log entry is marked done once those writes are on disk. If the process
+// dies in between, DataStore replays every entry not marked done on the next
+// start. Operations are keyed, so replaying a partly applied one is harmless.
+// If a store refuses a change, the ones already applied are put back the way
+// they were and the entry is marked aborted, so it is never replayed.
+final class Transaction {
+
+    // Reads the record stored under a key, or null if there is none
+    interface Lookup<T> {
+        T find(String key) throws IOException;
+    }
+
+    // One store as a transaction sees it: records addressed by a string key.
+    // A refused delete or put must leave the store as it was.
+    static final class Participant<T> {
+        private final String name;
+        private final Class<T> recordType;
+        private final Function<T, String> keyOf;
+        private final Lookup<T> find;
+        private final Predicate<String> delete;
+        private final Predicate<T> put;
+
+        Participant(String name, Class<T> recordType, Function<T, String> keyOf,
+                    Lookup<T> find, Predicate<String> delete, Predicate<T> put) {
+            this.name = name;
+            this.recordType = recordType;
+            this.keyOf = keyOf;
+            this.find = find;
+            this.delete = delete;
+            this.put = put;
+        }
+
+        String getName() { return name; }
+
+        Class<T> getRecordType() { return recordType; }
+
+        String keyOf(T record) {
+            return keyOf.apply(record);
+        }
+
+        // Fails rather than answering null when the store can't be read
+        T find(String key) throws IOException {
+            return find.find(key);
+        }
+
+        // Removes the record with this key. True if it is gone afterwards, including when
+        // there was none; false only if the store refused the change.
+        boolean delete(String key) {
+            return delete.test(key);
+        }
+
+        // Replaces the record with the same key, or adds it
+        boolean put(T record) {
+            return put.test(record);
+        }
+    }
+
+    // A delete has no record, a put carries the new version
+    static final class Operation<T> {
+        private final Participant<T> participant;
+        private final String key;
+        private final T record;
+
+        Operation(Participant<T> participant, String key, T record) {
+            this.participant = participant;
+            this.key = key;
+            this.record = record;
+        }
+
+        Participant<T> getParticipant() { return participant; }
+
+        String getKey() { return key; }
+
+        T getRecord() { return record; }
+
+        boolean apply() {
+            return record == null ? participant.delete(key) : participant.put(record);
+        }
+
+        // The operation that puts this key back the way it is now
+        Operation<T> inverse() throws IOException {
+            return new Operation<>(participant, key, participant.find(key));
+        }
+    }
+
+    private final TransactionLog log;
+    private final List<Operation<?>> operations = new ArrayList<>();
+
+    Transaction(TransactionLog log) {
+        this.log = log;
+    }
+
+    <T> Transaction delete(Participant<T> participant, T record) {
+        operations.add(new Operation<>(participant, participant.keyOf(record), null));
+        return this;
+    }
+
+    <T> Transaction deleteAll(Participant<T> participant, List<T> records) {
+        for (T record : records) {
+            delete(participant, record);
+        }
+        return this;
+    }
+
+    <T> Transaction put(Participant<T> participant, T record) {
+        operations.add(new Operation<>(participant, participant.keyOf(record), record));
+        return this;
+    }
+
+    // True once the change set is in the log and applied in memory. False if nothing
+    // changed: it couldn't be logged, or applying it failed and was undone.
+    boolean commit() {
+        if (operations.isEmpty()) {
+            return true;
+        }
+        return log.commit(operations);
+    }
+}
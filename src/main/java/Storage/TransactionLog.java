@@ -0,0 +1,334 @@
+package Storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Redo log behind Transaction. One JSON line per transaction,
+//   {"tx":"<id>","owner":"<pid>@<start>","ops":[{"store":"bookings","key":"7"},{"store":"treks","key":"3","put":{..}}]}
+// and a {"done":"<id>"} line once all of its writes are on disk, or an
+// {"aborted":"<id>"} line once a failed one has been undone on disk. Entries
+// with neither whose owning process is gone are replayed by recover().
+// The file is cut back to the open entries whenever it grows past
+// COMPACT_BYTES with nothing in flight.
+final class TransactionLog {
+    private static final long COMPACT_BYTES = 64 * 1024;
+    private static final long FLUSH_TIMEOUT_MILLIS = 10_000;
+    private static final String OWNER = ownerId(ProcessHandle.current());
+
+    private final String filename;
+    private final Path path;
+    private final CommitLock commitLock;
+    private final Gson gson;
+    private final Map<String, Transaction.Participant<?>> participants = new LinkedHashMap<>();
+    // Transactions of this process whose store writes aren't known to be on disk yet
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService completer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    TransactionLog(String filename, Gson gson) {
+        this.filename = filename;
+        this.path = Paths.get(filename);
+        this.commitLock = CommitLock.forFile(filename);
+        this.gson = gson;
+    }
+
+    // Stores a transaction may touch, by the name written into the log
+    void register(Transaction.Participant<?> participant) {
+        participants.put(participant.getName(), participant);
+    }
+
+    // Serialized, so transactions are applied in the order they were logged
+    synchronized boolean commit(List<Transaction.Operation<?>> operations) {
+        // What each key holds now, to put back if a later operation is refused
+        List<Transaction.Operation<?>> inverses = new ArrayList<>();
+        try {
+            for (Transaction.Operation<?> operation : operations) {
+                inverses.add(operation.inverse());
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading the stores, transaction not applied: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        String id = UUID.randomUUID().toString();
+        JsonArray ops = new JsonArray();
+        for (Transaction.Operation<?> operation : operations) {
+            ops.add(toJson(operation));
+        }
+        JsonObject entry = new JsonObject();
+        entry.addProperty("tx", id);
+        entry.addProperty("owner", OWNER);
+        entry.add("ops", ops);
+
+        try {
+            append(entry);
+        } catch (IOException e) {
+            System.err.println("Error writing " + filename + ", transaction not applied: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        inFlight.add(id);
+        int applied = applyAll(id, operations);
+        if (applied == operations.size()) {
+            completer.execute(() -> markWhenDurable(id, "done"));
+            return true;
+        }
+
+        if (undo(id, inverses.subList(0, applied))) {
+            completer.execute(() -> markWhenDurable(id, "aborted"));
+        } else {
+            // Left open in the log: the next start finishes it rather than keep half of it
+            System.err.println("Transaction " + id + " could not be undone; it will be completed on next start");
+            inFlight.remove(id);
+        }
+        return false;
+    }
+
+    // Replays every transaction that was logged but never marked done, e.g. because
+    // the process died before the stores wrote their files. Entries of instances that
+    // are still running are theirs to finish, so they are left alone.
+    synchronized void recover() {
+        List<JsonObject> open = new ArrayList<>();
+        for (JsonObject entry : readOpenEntries()) {
+            if (!ownerRunning(entry)) {
+                open.add(entry);
+            }
+        }
+        if (open.isEmpty()) {
+            return;
+        }
+        for (JsonObject entry : open) {
+            for (JsonElement op : entry.getAsJsonArray("ops")) {
+                replay(op.getAsJsonObject());
+            }
+        }
+        if (!GroupCommitWriter.getInstance().flush(FLUSH_TIMEOUT_MILLIS)) {
+            return; // Still open, so the next start tries again
+        }
+        try {
+            for (JsonObject entry : open) {
+                appendMarker("done", entry.get("tx").getAsString());
+            }
+            compact();
+        } catch (IOException e) {
+            System.err.println("Error marking replayed transactions done: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // ==================== INTERNALS ====================
+
+    // "<pid>@<start millis>": a pid alone may since belong to an unrelated process
+    private static String ownerId(ProcessHandle process) {
+        return process.pid() + "@" + process.info().startInstant().map(Instant::toEpochMilli).orElse(0L);
+    }
+
+    // Entries without an owner were written by older builds and count as abandoned
+    private static boolean ownerRunning(JsonObject entry) {
+        if (!entry.has("owner")) {
+            return false;
+        }
+        String owner = entry.get("owner").getAsString();
+        try {
+            long pid = Long.parseLong(owner.substring(0, owner.indexOf('@')));
+            return ProcessHandle.of(pid)
+                    .filter(ProcessHandle::isAlive)
+                    .map(TransactionLog::ownerId)
+                    .filter(owner::equals)
+                    .isPresent();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    // How many operations were applied before one threw or its store refused the change
+    private int applyAll(String id, List<Transaction.Operation<?>> operations) {
+        int applied = 0;
+        try {
+            for (Transaction.Operation<?> operation : operations) {
+                if (!operation.apply()) {
+                    System.err.println("Error applying transaction " + id + ": " + operation.getParticipant().getName()
+                            + " refused the change to " + operation.getKey());
+                    return applied;
+                }
+                applied++;
+            }
+        } catch (Exception e) {
+            System.err.println("Error applying transaction " + id + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return applied;
+    }
+
+    // Applies the inverses last to first. False if any of them failed too.
+    private boolean undo(String id, List<Transaction.Operation<?>> inverses) {
+        boolean undone = true;
+        for (int i = inverses.size() - 1; i >= 0; i--) {
+            Transaction.Operation<?> inverse = inverses.get(i);
+            try {
+                if (!inverse.apply()) {
+                    System.err.println("Error undoing transaction " + id + ": " + inverse.getParticipant().getName()
+                            + " refused to restore " + inverse.getKey());
+                    undone = false;
+                }
+            } catch (Exception e) {
+                System.err.println("Error undoing transaction " + id + ": " + e.getMessage());
+                e.printStackTrace();
+                undone = false;
+            }
+        }
+        return undone;
+    }
+
+    private <T> JsonObject toJson(Transaction.Operation<T> operation) {
+        Transaction.Participant<T> participant = operation.getParticipant();
+        JsonObject op = new JsonObject();
+        op.addProperty("store", participant.getName());
+        op.addProperty("key", operation.getKey());
+        if (operation.getRecord() != null) {
+            op.add("put", gson.toJsonTree(operation.getRecord(), participant.getRecordType()));
+        }
+        return op;
+    }
+
+    private void replay(JsonObject op) {
+        Transaction.Participant<?> participant = participants.get(op.get("store").getAsString());
+        if (participant == null) {
+            System.err.println("Skipping logged change to unknown store " + op.get("store"));
+            return;
+        }
+        replay(participant, op.get("key").getAsString(), op.get("put"));
+    }
+
+    private <T> void replay(Transaction.Participant<T> participant, String key, JsonElement put) {
+        if (put == null) {
+            participant.delete(key);
+        } else {
+            participant.put(gson.fromJson(put, participant.getRecordType()));
+        }
+    }
+
+    // Waits for the background writer to persist everything staged so far, which
+    // includes this transaction's changes (or their undoing), then appends the marker
+    // ("done" or "aborted"). An entry that can't be confirmed stays open in the log
+    // (compaction keeps it) and is replayed on the next start.
+    private void markWhenDurable(String id, String marker) {
+        GroupCommitWriter writer = GroupCommitWriter.getInstance();
+        try {
+            if (!writer.flush(FLUSH_TIMEOUT_MILLIS) || writer.hasFailures()) {
+                System.err.println("Transaction " + id + " not confirmed on disk yet; it will be replayed on next start");
+                return;
+            }
+            appendMarker(marker, id);
+        } catch (IOException e) {
+            System.err.println("Error marking transaction " + id + " " + marker + ": " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            inFlight.remove(id);
+        }
+
+        try {
+            if (inFlight.isEmpty() && Files.size(path) > COMPACT_BYTES) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Error compacting " + filename + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private void appendMarker(String marker, String id) throws IOException {
+        JsonObject line = new JsonObject();
+        line.addProperty(marker, id);
+        append(line);
+    }
+
+    private void append(JsonObject entry) throws IOException {
+        byte[] line = (gson.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        commitLock.commit(versionOnDisk -> {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            return null;
+        });
+    }
+
+    // Entries without a done or aborted line, in log order. A torn last line (crash mid-append)
+    // is a transaction that never committed, so it is ignored.
+    private List<JsonObject> readOpenEntries() {
+        Map<String, JsonObject> open = new LinkedHashMap<>();
+        if (!Files.exists(path)) {
+            return new ArrayList<>();
+        }
+        try {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                JsonObject entry;
+                try {
+                    entry = JsonParser.parseString(line).getAsJsonObject();
+                } catch (RuntimeException e) {
+                    System.err.println("Ignoring incomplete line in " + filename);
+                    continue;
+                }
+                if (entry.has("done")) {
+                    open.remove(entry.get("done").getAsString());
+                } else if (entry.has("aborted")) {
+                    open.remove(entry.get("aborted").getAsString());
+                } else if (entry.has("tx")) {
+                    open.put(entry.get("tx").getAsString(), entry);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading " + filename + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>(open.values());
+    }
+
+    // Drops finished entries. Reads and rewrites under the lock so an entry appended
+    // by another instance meanwhile can't be lost.
+    private void compact() throws IOException {
+        commitLock.commit(versionOnDisk -> {
+            StringBuilder text = new StringBuilder();
+            for (JsonObject entry : readOpenEntries()) {
+                text.append(gson.toJson(entry)).append('\n');
+            }
+            AtomicFiles.write(path, text.toString().getBytes(StandardCharsets.UTF_8));
+            return null;
+        });
+    }
+}
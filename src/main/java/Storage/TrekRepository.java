@@ -0,0 +1,24 @@
+package Storage;
+
+import Models.Trek;
+
+import java.util.List;
+
+public interface TrekRepository {
+    List<Trek> loadTreks();
+
+    Trek getTrekById(int id);
+
+    List<Trek> getTreksByGuideEmail(String guideEmail);
+
+    // Assigns the trek a new id before storing it
+    boolean addTrek(Trek trek);
+
+    // Bulk version of addTrek: new ids for all, stored in one write
+    boolean addTreks(List<Trek> treks);
+
+    boolean updateTrek(Trek updatedTrek);
+
+    // Deletes the trek's bookings along with it, all or nothing
+    boolean deleteTrek(int trekId);
+}
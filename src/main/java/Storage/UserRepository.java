@@ -0,0 +1,24 @@
+package Storage;
+
+import Models.User;
+
+import java.util.List;
+
+// Tourists and admins (admins live in the same table/file, told apart by userType)
+public interface UserRepository {
+    List<User> loadUsers();
+
+    boolean userExists(String email);
+
+    // Tourists and admins alike, like loadUsers().size()
+    int countUsers();
+
+    // Returns false if a user with the same email already exists
+    boolean addUser(User user);
+
+    // Stores all of them in one write, or none if any email is taken or repeated
+    boolean addUsers(List<User> users);
+
+    // Only removes tourists ("user" type), never admins; their bookings go with them
+    boolean deleteUser(String email);
+}
@@ -1,5 +1,6 @@
 package Tourist;
 
+import Models.BookingFactory;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -145,7 +146,7 @@ public class BookingDialogController implements Initializable {
         private final String guideName;
 
         public Booking(String trekName, String status, LocalDate startDate, LocalDate endDate, String guideName) {
-            this.bookingId = "BK" + System.currentTimeMillis();
+            this.bookingId = BookingFactory.newBookingId();
             this.trekName = trekName;
             this.status = status;
             this.startDate = startDate;
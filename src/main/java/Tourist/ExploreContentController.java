@@ -2,9 +2,12 @@ package Tourist;
 
 import Models.Trek;
 import Models.Booking;
+import Models.BookingFactory;
 import Models.User;
 import Session.UserSession;
-import Storage.AdminJSONHandler;
+import Storage.BookingRepository;
+import Storage.Repositories;
+import Storage.TrekRepository;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -32,13 +35,15 @@ public class ExploreContentController implements Initializable {
 
     private List<Trek> allTreks;
     private List<Trek> filteredTreks;
-    private AdminJSONHandler jsonHandler;
+    private TrekRepository trekRepository;
+    private BookingRepository bookingRepository;
 
     private String currentUserEmail = "tourist@example.com";
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        jsonHandler = new AdminJSONHandler();
+        trekRepository = Repositories.treks();
+        bookingRepository = Repositories.bookings();
         setupSearchField();
         loadTreksFromJSON();
         displayTreks(allTreks);
@@ -70,7 +75,7 @@ public class ExploreContentController implements Initializable {
 
     private void loadTreksFromJSON() {
         try {
-            allTreks = jsonHandler.loadTreks();
+            allTreks = trekRepository.loadTreks();
             System.out.println("Loaded " + allTreks.size() + " treks from JSON");
         } catch (Exception e) {
             System.err.println("Error loading treks from JSON: " + e.getMessage());
@@ -86,7 +91,7 @@ public class ExploreContentController implements Initializable {
             filteredTreks = allTreks.stream()
                     .filter(trek ->
                             trek.getTrekName().toLowerCase().contains(searchText) ||
-                                    trek.getDifficulty().toLowerCase().contains(searchText) ||
+                                    (trek.getDifficulty() != null && trek.getDifficulty().toLowerCase().contains(searchText)) ||
                                     trek.getBestSeason().toLowerCase().contains(searchText) ||
                                     String.valueOf(trek.getMaxAltitude()).contains(searchText)
                     )
@@ -273,16 +278,16 @@ public class ExploreContentController implements Initializable {
         VBox costSection = new VBox(2);
 
         if (trek.hasDiscount()) {
-            Label originalCostLabel = new Label("Was: $" + String.format("%.0f", trek.getOriginalCost()));
+            Label originalCostLabel = new Label("Was: $" + trek.getOriginalCostWholeString());
             originalCostLabel.setStyle("-fx-text-fill: #999999; -fx-font-size: 12px; " +
                     "-fx-strikethrough: true;");
 
-            Label finalCostLabel = new Label("Now: $" + String.format("%.0f", trek.getCost()));
+            Label finalCostLabel = new Label("Now: $" + trek.getCostWholeString());
             finalCostLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-weight: bold; -fx-font-size: 16px;");
 
             costSection.getChildren().addAll(originalCostLabel, finalCostLabel);
         } else {
-            Label costLabel = new Label("Cost: $" + String.format("%.0f", trek.getCost()));
+            Label costLabel = new Label("Cost: $" + trek.getCostWholeString());
             costLabel.setStyle("-fx-text-fill: #e53e3e; -fx-font-weight: bold; -fx-font-size: 16px;");
             costSection.getChildren().add(costLabel);
         }
@@ -554,8 +559,8 @@ public class ExploreContentController implements Initializable {
             String userEmailToUse = getCurrentUserEmailFromSession();
             System.out.println("Creating booking with user email: " + userEmailToUse);
 
-            Booking booking = new Booking(trek.getId(), userEmailToUse, trek.getGuideEmail(), trek.getStartDate());
-            boolean success = jsonHandler.addBooking(booking);
+            Booking booking = BookingFactory.forTrek(trek, userEmailToUse);
+            boolean success = bookingRepository.addBooking(booking);
 
             if (success) {
                 System.out.println("Booking created successfully: " + booking);
@@ -5,7 +5,10 @@ import Models.Trek;
 import Models.Attraction;
 import Models.User;
 import Session.UserSession;
-import Storage.AdminJSONHandler;
+import Storage.AttractionRepository;
+import Storage.BookingRepository;
+import Storage.Repositories;
+import Storage.TrekRepository;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -45,14 +48,18 @@ public class TouristBookingController implements Initializable {
     @FXML
     private Button viewDetailsButton;
 
-    private AdminJSONHandler jsonHandler;
+    private TrekRepository trekRepository;
+    private AttractionRepository attractionRepository;
+    private BookingRepository bookingRepository;
     private User currentUser;
     private ObservableList<BookingDisplayData> allBookings;
     private ObservableList<BookingDisplayData> filteredBookings;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        jsonHandler = new AdminJSONHandler();
+        trekRepository = Repositories.treks();
+        attractionRepository = Repositories.attractions();
+        bookingRepository = Repositories.bookings();
         UserSession userSession = UserSession.getInstance();
         currentUser = userSession.getCurrentUser();
 
@@ -116,7 +123,7 @@ public class TouristBookingController implements Initializable {
             String userEmail = currentUser.getEmail();
             System.out.println("Loading bookings for user: " + userEmail);
 
-            List<Booking> userBookings = jsonHandler.getBookingsByUserEmail(userEmail);
+            List<Booking> userBookings = bookingRepository.getBookingsByUserEmail(userEmail);
             System.out.println("Found " + userBookings.size() + " bookings for user");
 
             allBookings = FXCollections.observableArrayList();
@@ -246,13 +253,13 @@ public class TouristBookingController implements Initializable {
 
     private BookingDisplayData createDisplayData(Booking booking) {
         try {
-            Trek trek = jsonHandler.getTrekById(booking.getTrekId());
+            Trek trek = trekRepository.getTrekById(booking.getTrekId());
             if (trek == null) {
                 System.err.println("Trek not found for booking: " + booking.getBookingId());
                 return null;
             }
 
-            Attraction attraction = jsonHandler.getAttractionById(trek.getAttractionId());
+            Attraction attraction = attractionRepository.getAttractionById(trek.getAttractionId());
             String attractionName = (attraction != null) ? attraction.getName() : "Unknown Attraction";
 
             String guideName = extractGuideName(booking.getGuideEmail());
@@ -20,7 +20,10 @@ import Models.Trek;
 import Models.Attraction;
 import Models.User;
 import Session.UserSession;
-import Storage.AdminJSONHandler;
+import Storage.AttractionRepository;
+import Storage.BookingRepository;
+import Storage.Repositories;
+import Storage.TrekRepository;
 import Language.LanguageManager;
 import Services.WeatherService;
 import javafx.application.Platform;
@@ -66,7 +69,9 @@ public class TouristDashboardContentController implements Initializable, Languag
     private TrekBooking upcomingTrek;
     private int activeBookingsCount = 0;
 
-    private AdminJSONHandler jsonHandler;
+    private TrekRepository trekRepository;
+    private AttractionRepository attractionRepository;
+    private BookingRepository bookingRepository;
     private UserSession userSession;
     private User currentUser;
     private LanguageManager languageManager;
@@ -74,7 +79,9 @@ public class TouristDashboardContentController implements Initializable, Languag
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         // Initialize handlers and session
-        jsonHandler = new AdminJSONHandler();
+        trekRepository = Repositories.treks();
+        attractionRepository = Repositories.attractions();
+        bookingRepository = Repositories.bookings();
         userSession = UserSession.getInstance();
         currentUser = userSession.getCurrentUser();
         languageManager = LanguageManager.getInstance();
@@ -250,23 +257,24 @@ public class TouristDashboardContentController implements Initializable, Languag
             String userEmail = currentUser.getEmail();
             System.out.println("Loading upcoming trek for user: " + userEmail);
 
-            List<Booking> userBookings = jsonHandler.getBookingsByUserEmail(userEmail);
+            LocalDate today = LocalDate.now();
+            // Only bookings starting today or later; past months are never opened
+            List<Booking> userBookings = bookingRepository.getBookingsByUserEmail(userEmail, today, null);
 
             if (userBookings.isEmpty()) {
-                System.out.println("No bookings found for user");
+                System.out.println("No upcoming bookings found for user");
                 return null;
             }
 
-            LocalDate today = LocalDate.now();
-
+            long todayEpochDay = today.toEpochDay();
             Booking upcomingBooking = userBookings.stream()
                     .filter(booking -> {
-                        Trek trek = jsonHandler.getTrekById(booking.getTrekId());
-                        return trek != null && !trek.getStartDate().isBefore(today);
+                        Trek trek = trekRepository.getTrekById(booking.getTrekId());
+                        return trek != null && trek.hasStartDate() && trek.getStartEpochDay() >= todayEpochDay;
                     })
-                    .min(Comparator.comparing(booking -> {
-                        Trek trek = jsonHandler.getTrekById(booking.getTrekId());
-                        return trek != null ? trek.getStartDate() : LocalDate.MAX;
+                    .min(Comparator.comparingLong(booking -> {
+                        Trek trek = trekRepository.getTrekById(booking.getTrekId());
+                        return trek != null ? trek.getStartEpochDay() : Long.MAX_VALUE;
                     }))
                     .orElse(null);
 
@@ -275,13 +283,13 @@ public class TouristDashboardContentController implements Initializable, Languag
                 return null;
             }
 
-            Trek trek = jsonHandler.getTrekById(upcomingBooking.getTrekId());
+            Trek trek = trekRepository.getTrekById(upcomingBooking.getTrekId());
             if (trek == null) {
                 System.err.println("Trek not found for booking: " + upcomingBooking.getBookingId());
                 return null;
             }
 
-            Attraction attraction = jsonHandler.getAttractionById(trek.getAttractionId());
+            Attraction attraction = attractionRepository.getAttractionById(trek.getAttractionId());
             String location = (attraction != null) ? attraction.getLocation() : "Unknown Location";
             String description = (attraction != null) ? attraction.getRemarks() : "No description available.";
 
@@ -312,7 +320,7 @@ public class TouristDashboardContentController implements Initializable, Languag
             }
 
             String userEmail = currentUser.getEmail();
-            List<Booking> userBookings = jsonHandler.getBookingsByUserEmail(userEmail);
+            List<Booking> userBookings = bookingRepository.getBookingsByUserEmail(userEmail);
 
             System.out.println("Found " + userBookings.size() + " total bookings for user");
             return userBookings.size();
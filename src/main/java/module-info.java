@@ -3,6 +3,8 @@ module org.example.finall {
     requires javafx.fxml;
     requires com.google.gson;
     requires java.desktop;
+    requires java.sql;
+    requires com.h2database;
 
     opens First to javafx.fxml;
     opens Admin to javafx.fxml, javafx.base;
@@ -0,0 +1,42 @@
+package Models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingFactoryTest {
+
+    @Test
+    void forTrekTakesTheGuideAndDateFromTheTrek() {
+        Trek trek = new Trek("Mardi Himal", "5 days", LocalDate.of(2026, 11, 2), "Moderate", 4500, 300,
+                "Autumn", "guide@example.com", 1);
+        trek.setId(12);
+
+        List<Booking> bookings = BookingFactory.forTrek(trek, List.of("a@example.com", "b@example.com"));
+
+        assertEquals(2, bookings.size());
+        for (Booking booking : bookings) {
+            assertEquals(12, booking.getTrekId());
+            assertEquals("guide@example.com", booking.getGuideEmail());
+            assertEquals(LocalDate.of(2026, 11, 2), booking.getTrekStartDate());
+        }
+        assertEquals("b@example.com", bookings.get(1).getUserEmail());
+    }
+
+    @Test
+    void newBookingsGetDistinctIdsInCreationOrder() {
+        Booking first = new Booking(1, "a@example.com", null, null);
+        Booking second = BookingFactory.create(1, "a@example.com", null, null);
+
+        assertTrue(first.getBookingId().startsWith("BK"));
+        assertNotEquals(first.getBookingId(), second.getBookingId());
+        assertTrue(first.getBookingId().compareTo(second.getBookingId()) < 0);
+        assertFalse(first.hasTrekStartDate());
+    }
+}
@@ -0,0 +1,91 @@
+package Models;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// The storage cache hands out copies made with these constructors, so a field
+// one of them forgets would silently vanish from every record read back
+class CopyConstructorTest {
+
+    @Test
+    void trekCopiesEveryField() throws Exception {
+        assertCopiesEveryField(new Trek(), Trek::new);
+    }
+
+    @Test
+    void attractionCopiesEveryField() throws Exception {
+        assertCopiesEveryField(new Attraction(), Attraction::new);
+    }
+
+    @Test
+    void bookingCopiesEveryField() throws Exception {
+        assertCopiesEveryField(new Booking(), Booking::new);
+    }
+
+    @Test
+    void emergencyCopiesEveryField() throws Exception {
+        assertCopiesEveryField(new Emergency(), Emergency::new);
+    }
+
+    @Test
+    void userCopiesEveryField() throws Exception {
+        assertCopiesEveryField(new User(), User::new);
+    }
+
+    @Test
+    void guideCopiesEveryField() throws Exception {
+        assertCopiesEveryField(new Guide(), Guide::new);
+    }
+
+    private static <T> void assertCopiesEveryField(T original, UnaryOperator<T> copyConstructor) throws Exception {
+        List<Field> fields = instanceFields(original.getClass());
+        for (Field field : fields) {
+            field.set(original, sampleValue(field));
+        }
+
+        T copy = copyConstructor.apply(original);
+
+        assertNotSame(original, copy);
+        for (Field field : fields) {
+            assertEquals(field.get(original), field.get(copy), field.getDeclaringClass().getSimpleName() + "." + field.getName());
+        }
+    }
+
+    private static List<Field> instanceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                // Transient fields are derived caches, rebuilt on demand
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    // A value that differs from what the no-argument constructors set
+    private static Object sampleValue(Field field) {
+        Class<?> type = field.getType();
+        if (type == int.class) return 7;
+        if (type == long.class) return 11L;
+        if (type == boolean.class) return true;
+        if (type == String.class) return field.getName() + "-value";
+        if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return constants[constants.length - 1];
+        }
+        fail("No sample value for " + field.getName() + " of type " + type.getName() + "; extend the test");
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+package Models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SharedValuesTest {
+
+    @Test
+    void knownValuesTakeTheListedSpelling() {
+        assertEquals("Medical Emergency", SharedValues.EMERGENCY_TYPES.canonical("  medical EMERGENCY "));
+        assertSame(SharedValues.EMERGENCY_TYPES.canonical("other"), SharedValues.EMERGENCY_TYPES.canonical("OTHER"));
+    }
+
+    @Test
+    void otherValuesAreKeptAsTypedAndShared() {
+        String typed = new String("nepali");
+        String other = new String("NEPALI");
+
+        // Whichever spelling comes first, neither rewrites the other
+        assertEquals("NEPALI", SharedValues.NATIONALITIES.canonical(other));
+        assertEquals("nepali", SharedValues.NATIONALITIES.canonical(typed));
+        assertSame(SharedValues.NATIONALITIES.canonical(typed), SharedValues.NATIONALITIES.canonical(new String("nepali")));
+        assertEquals("Snow leopard sighting", SharedValues.EMERGENCY_TYPES.canonical("Snow leopard sighting"));
+    }
+
+    @Test
+    void blankValuesStayAsTheyAre() {
+        assertNull(SharedValues.NATIONALITIES.canonical(null));
+        assertEquals("  ", SharedValues.NATIONALITIES.canonical("  "));
+    }
+}
@@ -0,0 +1,63 @@
+package Storage;
+
+import Models.Attraction;
+import Models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against the shared data/ folder, so records are made unique per run
+class BackupsTest {
+    private final String run = Long.toString(System.nanoTime());
+
+    @AfterEach
+    void finishWrites() {
+        DataStore.getInstance().flush();
+    }
+
+    private static Attraction attraction(int id, String name) {
+        Attraction attraction = new Attraction();
+        attraction.setId(id);
+        attraction.setName(name);
+        return attraction;
+    }
+
+    @Test
+    void restorePutsEveryStoreBackTogether() {
+        DataStore store = DataStore.getInstance();
+        int kept = store.attractionIds().nextId();
+        int added = store.attractionIds().nextId();
+        String email = "backup-" + run + "@example.com";
+        assertTrue(store.attractions().add(attraction(kept, "Before")));
+
+        Path full = Backups.getInstance().fullBackup().join();
+        assertNotNull(full);
+
+        // Changes in two stores after the backup
+        assertTrue(store.attractions().replace(item -> item.getId() == kept, attraction(kept, "After")));
+        assertTrue(store.attractions().add(attraction(added, "Added after")));
+        assertTrue(store.users().add(new User("Late", "User", email, "9800000000", "secret", "Nepal")));
+        Path incremental = Backups.getInstance().backup().join();
+        assertTrue(incremental.getFileName().toString().endsWith("-incr.zip"));
+
+        assertTrue(Backups.getInstance().restore(full).join());
+        assertEquals("Before", store.attractions().findFirstBy(DataStore.BY_ID, kept).getName());
+        assertNull(store.attractions().findFirstBy(DataStore.BY_ID, added));
+        assertNull(store.users().findFirstBy(DataStore.BY_EMAIL, email));
+
+        // The incremental backup replays on top of its full one
+        assertTrue(Backups.getInstance().restore(incremental).join());
+        assertEquals("After", store.attractions().findFirstBy(DataStore.BY_ID, kept).getName());
+        assertNotNull(store.attractions().findFirstBy(DataStore.BY_ID, added));
+        assertNotNull(store.users().findFirstBy(DataStore.BY_EMAIL, email));
+
+        assertTrue(store.attractions().removeIf(item -> item.getId() == kept || item.getId() == added));
+        assertTrue(store.users().removeIf(user -> email.equals(user.getEmail())));
+    }
+}
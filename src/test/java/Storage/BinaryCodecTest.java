@@ -0,0 +1,102 @@
+package Storage;
+
+import Models.Booking;
+import Models.Emergency;
+import Models.Guide;
+import Models.Trek;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryCodecTest {
+    @TempDir
+    Path dir;
+
+    // Models have no equals(); their JSON stands in for it
+    private static <T> void assertSameRecords(List<T> expected, List<T> actual, Class<T> recordType) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(StorageCodecs.DATA_GSON.toJson(expected.get(i), recordType),
+                    StorageCodecs.DATA_GSON.toJson(actual.get(i), recordType));
+        }
+    }
+
+    private <T> List<T> roundTrip(String name, RecordFormat<T> format, List<T> records) throws IOException {
+        BinaryCodec<T> codec = new BinaryCodec<>(format);
+        Path file = dir.resolve(name + codec.getExtension());
+        AtomicFiles.write(file, codec.encode(records));
+        assertEquals(records.size(), codec.count(file));
+        return codec.read(file);
+    }
+
+    @Test
+    void recordsSurviveARoundTrip() throws Exception {
+        Trek trek = new Trek("Binary", "5 days", LocalDate.of(2026, 9, 1), "Hard", 5364, 1234.5, "Autumn",
+                "g@example.com", 3);
+        trek.setHasDiscount(true);
+        trek.setOriginalCost(1500);
+        trek.setDiscountPercent(17.7);
+        Trek undated = new Trek();
+        undated.setTrekName("No date");
+        assertSameRecords(List.of(trek, undated), roundTrip("treks", RecordFormats.TREK, List.of(trek, undated)),
+                Trek.class);
+
+        Booking booking = new Booking(3, "t@example.com", "g@example.com", LocalDate.of(2026, 9, 1));
+        assertSameRecords(List.of(booking), roundTrip("bookings", RecordFormats.BOOKING, List.of(booking)),
+                Booking.class);
+
+        Emergency emergency = new Emergency("Guide", "g@example.com", "Medical", "Fell", "Camp 2", "High", "98");
+        assertSameRecords(List.of(emergency), roundTrip("emergencies", RecordFormats.EMERGENCY, List.of(emergency)),
+                Emergency.class);
+
+        Guide guide = new Guide("Ang", "Sherpa", "ang@example.com", "98", "secret", "Nepal", "English", "12 years");
+        assertSameRecords(List.of(guide), roundTrip("guides", RecordFormats.GUIDE, List.of(guide)), Guide.class);
+    }
+
+    @Test
+    void damagedFilesAreRefusedNotReadAsEmpty() throws Exception {
+        BinaryCodec<Trek> codec = new BinaryCodec<>(RecordFormats.TREK);
+        Trek trek = new Trek("Cut short", "2 days", LocalDate.of(2026, 5, 1), "Easy", 3000, 100, "Spring",
+                "g@example.com", 1);
+        byte[] whole = codec.encode(List.of(trek, trek));
+
+        Path truncated = dir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(whole, whole.length - 10));
+        assertThrows(IOException.class, () -> codec.read(truncated));
+
+        Path notOurs = dir.resolve("other.bin");
+        Files.write(notOurs, "[{\"id\":1}]".getBytes());
+        assertThrows(IOException.class, () -> codec.read(notOurs));
+        assertThrows(IOException.class, () -> codec.count(notOurs));
+
+        Path otherType = dir.resolve("bookings.bin");
+        Files.write(otherType, new BinaryCodec<>(RecordFormats.BOOKING).encode(List.of()));
+        assertThrows(IOException.class, () -> codec.read(otherType));
+    }
+
+    @Test
+    void jsonFilesAreConvertedOnceWhenBinaryIsSwitchedOn() throws Exception {
+        String base = dir.resolve("treks").toString();
+        Trek trek = new Trek("From JSON", "2 days", LocalDate.of(2026, 5, 1), "Easy", 3000, 100, "Spring",
+                "g@example.com", 1);
+        trek.setId(7);
+        Files.write(Path.of(base + ".json"), StorageCodecs.json(Trek.class).encode(List.of(trek)));
+
+        BinaryCodec<Trek> codec = new BinaryCodec<>(RecordFormats.TREK);
+        StorageCodecs.migrateFromJson(base, Trek.class, codec);
+
+        Path binary = Path.of(base + ".bin");
+        assertTrue(Files.exists(binary));
+        assertSameRecords(List.of(trek), codec.read(binary), Trek.class);
+    }
+}
@@ -0,0 +1,66 @@
+package Storage;
+
+import Models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against the shared data/ folder, so every email is made unique per run
+class BulkImportTest {
+    @TempDir
+    Path dir;
+
+    private final String run = Long.toString(System.nanoTime());
+
+    @AfterEach
+    void finishWrites() {
+        DataStore.getInstance().flush();
+    }
+
+    private String email(String name) {
+        return name + "-" + run + "@example.com";
+    }
+
+    @Test
+    void importsUsersSkippingExistingAndRepeatedEmails() throws Exception {
+        assertTrue(Repositories.users().addUser(
+                new User("Old", "User", email("old"), "9800000000", "secret", "Nepal")));
+        Path file = dir.resolve("users.csv");
+        Files.write(file, List.of(
+                "firstName,lastName,email,phone,password,nationality",
+                "Old,Again," + email("OLD").toUpperCase() + ",9800000001,secret,Nepal",
+                "New,User," + email("new") + ",9800000002,secret,India",
+                "New,Twice," + email("new") + ",9800000003,secret,India",
+                "No,Phone," + email("nophone") + ",,secret,India"), StandardCharsets.UTF_8);
+
+        BulkImport.Result result = BulkImport.importUsers(file);
+
+        assertEquals(1, result.getImported());
+        assertEquals(List.of(
+                "Line 2: User already exists: " + email("OLD").toUpperCase(),
+                "Line 4: duplicate of an earlier line",
+                "Line 5: Please fill in all required fields."), result.getErrors());
+        assertTrue(Repositories.users().userExists(email("new")));
+    }
+
+    @Test
+    void bookingRowsWithoutATrekSayWhy() throws Exception {
+        Path file = dir.resolve("bookings.jsonl");
+        Files.write(file, List.of(
+                "{\"userEmail\":\"" + email("tourist") + "\",\"guideEmail\":\"g@example.com\"}",
+                "{\"trekId\":-5,\"userEmail\":\"" + email("tourist") + "\"}"), StandardCharsets.UTF_8);
+
+        BulkImport.Result result = BulkImport.importBookings(file);
+
+        assertEquals(0, result.getImported());
+        assertEquals(List.of("Line 1: trekId is required", "Line 2: trekId is required"), result.getErrors());
+    }
+}
@@ -0,0 +1,58 @@
+package Storage;
+
+import Models.Guide;
+import Models.Trek;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeEventTest {
+    private final List<ChangeBus.Subscription> subscriptions = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        subscriptions.forEach(ChangeBus.Subscription::cancel);
+        DataStore.getInstance().flush();
+    }
+
+    @Test
+    void publishedRecordsAreSnapshotsOfTheWrite() {
+        List<ChangeEvent.TrekAdded> received = new ArrayList<>();
+        subscriptions.add(ChangeBus.getInstance().subscribe(ChangeEvent.TrekAdded.class, Runnable::run, received::add));
+
+        Trek trek = new Trek("Published", "3 days", LocalDate.of(2026, 4, 1), "Easy", 2000, 80, "Spring",
+                "g@example.com", 1);
+        assertTrue(new PublishingRepository(new AdminJSONHandler()).addTrek(trek));
+        // The caller keeps editing its own object after the write
+        trek.setTrekName("Edited by the caller");
+
+        assertEquals(1, received.size());
+        ChangeEvent.TrekAdded event = received.get(0);
+        assertEquals("Published", event.trek().getTrekName());
+
+        // One listener editing what it got doesn't change what the next one sees
+        event.trek().setTrekName("Edited by a listener");
+        assertEquals("Published", event.trek().getTrekName());
+        assertTrue(DataStore.getInstance().treks().removeIf(stored -> stored.getId() == event.trek().getId()));
+    }
+
+    @Test
+    void guidesPublishedAsUsersStayGuides() {
+        Guide guide = new Guide();
+        guide.setEmail("guide@example.com");
+        guide.setExperience("10 years");
+
+        ChangeEvent.UserAdded event = new ChangeEvent.UserAdded(guide);
+        guide.setExperience("changed");
+
+        Guide published = assertInstanceOf(Guide.class, event.user());
+        assertEquals("10 years", published.getExperience());
+    }
+}
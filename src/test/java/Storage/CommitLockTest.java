@@ -0,0 +1,109 @@
+package Storage;
+
+import Models.Trek;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommitLockTest {
+    // Run in a second JVM: takes the lock, says so, holds it for a while
+    private static final String HOLDER = String.join("\n",
+            "import java.nio.channels.FileChannel;",
+            "import java.nio.file.Path;",
+            "import java.nio.file.StandardOpenOption;",
+            "public class LockHolder {",
+            "    public static void main(String[] args) throws Exception {",
+            "        try (FileChannel channel = FileChannel.open(Path.of(args[0]), StandardOpenOption.CREATE,",
+            "                StandardOpenOption.READ, StandardOpenOption.WRITE)) {",
+            "            channel.lock();",
+            "            System.out.println(\"locked\");",
+            "            Thread.sleep(Long.parseLong(args[1]));",
+            "        }",
+            "    }",
+            "}");
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void finishWrites() {
+        GroupCommitWriter.getInstance().flush(10_000);
+    }
+
+    @Test
+    void commitsWaitForAnotherProcessHoldingTheLock() throws Exception {
+        Path source = dir.resolve("LockHolder.java");
+        Files.writeString(source, HOLDER, StandardCharsets.UTF_8);
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process holder = new ProcessBuilder(java, source.toString(), dir.resolve("treks.lock").toString(), "1500")
+                .redirectErrorStream(true)
+                .start();
+        try {
+            BufferedReader output = new BufferedReader(new InputStreamReader(holder.getInputStream(),
+                    StandardCharsets.UTF_8));
+            assertEquals("locked", output.readLine());
+
+            CommitLock lock = CommitLock.forFile(dir.resolve("treks.json").toString());
+            long started = System.nanoTime();
+            long seen = lock.commit(versionOnDisk -> versionOnDisk);
+            long waitedMillis = (System.nanoTime() - started) / 1_000_000;
+
+            assertTrue(waitedMillis >= 500, "commit went ahead after " + waitedMillis + " ms");
+            assertEquals(0, seen);
+            assertEquals(1, lock.currentVersion());
+        } finally {
+            holder.destroy();
+            holder.waitFor();
+        }
+    }
+
+    @Test
+    void changesMadeWhileAnotherProcessCommitsAreMergedNotLost() throws Exception {
+        Path file = dir.resolve("treks.json");
+        EntityStore<Trek> store = open(file.toString());
+        assertTrue(store.add(trek(1, "Ours")));
+        assertTrue(GroupCommitWriter.getInstance().flush(10_000));
+
+        // Stands in for another process's commit: while it holds the lock and writes the
+        // file, our next change is staged, so our write waits and then finds a newer version
+        CommitLock lock = CommitLock.forFile(file.toString());
+        lock.commit(versionOnDisk -> {
+            assertTrue(store.add(trek(3, "Ours, made during theirs")));
+            AtomicFiles.write(file, StorageCodecs.json(Trek.class).encode(
+                    List.of(trek(1, "Ours"), trek(2, "Theirs"))));
+            return null;
+        });
+        assertTrue(GroupCommitWriter.getInstance().flush(10_000));
+
+        List<String> names = open(file.toString()).getAll().stream()
+                .map(Trek::getTrekName)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(List.of("Ours", "Ours, made during theirs", "Theirs"), names);
+    }
+
+    private static EntityStore<Trek> open(String file) {
+        EntityStore<Trek> store = new EntityStore<>(file, StorageCodecs.json(Trek.class), RecordFormats.TREK,
+                Trek::getId);
+        store.addIndex(DataStore.BY_ID, Trek::getId, "id", Integer::valueOf);
+        return store;
+    }
+
+    private static Trek trek(int id, String name) {
+        Trek trek = new Trek(name, "2 days", LocalDate.of(2026, 5, 1), "Easy", 3000, 100, "Spring", "g@x.com", 1);
+        trek.setId(id);
+        return trek;
+    }
+}
@@ -0,0 +1,60 @@
+package Storage;
+
+import Models.Attraction;
+import Models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against the shared data/ folder, so records are made unique per run
+class DataStoreTest {
+    private final String run = Long.toString(System.nanoTime());
+
+    @AfterEach
+    void finishWrites() {
+        DataStore.getInstance().flush();
+    }
+
+    @Test
+    void usersMatchEmailsIgnoringCaseAndReachTheFile() throws Exception {
+        String email = "Mixed.Case-" + run + "@Example.com";
+        assertTrue(JSONHandler.addUser(new User("First", "Last", email, "9800000000", "secret", "Nepal")));
+
+        assertTrue(JSONHandler.userExists(email.toLowerCase()));
+        assertFalse(JSONHandler.addUser(
+                new User("Other", "Person", email.toUpperCase(), "9800000001", "secret", "India")));
+
+        assertTrue(DataStore.getInstance().flush());
+        StorageCodec<User> codec = StorageCodecs.configured(User.class, RecordFormats.USER);
+        List<User> onDisk = codec.read(Paths.get(StorageCodecs.fileFor(DataStore.USERS_BASE, codec)));
+        assertEquals(1, onDisk.stream().filter(user -> email.equals(user.getEmail())).count());
+    }
+
+    @Test
+    void recoverFinishesTransactionsLeftOpen() throws Exception {
+        int id = 1_000_000 + (int) (System.nanoTime() % 1_000_000);
+        DataStore store = DataStore.getInstance();
+        assertNull(store.attractions().findFirstBy(DataStore.BY_ID, id));
+
+        // Logged by a run that died before applying it (no owner: counts as abandoned)
+        String entry = "{\"tx\":\"" + run + "\",\"ops\":[{\"store\":\"attractions\",\"key\":\"" + id
+                + "\",\"put\":{\"id\":" + id + ",\"name\":\"Recovered\"}}]}\n";
+        Files.writeString(Paths.get(DataStore.TRANSACTION_LOG), entry, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        store.recover();
+
+        assertEquals("Recovered", store.attractions().findFirstBy(DataStore.BY_ID, id).getName());
+        assertTrue(store.attractions().removeIf(attraction -> attraction.getId() == id));
+    }
+}
@@ -0,0 +1,110 @@
+package Storage;
+
+import Models.Guide;
+import Models.Trek;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityStoreTest {
+    @TempDir
+    Path dir;
+
+    private EntityStore<Trek> store;
+
+    @BeforeEach
+    void openStore() {
+        store = new EntityStore<>(dir.resolve("treks.json").toString(), StorageCodecs.json(Trek.class),
+                RecordFormats.TREK, Trek::getId);
+        store.addIndex(DataStore.BY_ID, Trek::getId, "id", Integer::valueOf);
+    }
+
+    @AfterEach
+    void finishWrites() {
+        // The temp folder is deleted next; let the background writer finish with it first
+        GroupCommitWriter.getInstance().flush(10_000);
+    }
+
+    private static Trek trek(int id, String name) {
+        Trek trek = new Trek(name, "2 days", LocalDate.of(2026, 5, 1), "Easy", 3000, 100, "Spring", "g@x.com", 1);
+        trek.setId(id);
+        return trek;
+    }
+
+    @Test
+    void readsHandOutCopies() {
+        assertTrue(store.add(trek(1, "Original")));
+
+        Trek found = store.findFirstBy(DataStore.BY_ID, 1);
+        found.setTrekName("Edited by a screen");
+        store.getAll().get(0).setTrekName("Edited through getAll");
+        store.findBy(DataStore.BY_ID, 1).get(0).setTrekName("Edited through findBy");
+
+        assertEquals("Original", store.findFirstBy(DataStore.BY_ID, 1).getTrekName());
+        assertNotSame(store.findFirstBy(DataStore.BY_ID, 1), store.findFirstBy(DataStore.BY_ID, 1));
+    }
+
+    @Test
+    void writesStoreCopies() {
+        Trek trek = trek(1, "Original");
+        assertTrue(store.add(trek));
+        trek.setTrekName("Edited after adding");
+
+        Trek replacement = trek(1, "Replaced");
+        assertTrue(store.replace(existing -> existing.getId() == 1, replacement));
+        replacement.setTrekName("Edited after replacing");
+
+        assertEquals("Replaced", store.findFirstBy(DataStore.BY_ID, 1).getTrekName());
+    }
+
+    @Test
+    void recordsWithoutAKeyAreRefusedNotThrown() throws Exception {
+        // A guide saved before emails were required
+        Path file = dir.resolve("guides.json");
+        Files.writeString(file, "[{\"firstName\":\"No\",\"lastName\":\"Email\"}]");
+        EntityStore<Guide> guides = new EntityStore<>(file.toString(), StorageCodecs.json(Guide.class),
+                RecordFormats.GUIDE, guide -> DataStore.emailKey(guide.getEmail()));
+        guides.addIndex(DataStore.BY_EMAIL, guide -> DataStore.emailKey(guide.getEmail()));
+
+        Guide noEmail = new Guide();
+        noEmail.setFirstName("Also no email");
+        assertFalse(guides.add(noEmail));
+        assertFalse(guides.replace(guide -> guide.getEmail() == null, noEmail));
+
+        // Giving the old record an email replaces it
+        Guide withEmail = new Guide();
+        withEmail.setFirstName("No");
+        withEmail.setEmail("Now@Example.com");
+        assertTrue(guides.replace(guide -> guide.getEmail() == null, withEmail));
+        assertEquals(1, guides.getAll().size());
+        assertEquals("No", guides.findFirstBy(DataStore.BY_EMAIL, "now@example.com").getFirstName());
+    }
+
+    @Test
+    void lookupsOnABrokenFileDontAnswerWithWhatWasReadBeforeTheError() throws Exception {
+        // Cut off mid-record, after a record that matches
+        Path file = dir.resolve("broken.json");
+        Files.writeString(file, "[{\"id\":1,\"trekName\":\"Before the error\"},{\"id\":2,\"trekName\":");
+        assertThrows(IOException.class, () -> StorageCodecs.json(Trek.class).select(file, "id", "1"::equals));
+
+        EntityStore<Trek> broken = new EntityStore<>(file.toString(), StorageCodecs.json(Trek.class),
+                RecordFormats.TREK, Trek::getId);
+        broken.addIndex(DataStore.BY_ID, Trek::getId, "id", Integer::valueOf);
+
+        // The lookup falls back to loading the file, which reports it as unreadable
+        assertTrue(broken.findBy(DataStore.BY_ID, 1).isEmpty());
+        assertThrows(IOException.class, broken::getAllOrFail);
+    }
+}
@@ -0,0 +1,71 @@
+package Storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against the shared data/sequences.properties, so every sequence name is unique per run
+class IdSequenceTest {
+    private final String run = Long.toString(System.nanoTime());
+
+    @Test
+    void startsPastExistingIdsAndNeverReusesAfterARestart() {
+        IdSequence first = new IdSequence("first-" + run, () -> 41);
+        assertEquals(42, first.nextId());
+        assertEquals(43, first.nextId());
+
+        // A new process resumes past the block the old one reserved, even though
+        // the records holding 42 and 43 are gone
+        IdSequence restarted = new IdSequence("first-" + run, () -> 0);
+        assertTrue(restarted.nextId() > 43);
+    }
+
+    @Test
+    void reservedRangesDontOverlapTheCurrentBlock() {
+        IdSequence sequence = new IdSequence("range-" + run, () -> 0);
+        int single = sequence.nextId();
+        int rangeStart = sequence.reserveIds(100);
+        int afterwards = sequence.nextId();
+
+        assertTrue(rangeStart > single);
+        assertTrue(afterwards < rangeStart || afterwards >= rangeStart + 100);
+        IdSequence restarted = new IdSequence("range-" + run, () -> 0);
+        assertTrue(restarted.nextId() >= rangeStart + 100);
+    }
+
+    @Test
+    void instancesSharingTheFileNeverHandOutTheSameId() throws Exception {
+        // Two sequences with the same name stand in for two processes sharing data/
+        List<IdSequence> processes = List.of(new IdSequence("shared-" + run, () -> 0),
+                new IdSequence("shared-" + run, () -> 0));
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> work = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                IdSequence sequence = processes.get(t % 2);
+                work.add(threads.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        assertTrue(ids.add(sequence.nextId()));
+                    }
+                }));
+            }
+            for (Future<?> done : work) {
+                done.get();
+            }
+        } finally {
+            threads.shutdown();
+        }
+        assertEquals(2000, new HashSet<>(ids).size());
+    }
+}
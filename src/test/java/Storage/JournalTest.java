@@ -0,0 +1,76 @@
+package Storage;
+
+import Models.Trek;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalTest {
+    @TempDir
+    Path dir;
+
+    private Journal<Trek> journal(Path file) {
+        return new Journal<>(file.toString(), Trek.class, Trek::getId, StorageCodecs.DATA_GSON, 1024 * 1024);
+    }
+
+    private static Trek trek(int id, String name) {
+        Trek trek = new Trek(name, "2 days", LocalDate.of(2026, 5, 1), "Easy", 3000, 100, "Spring", "g@x.com", 1);
+        trek.setId(id);
+        return trek;
+    }
+
+    @Test
+    void badLinesAreSkippedAndTheRestStillApplies() throws Exception {
+        Path file = dir.resolve("treks.journal");
+        Files.write(file, List.of(
+                "{\"op\":\"put\",\"record\":{\"id\":2,\"trekName\":\"Added\"}}",
+                "{\"record\":{\"id\":3,\"trekName\":\"No op\"}}",
+                "{\"op\":\"put\",\"record\":{\"id\":\"not a number\"}}",
+                "{\"op\":\"put\"}",
+                "{\"op\":\"delete\"}",
+                "{\"op\":\"rename\",\"id\":1}",
+                "{\"op\":\"delete\",\"id\":1}",
+                "{\"op\":\"put\",\"record\":{\"id\":4,\"trekName\":\"After the bad lines\"}}",
+                "{\"op\":\"put\",\"record\":{\"id\":5,\"tre"), StandardCharsets.UTF_8);
+
+        List<Trek> records = journal(file).replay(List.of(trek(1, "Deleted")), -1);
+
+        assertEquals(2, records.size());
+        assertEquals("Added", records.get(0).getTrekName());
+        assertEquals("After the bad lines", records.get(1).getTrekName());
+    }
+
+    @Test
+    void linesWithoutAVersionAreUpgradedFromTheSnapshotsVersion() throws Exception {
+        // Logged next to an unversioned snapshot, when altitudes were still text
+        Path file = dir.resolve("treks.journal");
+        Files.write(file, List.of(
+                "{\"op\":\"put\",\"record\":{\"id\":1,\"trekName\":\"Old\",\"maxAltitude\":\"5,364 m\",\"cost\":250.0}}"),
+                StandardCharsets.UTF_8);
+
+        Trek upgraded = journal(file).replay(List.of(), 0).get(0);
+
+        assertEquals(5364, upgraded.getMaxAltitude());
+        assertEquals(25000, upgraded.getOriginalCostMinor());
+    }
+
+    @Test
+    void newLinesNoteTheirVersion() throws Exception {
+        Path file = dir.resolve("treks.journal");
+        Journal<Trek> journal = journal(file);
+        journal.appendPut(trek(7, "Current"));
+        journal.flushPending();
+
+        assertTrue(Files.readString(file, StandardCharsets.UTF_8).contains("\"schemaVersion\":1"));
+        // An old snapshot version doesn't re-run steps on a line that is already current
+        assertEquals(3000, journal.replay(List.of(), 0).get(0).getMaxAltitude());
+    }
+}
@@ -0,0 +1,58 @@
+package Storage;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedFilesTest {
+    private static final boolean WINDOWS = System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void enableMappedReads() {
+        // Each test class has a JVM of its own, so this is seen before the setting is cached
+        System.setProperty("ghumgham.storage.read", "mapped");
+    }
+
+    private static byte[] filled(int size, byte value) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, value);
+        return data;
+    }
+
+    @Test
+    void mappedFilesCanStillBeReplaced() throws Exception {
+        Path file = dir.resolve("big.bin");
+        AtomicFiles.write(file, filled(128 * 1024, (byte) 1));
+
+        ByteBuffer before = MappedFiles.read(file);
+        assertEquals(!WINDOWS, before.isDirect());
+
+        // A save replaces the file by rename while the old mapping is still alive
+        AtomicFiles.write(file, filled(128 * 1024, (byte) 2));
+
+        assertEquals(2, MappedFiles.read(file).get(0));
+        assertEquals(1, before.get(0));
+    }
+
+    @Test
+    void smallFilesAreReadIntoTheHeap() throws Exception {
+        Path file = dir.resolve("small.bin");
+        AtomicFiles.write(file, filled(100, (byte) 3));
+
+        ByteBuffer data = MappedFiles.read(file);
+        assertFalse(data.isDirect());
+        assertEquals(100, data.remaining());
+        assertTrue(data.hasArray());
+    }
+}
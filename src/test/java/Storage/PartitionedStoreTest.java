@@ -0,0 +1,78 @@
+package Storage;
+
+import Models.Booking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedStoreTest {
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void finishWrites() {
+        GroupCommitWriter.getInstance().flush(10_000);
+    }
+
+    private PartitionedStore<Booking> openStore() {
+        return new PartitionedStore<>(dir.toString(),
+                booking -> booking.hasTrekStartDate() ? YearMonth.from(booking.getTrekStartDate()) : null,
+                Booking::getId,
+                this::openPartition);
+    }
+
+    private EntityStore<Booking> openPartition(String base) {
+        EntityStore<Booking> partition = new EntityStore<>(base + ".json", StorageCodecs.json(Booking.class),
+                RecordFormats.BOOKING, Booking::getId);
+        partition.addIndex(DataStore.BY_ID, Booking::getId, "id", Integer::valueOf);
+        return partition;
+    }
+
+    private static Booking booking(int id, LocalDate start) {
+        Booking booking = new Booking(1, "t@example.com", "g@example.com", start);
+        booking.setId(id);
+        return booking;
+    }
+
+    @Test
+    void maxIdReadsPartitionsTheManifestHasNotCaughtUpWith() throws Exception {
+        PartitionedStore<Booking> store = openStore();
+        assertTrue(store.add(booking(5, LocalDate.of(2026, 3, 10))));
+        assertTrue(GroupCommitWriter.getInstance().flush(10_000));
+        assertEquals(5, openStore().maxId());
+
+        // A partition written by a run that died before it got to the manifest
+        openPartition(dir.resolve("2026-04").toString()).writeNow(List.of(booking(42, LocalDate.of(2026, 4, 2))));
+        dir.resolve("manifest.properties").toFile().setLastModified(System.currentTimeMillis() - 60_000);
+
+        assertEquals(42, openStore().maxId());
+    }
+
+    @Test
+    void saveKeepsTheManifestCountsRight() throws Exception {
+        PartitionedStore<Booking> store = openStore();
+        assertTrue(store.addAll(List.of(booking(1, LocalDate.of(2026, 3, 1)), booking(2, LocalDate.of(2026, 3, 2)),
+                booking(3, null))));
+        assertTrue(GroupCommitWriter.getInstance().flush(10_000));
+
+        PartitionedStore<Booking> reopened = openStore();
+        assertTrue(reopened.save(List.of(booking(4, LocalDate.of(2026, 3, 5)))));
+        assertTrue(GroupCommitWriter.getInstance().flush(10_000));
+
+        List<Booking> all = openStore().getAll();
+        assertEquals(1, all.size());
+        assertEquals(4, all.get(0).getId());
+        String manifest = Files.readString(dir.resolve("manifest.properties"));
+        assertTrue(manifest.contains("2026-03=1,"), manifest);
+        assertTrue(manifest.contains("undated=0,"), manifest);
+    }
+}
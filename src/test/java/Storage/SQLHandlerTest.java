@@ -0,0 +1,86 @@
+package Storage;
+
+import Models.Booking;
+import Models.BookingFactory;
+import Models.Trek;
+import Models.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the SQL backend against an in-memory H2 database. The tables are filled from
+// the shared data/ folder on first connect, so records are made unique per run.
+class SQLHandlerTest {
+    private final String run = Long.toString(System.nanoTime());
+    private final SQLHandler sql = new SQLHandler();
+
+    @BeforeAll
+    static void useInMemoryDatabase() {
+        System.setProperty("ghumgham.storage.jdbc.url", "jdbc:h2:mem:ghumgham-test;DB_CLOSE_DELAY=-1");
+    }
+
+    private String email(String name) {
+        return name + "-" + run + "@example.com";
+    }
+
+    private User user(String name) {
+        return new User("First", "Last", email(name), "9800000000", "secret", "Nepal");
+    }
+
+    @Test
+    void userEmailsAreUniqueIgnoringCase() {
+        assertTrue(sql.addUser(user("taken")));
+
+        assertTrue(sql.userExists(email("TAKEN").toUpperCase()));
+        assertFalse(sql.addUser(new User("Other", "Person", email("taken").toUpperCase(), "1", "p", "India")));
+        // All or nothing: one taken email keeps the whole batch out
+        assertFalse(sql.addUsers(List.of(user("fresh"), user("taken"))));
+        assertFalse(sql.userExists(email("fresh")));
+        assertFalse(sql.addUsers(List.of(user("twice"), new User("A", "B", email("TWICE"), "1", "p", "India"))));
+        assertFalse(sql.userExists(email("twice")));
+    }
+
+    @Test
+    void treksRoundTripWithTheirDiscount() {
+        Trek trek = new Trek("SQL " + run, "2 days", LocalDate.of(2026, 5, 1), "Hard", 5000, 1234.5, "Spring",
+                email("guide"), 1);
+        trek.setHasDiscount(true);
+        trek.setOriginalCost(1500);
+        trek.setDiscountPercent(17.7);
+        assertTrue(sql.addTrek(trek));
+
+        Trek stored = sql.getTrekById(trek.getId());
+        assertNotNull(stored);
+        assertEquals(trek.getTrekName(), stored.getTrekName());
+        assertEquals(trek.getStartDate(), stored.getStartDate());
+        assertEquals(trek.getCostDisplayString(), stored.getCostDisplayString());
+        assertEquals(1, sql.getTreksByGuideEmail(email("GUIDE").toUpperCase()).size());
+    }
+
+    @Test
+    void bookingsAreFoundByDateAndGoWithTheirUser() {
+        Trek trek = new Trek("Booked " + run, "3 days", LocalDate.of(2031, 7, 15), "Easy", 2000, 80, "Summer",
+                email("guide"), 1);
+        assertTrue(sql.addTrek(trek));
+        assertTrue(sql.addUser(user("tourist")));
+        assertTrue(sql.addBookings(BookingFactory.forTrek(trek, List.of(email("tourist"), email("friend")))));
+
+        List<Booking> july = sql.getBookingsBetween(LocalDate.of(2031, 7, 1), LocalDate.of(2031, 7, 31));
+        assertEquals(2, july.stream().filter(booking -> booking.getTrekId() == trek.getId()).count());
+        assertEquals(1, sql.getBookingsByUserEmail(email("TOURIST"), LocalDate.of(2031, 7, 1), null).size());
+        assertTrue(sql.getBookingsByUserEmail(email("tourist"), null, LocalDate.of(2031, 6, 30)).isEmpty());
+
+        // Deleting a tourist takes their bookings with it, in one transaction
+        assertTrue(sql.deleteUser(email("Tourist")));
+        assertFalse(sql.userExists(email("tourist")));
+        assertTrue(sql.getBookingsByUserEmail(email("tourist")).isEmpty());
+        assertEquals(1, sql.getBookingsByTrekId(trek.getId()).size());
+    }
+}
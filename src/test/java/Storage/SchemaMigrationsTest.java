@@ -0,0 +1,76 @@
+package Storage;
+
+import Models.Trek;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaMigrationsTest {
+    @TempDir
+    Path dir;
+
+    private final StorageCodec<Trek> codec = StorageCodecs.json(Trek.class);
+
+    private Path write(String name, String json) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, json, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    void unversionedTreksAreUpgradedAsTheyAreRead() throws Exception {
+        // A bare array from before versioning: text altitudes and no discount fields
+        Path file = write("treks.json", "[{\"id\":1,\"trekName\":\"Old\",\"maxAltitude\":\"5,364 m\",\"cost\":1200},"
+                + "null,{\"id\":2,\"trekName\":\"Older\",\"maxAltitude\":\"unknown\",\"cost\":800}]");
+        AtomicBoolean outdated = new AtomicBoolean();
+
+        List<Trek> treks = codec.read(file, () -> outdated.set(true));
+
+        assertEquals(2, treks.size());
+        assertEquals(5364, treks.get(0).getMaxAltitude());
+        assertFalse(treks.get(0).getHasDiscount());
+        assertEquals(1200, treks.get(0).getOriginalCost());
+        assertEquals(0, treks.get(1).getMaxAltitude());
+        assertTrue(outdated.get());
+        assertEquals(0, codec.schemaVersion(file));
+    }
+
+    @Test
+    void recordsAheadOfTheVersionFieldAreStillUpgraded() throws Exception {
+        Path file = write("treks.json", "{\"records\":[{\"id\":1,\"maxAltitude\":\"4130m\",\"cost\":50}],"
+                + "\"schemaVersion\":0}");
+
+        List<Trek> treks = codec.read(file);
+
+        assertEquals(4130, treks.get(0).getMaxAltitude());
+        assertEquals(50, treks.get(0).getOriginalCost());
+    }
+
+    @Test
+    void currentFilesAreNotRewrittenAndNewerOnesAreRefused() throws Exception {
+        Trek trek = new Trek("Current", "2 days", LocalDate.of(2026, 5, 1), "Easy", 3000, 100, "Spring",
+                "g@example.com", 1);
+        Path current = dir.resolve("current.json");
+        Files.write(current, codec.encode(List.of(trek)));
+        AtomicBoolean outdated = new AtomicBoolean();
+
+        assertEquals("Current", codec.read(current, () -> outdated.set(true)).get(0).getTrekName());
+        assertFalse(outdated.get());
+
+        int newer = SchemaMigrations.of(Trek.class).currentVersion() + 1;
+        Path fromNewerBuild = write("newer.json", "{\"schemaVersion\":" + newer + ",\"records\":[]}");
+        assertThrows(IOException.class, () -> codec.read(fromNewerBuild));
+    }
+}
@@ -0,0 +1,159 @@
+package Storage;
+
+import Models.Attraction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class TransactionLogTest {
+    @TempDir
+    Path dir;
+
+    private Path logFile;
+    // Two in-memory stores; "refusing" turns down every put and delete
+    private final Map<String, Attraction> places = new HashMap<>();
+    private Transaction.Participant<Attraction> placeRecords;
+    private Transaction.Participant<Attraction> refusing;
+
+    @BeforeEach
+    void setUp() {
+        logFile = dir.resolve("transactions.log");
+        placeRecords = new Transaction.Participant<>("places", Attraction.class,
+                place -> String.valueOf(place.getId()),
+                places::get,
+                key -> {
+                    places.remove(key);
+                    return true;
+                },
+                place -> {
+                    places.put(String.valueOf(place.getId()), place);
+                    return true;
+                });
+        refusing = new Transaction.Participant<>("refusing", Attraction.class,
+                place -> String.valueOf(place.getId()),
+                key -> null,
+                key -> false,
+                place -> false);
+    }
+
+    @AfterEach
+    void finishWrites() {
+        GroupCommitWriter.getInstance().flush(10_000);
+    }
+
+    private TransactionLog openLog() {
+        TransactionLog log = new TransactionLog(logFile.toString(), StorageCodecs.DATA_GSON);
+        log.register(placeRecords);
+        log.register(refusing);
+        return log;
+    }
+
+    private static Attraction place(int id, String name) {
+        Attraction place = new Attraction();
+        place.setId(id);
+        place.setName(name);
+        return place;
+    }
+
+    // Markers are appended by the log's background thread once the writes are on disk
+    private void awaitLogLine(String marker) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (Files.exists(logFile) && Files.readString(logFile, StandardCharsets.UTF_8).contains(marker)) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("No " + marker + " line in the log");
+    }
+
+    @Test
+    void committedChangesApplyToEveryStore() throws Exception {
+        places.put("1", place(1, "Old"));
+        Transaction tx = new Transaction(openLog())
+                .put(placeRecords, place(1, "New"))
+                .put(placeRecords, place(2, "Added"));
+
+        assertTrue(tx.commit());
+        assertEquals("New", places.get("1").getName());
+        assertEquals("Added", places.get("2").getName());
+        awaitLogLine("\"done\"");
+    }
+
+    @Test
+    void refusedChangeUndoesTheOnesBeforeIt() throws Exception {
+        places.put("1", place(1, "Kept"));
+        Transaction tx = new Transaction(openLog())
+                .put(placeRecords, place(1, "Overwritten"))
+                .delete(placeRecords, place(1, "Kept"))
+                .put(placeRecords, place(2, "Added"))
+                .put(refusing, place(3, "Refused"));
+
+        assertFalse(tx.commit());
+        assertEquals("Kept", places.get("1").getName());
+        assertNull(places.get("2"));
+        awaitLogLine("\"aborted\"");
+
+        // A later start must not redo the failed transaction
+        openLog().recover();
+        assertEquals("Kept", places.get("1").getName());
+        assertNull(places.get("2"));
+    }
+
+    @Test
+    void unreadableStoreStopsTheTransactionBeforeLogging() {
+        Transaction.Participant<Attraction> unreadable = new Transaction.Participant<>("unreadable", Attraction.class,
+                place -> String.valueOf(place.getId()),
+                key -> {
+                    throw new IOException("disk gone");
+                },
+                key -> true,
+                place -> true);
+
+        Transaction tx = new Transaction(openLog())
+                .put(placeRecords, place(1, "Never applied"))
+                .put(unreadable, place(2, "Unreadable"));
+
+        assertFalse(tx.commit());
+        assertTrue(places.isEmpty());
+        assertFalse(Files.exists(logFile));
+    }
+
+    @Test
+    void recoverReplaysEntriesThatWereNeverFinished() throws Exception {
+        // Written by a process that died before marking it done (no owner: an older build)
+        Files.write(logFile, List.of(
+                "{\"tx\":\"a\",\"ops\":[{\"store\":\"places\",\"key\":\"1\",\"put\":{\"id\":1,\"name\":\"Replayed\"}},"
+                        + "{\"store\":\"places\",\"key\":\"2\"}]}",
+                "{\"tx\":\"b\",\"ops\":[{\"store\":\"places\",\"key\":\"3\",\"put\":{\"id\":3,\"name\":\"Finished\"}}]}",
+                "{\"done\":\"b\"}",
+                "{\"tx\":\"c\",\"ops\":[{\"store\":\"places\",\"key\":\"4\",\"put\":{\"id\":4,\"name\":\"Aborted\"}}]}",
+                "{\"aborted\":\"c\"}",
+                "{\"tx\":\"d\",\"ops\":[{\"sto"), StandardCharsets.UTF_8);
+        places.put("2", place(2, "Deleted by replay"));
+
+        openLog().recover();
+
+        assertEquals("Replayed", places.get("1").getName());
+        assertNull(places.get("2"));
+        assertNull(places.get("3"));
+        assertNull(places.get("4"));
+        // Replayed entries are marked done and the log compacted
+        assertEquals("", Files.readString(logFile, StandardCharsets.UTF_8));
+    }
+}